@@ -41,11 +41,10 @@ public class BatchChunker {
             return allChunks;
         }
         
-        File[] files = directory.listFiles((dir, name) -> 
-            name.toLowerCase().endsWith(".pdf") || name.toLowerCase().endsWith(".txt")
-        );
+        // Whole tree, recognised by content rather than extension
+        File[] files = new CorpusCrawler().findDocuments(directory).toArray(new File[0]);
         
-        if (files == null || files.length == 0) {
+        if (files.length == 0) {
             logger.warn("No documents found in: {}", directory.getAbsolutePath());
             return allChunks;
         }
@@ -58,15 +57,14 @@ public class BatchChunker {
             logger.info("[{}/{}] Chunking: {}", i + 1, files.length, file.getName());
             
             try {
-                // Extract text
-                String text = parser.extractText(file);
-                DocumentMetadata metadata = parser.getMetadata(file);
+                // Extract text and metadata in one pass over the file
+                ParsedDocument document = parser.parse(file);
                 
                 // Chunk text
                 List<DocumentChunk> chunks = chunker.chunkDocument(
-                    text,
+                    document.getText(),
                     file.getName(),
-                    metadata.getTitle()
+                    document.getTitle()
                 );
                 
                 allChunks.addAll(chunks);
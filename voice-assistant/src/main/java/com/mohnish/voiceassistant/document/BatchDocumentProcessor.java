@@ -29,11 +29,10 @@ public class BatchDocumentProcessor {
             return results;
         }
         
-        File[] files = directory.listFiles((dir, name) -> 
-            name.toLowerCase().endsWith(".pdf") || name.toLowerCase().endsWith(".txt")
-        );
+        // Whole tree, recognised by content rather than extension
+        File[] files = new CorpusCrawler().findDocuments(directory).toArray(new File[0]);
         
-        if (files == null || files.length == 0) {
+        if (files.length == 0) {
             logger.warn("No documents found in: {}", directory.getAbsolutePath());
             return results;
         }
@@ -48,14 +47,11 @@ public class BatchDocumentProcessor {
             logger.info("[{}/{}] Processing: {}", i + 1, files.length, file.getName());
             
             try {
-                // Extract metadata
-                DocumentMetadata metadata = parser.getMetadata(file);
-                
-                // Extract text
-                String text = parser.extractText(file);
+                // Extract metadata and text in one pass over the file
+                ParsedDocument parsed = parser.parse(file);
                 
                 // Create processed document
-                ProcessedDocument doc = new ProcessedDocument(file, metadata, text);
+                ProcessedDocument doc = new ProcessedDocument(file, parsed.getMetadata(), parsed.getText());
                 results.add(doc);
                 
                 successful++;
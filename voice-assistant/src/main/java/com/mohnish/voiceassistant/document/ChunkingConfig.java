@@ -0,0 +1,30 @@
+package com.mohnish.voiceassistant.document;
+
+/**
+ * Settings a chunking run used, shared by all the chunks it produced
+ */
+public final class ChunkingConfig {
+    private final TextChunker.ChunkingStrategy strategy;
+    private final int chunkSize;
+    private final int chunkOverlap;
+    private final int tokenBudget;    // 0 when chunks were sized in words
+
+    public ChunkingConfig(TextChunker.ChunkingStrategy strategy, int chunkSize, int chunkOverlap, int tokenBudget) {
+        this.strategy = strategy;
+        this.chunkSize = chunkSize;
+        this.chunkOverlap = chunkOverlap;
+        this.tokenBudget = tokenBudget;
+    }
+
+    // Getters
+    public TextChunker.ChunkingStrategy getStrategy() { return strategy; }
+    public int getChunkSize() { return chunkSize; }
+    public int getChunkOverlap() { return chunkOverlap; }
+    public int getTokenBudget() { return tokenBudget; }
+
+    @Override
+    public String toString() {
+        return String.format("ChunkingConfig{strategy=%s, size=%d, overlap=%d, tokenBudget=%d}",
+            strategy, chunkSize, chunkOverlap, tokenBudget);
+    }
+}
@@ -0,0 +1,218 @@
+package com.mohnish.voiceassistant.document;
+
+import org.apache.tika.Tika;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+
+/**
+ * Walks directory trees in parallel and streams out every supported document.
+ *
+ * Each directory is a fork/join task, so deep or wide trees are listed by all
+ * threads at once. Files are judged by their content (Tika magic-byte
+ * detection) rather than their extension; tiny files and files the caller
+ * already knows about are dropped before anything is read. Documents are
+ * handed to the consumer as soon as they are found, from crawler threads.
+ * Symbolic links are not followed, so a link back up the tree cannot loop and
+ * no book is found twice under two paths.
+ */
+public class CorpusCrawler {
+    private static final Logger logger = LoggerFactory.getLogger(CorpusCrawler.class);
+
+    public static final String PDF = "application/pdf";
+    public static final String TEXT = "text/plain";
+    private static final Set<String> SUPPORTED_TYPES = Set.of(PDF, TEXT);
+
+    // Tika's facade is thread-safe and costly to build
+    private static final Tika TIKA = new Tika();
+
+    private int parallelism = Math.max(2, Runtime.getRuntime().availableProcessors());
+    private long minFileBytes = 256;              // Smaller files are empty or placeholders
+    private Predicate<File> alreadyIndexed = file -> false;
+
+    /**
+     * Crawl a directory tree, calling the consumer with each document and its media type
+     */
+    public CrawlStats crawl(File root, BiConsumer<File, String> consumer) {
+        if (!root.isDirectory()) {
+            throw new IllegalArgumentException("Directory not found: " + root.getAbsolutePath());
+        }
+
+        CrawlStats stats = new CrawlStats();
+        long startTime = System.currentTimeMillis();
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.invoke(new DirectoryTask(root.toPath(), consumer, stats));
+        } finally {
+            pool.shutdown();
+        }
+
+        logger.info("✅ Crawled {} in {}ms: {}", root.getName(), System.currentTimeMillis() - startTime, stats);
+        return stats;
+    }
+
+    /**
+     * Collect all documents of a tree, sorted by path
+     */
+    public List<File> findDocuments(File root) {
+        List<File> documents = Collections.synchronizedList(new ArrayList<>());
+        crawl(root, (file, type) -> documents.add(file));
+
+        List<File> sorted = new ArrayList<>(documents);
+        Collections.sort(sorted);
+        return sorted;
+    }
+
+    /**
+     * Media type of a file from its content (falls back to the name when the bytes are ambiguous)
+     */
+    public static String detectType(File file) throws IOException {
+        return TIKA.detect(file);
+    }
+
+    public static boolean isSupportedType(String mediaType) {
+        return SUPPORTED_TYPES.contains(mediaType);
+    }
+
+    /**
+     * Whether a crawl would hand this file out, regardless of whether it is already indexed
+     */
+    public boolean isDocument(File file) {
+        try {
+            Path path = file.toPath();
+            return Files.isRegularFile(path, LinkOption.NOFOLLOW_LINKS) && Files.size(path) >= minFileBytes
+                && isSupportedType(detectType(file));
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private class DirectoryTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Path directory;
+        private final BiConsumer<File, String> consumer;
+        private final CrawlStats stats;
+
+        private DirectoryTask(Path directory, BiConsumer<File, String> consumer, CrawlStats stats) {
+            this.directory = directory;
+            this.consumer = consumer;
+            this.stats = stats;
+        }
+
+        @Override
+        protected void compute() {
+            List<DirectoryTask> subdirectories = new ArrayList<>();
+
+            try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+                for (Path entry : entries) {
+                    if (entry.getFileName().toString().startsWith(".")) {
+                        continue; // Hidden files and folders (.git, .Trash, ...)
+                    }
+
+                    BasicFileAttributes attributes;
+                    try {
+                        attributes = Files.readAttributes(entry, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                    } catch (IOException e) {
+                        continue;
+                    }
+
+                    if (attributes.isDirectory()) {
+                        DirectoryTask task = new DirectoryTask(entry, consumer, stats);
+                        task.fork();
+                        subdirectories.add(task);
+                    } else if (attributes.isRegularFile()) {
+                        visit(entry.toFile(), attributes.size());
+                    }
+                }
+            } catch (IOException e) {
+                logger.warn("Cannot list {}: {}", directory, e.getMessage());
+            }
+
+            for (DirectoryTask task : subdirectories) {
+                task.join();
+            }
+        }
+
+        private void visit(File file, long size) {
+            stats.scanned.incrementAndGet();
+
+            // Cheap checks first: no bytes are read for these
+            if (size < minFileBytes) {
+                stats.skippedTiny.incrementAndGet();
+                return;
+            }
+            if (alreadyIndexed.test(file)) {
+                stats.skippedIndexed.incrementAndGet();
+                return;
+            }
+
+            String type;
+            try {
+                type = detectType(file);
+            } catch (IOException e) {
+                stats.skippedUnsupported.incrementAndGet();
+                return;
+            }
+            if (!isSupportedType(type)) {
+                stats.skippedUnsupported.incrementAndGet();
+                return;
+            }
+
+            stats.discovered.incrementAndGet();
+            consumer.accept(file, type);
+        }
+    }
+
+    // Getters and setters
+    public int getParallelism() { return parallelism; }
+    public void setParallelism(int parallelism) { this.parallelism = parallelism; }
+
+    public long getMinFileBytes() { return minFileBytes; }
+    public void setMinFileBytes(long minFileBytes) { this.minFileBytes = minFileBytes; }
+
+    /**
+     * Files for which this returns true are skipped without being read
+     */
+    public void setAlreadyIndexed(Predicate<File> alreadyIndexed) { this.alreadyIndexed = alreadyIndexed; }
+
+    /**
+     * Counters for one crawl
+     */
+    public static class CrawlStats {
+        private final AtomicInteger scanned = new AtomicInteger();
+        private final AtomicInteger discovered = new AtomicInteger();
+        private final AtomicInteger skippedTiny = new AtomicInteger();
+        private final AtomicInteger skippedIndexed = new AtomicInteger();
+        private final AtomicInteger skippedUnsupported = new AtomicInteger();
+
+        public int getScanned() { return scanned.get(); }
+        public int getDiscovered() { return discovered.get(); }
+        public int getSkippedTiny() { return skippedTiny.get(); }
+        public int getSkippedIndexed() { return skippedIndexed.get(); }
+        public int getSkippedUnsupported() { return skippedUnsupported.get(); }
+
+        @Override
+        public String toString() {
+            return String.format("%d files scanned, %d documents, %d already indexed, %d tiny, %d unsupported",
+                getScanned(), getDiscovered(), getSkippedIndexed(), getSkippedTiny(), getSkippedUnsupported());
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.mohnish.voiceassistant.document;
 
+import java.nio.CharBuffer;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -8,26 +9,29 @@ import java.util.Map;
  */
 public class DocumentChunk {
     private String id;                    // Unique identifier
-    private String text;                  // Actual text content
+    private String text;                  // Actual text content (of a view: copied out on first use)
+    private String sourceText;            // Document text this chunk is a view of, or null
     private String sourceFile;            // Origin file name
     private String documentTitle;         // Document title
     private int chunkIndex;               // Position in document
-    private int startPosition;            // Character start position
-    private int endPosition;              // Character end position
-    private Map<String, String> metadata; // Additional metadata
+    private long startPosition;           // Character start position
+    private long endPosition;             // Character end position
+    private Map<String, String> metadata; // Additional metadata, built on first use
+    private ChunkingConfig config;        // Settings of the run that made this chunk (shared), or null
+    private int wordCount = -1;           // Cached, -1 until counted
+    private int tokenCount = -1;          // Cached, -1 until estimated
     
     public DocumentChunk(String id, String text, String sourceFile, int chunkIndex) {
         this.id = id;
         this.text = text;
         this.sourceFile = sourceFile;
         this.chunkIndex = chunkIndex;
-        this.metadata = new HashMap<>();
     }
     
     // Full constructor
     public DocumentChunk(String id, String text, String sourceFile, 
                         String documentTitle, int chunkIndex, 
-                        int startPosition, int endPosition) {
+                        long startPosition, long endPosition) {
         this.id = id;
         this.text = text;
         this.sourceFile = sourceFile;
@@ -35,15 +39,44 @@ public class DocumentChunk {
         this.chunkIndex = chunkIndex;
         this.startPosition = startPosition;
         this.endPosition = endPosition;
-        this.metadata = new HashMap<>();
+    }
+
+    /**
+     * View of sourceText between startPosition and endPosition; the text is not
+     * copied until {@link #getText()} is called
+     */
+    public DocumentChunk(String id, String sourceText, int startPosition, int endPosition,
+                        String sourceFile, String documentTitle, int chunkIndex, int wordCount) {
+        this(id, null, sourceFile, documentTitle, chunkIndex, startPosition, endPosition);
+        this.sourceText = sourceText;
+        this.wordCount = wordCount;
     }
     
     // Getters and setters
     public String getId() { return id; }
     public void setId(String id) { this.id = id; }
     
-    public String getText() { return text; }
-    public void setText(String text) { this.text = text; }
+    public String getText() {
+        String value = text;
+        if (value == null && sourceText != null) {
+            value = sourceText.substring((int) startPosition, (int) endPosition);
+            text = value;
+        }
+        return value;
+    }
+    public void setText(String text) {
+        this.text = text;
+        this.sourceText = null;
+        this.wordCount = -1;
+        this.tokenCount = -1;
+    }
+
+    /**
+     * The text as a CharSequence, without copying it out of the document it views
+     */
+    public CharSequence getContent() {
+        return text != null || sourceText == null ? text : CharBuffer.wrap(sourceText, (int) startPosition, (int) endPosition);
+    }
     
     public String getSourceFile() { return sourceFile; }
     public void setSourceFile(String sourceFile) { this.sourceFile = sourceFile; }
@@ -54,41 +87,77 @@ public class DocumentChunk {
     public int getChunkIndex() { return chunkIndex; }
     public void setChunkIndex(int chunkIndex) { this.chunkIndex = chunkIndex; }
     
-    public int getStartPosition() { return startPosition; }
-    public void setStartPosition(int startPosition) { this.startPosition = startPosition; }
+    public long getStartPosition() { return startPosition; }
+    public void setStartPosition(long startPosition) { detach(); this.startPosition = startPosition; }
     
-    public int getEndPosition() { return endPosition; }
-    public void setEndPosition(int endPosition) { this.endPosition = endPosition; }
+    public long getEndPosition() { return endPosition; }
+    public void setEndPosition(long endPosition) { detach(); this.endPosition = endPosition; }
     
-    public Map<String, String> getMetadata() { return metadata; }
+    /**
+     * Metadata; for a chunk made by TextChunker it starts with the counts and the
+     * run's settings (word_count, char_count, strategy, chunk_size_config,
+     * overlap_config, and token_count and token_budget_config within a token
+     * budget), put in the map only when it is first asked for
+     */
+    public Map<String, String> getMetadata() {
+        if (metadata == null) {
+            metadata = materializeMetadata();
+        }
+        return metadata;
+    }
     public void setMetadata(Map<String, String> metadata) { this.metadata = metadata; }
     
     /**
      * Add metadata
      */
     public void addMetadata(String key, String value) {
-        this.metadata.put(key, value);
+        getMetadata().put(key, value);
     }
+
+    public ChunkingConfig getConfig() { return config; }
+    public void setConfig(ChunkingConfig config) { this.config = config; }
     
     /**
-     * Get word count
+     * Get word count (counted once, or given by the chunker)
      */
     public int getWordCount() {
-        return text.split("\\s+").length;
+        if (wordCount < 0) {
+            wordCount = TokenizedText.countWords(getContent());
+        }
+        return wordCount;
+    }
+    
+    /**
+     * Get estimated token count ({@link TokenEstimator}, counted once)
+     */
+    public int getTokenCount() {
+        if (tokenCount < 0) {
+            tokenCount = TokenEstimator.estimate(getContent());
+        }
+        return tokenCount;
     }
     
     /**
      * Get character count
      */
     public int getCharCount() {
-        return text.length();
+        return getContent().length();
     }
     
     /**
      * Check if chunk is valid (has content)
      */
     public boolean isValid() {
-        return text != null && !text.trim().isEmpty();
+        CharSequence content = getContent();
+        if (content == null) {
+            return false;
+        }
+        for (int i = 0; i < content.length(); i++) {
+            if (content.charAt(i) > ' ') {
+                return true;
+            }
+        }
+        return false;
     }
     
     @Override
@@ -101,9 +170,34 @@ public class DocumentChunk {
      * Get preview of text (first N characters)
      */
     public String getPreview(int maxLength) {
-        if (text.length() <= maxLength) {
-            return text;
+        CharSequence content = getContent();
+        if (content.length() <= maxLength) {
+            return getText();
+        }
+        return content.subSequence(0, maxLength) + "...";
+    }
+
+    private Map<String, String> materializeMetadata() {
+        Map<String, String> values = new HashMap<>();
+        if (config != null) {
+            values.put("word_count", String.valueOf(getWordCount()));
+            values.put("char_count", String.valueOf(getCharCount()));
+            values.put("strategy", config.getStrategy().name());
+            values.put("chunk_size_config", String.valueOf(config.getChunkSize()));
+            values.put("overlap_config", String.valueOf(config.getChunkOverlap()));
+            if (config.getTokenBudget() > 0) {
+                values.put("token_count", String.valueOf(getTokenCount()));
+                values.put("token_budget_config", String.valueOf(config.getTokenBudget()));
+            }
         }
-        return text.substring(0, maxLength) + "...";
+        return values;
+    }
+
+    /**
+     * Stop being a view, so positions can change without changing the text
+     */
+    private void detach() {
+        getText();
+        sourceText = null;
     }
 }
\ No newline at end of file
@@ -1,14 +1,28 @@
 package com.mohnish.voiceassistant.document;
 
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.io.MemoryUsageSetting;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.PDDocumentInformation;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDResources;
 import org.apache.pdfbox.text.PDFTextStripper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Extracts text and metadata from supported document formats (.pdf, .txt)
@@ -16,47 +30,207 @@ import java.nio.file.Files;
 public class DocumentParser {
     private static final Logger logger = LoggerFactory.getLogger(DocumentParser.class);
 
+    /** Separator between pages in raw text (form feed, as in plain-text page breaks) */
+    public static final char PAGE_BREAK = '\f';
+
+    /** Bump whenever extraction or cleaning output changes, to invalidate cached parses */
+    public static final int PARSER_VERSION = 1;
+
+    // One reusable buffer per thread; books are cleaned concurrently on the parse pool
+    private static final ThreadLocal<TextNormalizer> NORMALIZER = ThreadLocal.withInitial(TextNormalizer::new);
+
+    private int pagesPerTask = 100;       // Smaller PDFs are extracted on the calling thread
+    private int maxParallelRanges = Runtime.getRuntime().availableProcessors();
+    private long maxMainMemoryBytes = 64L * 1024 * 1024;  // Per loaded PDF, beyond this PDFBox uses a temp file
+    private long maxExtractionMemoryBytes = 256L * 1024 * 1024;  // All copies of one PDF extracted in parallel
+    private int windowChars = 64 * 1024;  // Largest piece of a text file emitted by streamPages
+    private ParsedTextCache textCache;    // Parsed documents on disk, or null to always parse
+
     /**
      * Extract text from a PDF file
      */
     public String extractTextFromPDF(File pdfFile) throws IOException {
+        String text = cleanText(extractRawTextFromPDF(pdfFile));
+        int wordCount = countWords(text);
+        logger.info("✅ Extracted ~{} words from {}", wordCount, pdfFile.getName());
+        return text;
+    }
+
+    /**
+     * Extract uncleaned text from a PDF file, pages separated by {@link #PAGE_BREAK}
+     */
+    public String extractRawTextFromPDF(File pdfFile) throws IOException {
         logger.info("Extracting text from PDF: {}", pdfFile.getName());
 
         if (!pdfFile.exists()) {
             throw new IOException("File not found: " + pdfFile.getAbsolutePath());
         }
 
-        if (!pdfFile.getName().toLowerCase().endsWith(".pdf")) {
+        if (!pdfFile.getName().toLowerCase().endsWith(".pdf")
+                && !CorpusCrawler.PDF.equals(CorpusCrawler.detectType(pdfFile))) {
             throw new IOException("Not a PDF file: " + pdfFile.getName());
         }
 
-        try (PDDocument document = PDDocument.load(pdfFile)) {
-            // Handle encrypted PDFs
-            if (document.isEncrypted()) {
-                logger.warn("PDF is encrypted: {}", pdfFile.getName());
+        try (PDDocument document = loadPDF(pdfFile)) {
+            return extractRawTextFromPDF(pdfFile, document);
+        } catch (IOException e) {
+            logger.error("❌ Failed to extract text from PDF: {}", pdfFile.getName(), e);
+            throw e;
+        }
+    }
+
+    /**
+     * Extract the pages of an already loaded PDF, separated by {@link #PAGE_BREAK}
+     */
+    private String extractRawTextFromPDF(File pdfFile, PDDocument document) throws IOException {
+        int pageCount = document.getNumberOfPages();
+        int rangeSize = Math.max(pagesPerTask, -Math.floorDiv(-pageCount, parallelRanges(pdfFile)));
+
+        // Later ranges are forked onto the caller's fork/join pool (the common pool
+        // otherwise); PDDocument is not thread-safe, so each loads its own copy
+        List<PageRangeTask> ranges = new ArrayList<>();
+        for (int start = rangeSize + 1; start <= pageCount; start += rangeSize) {
+            PageRangeTask range = new PageRangeTask(pdfFile, start, Math.min(pageCount, start + rangeSize - 1));
+            range.fork();
+            ranges.add(range);
+        }
+
+        // The first range reuses the document loaded by the caller
+        StringBuilder text = new StringBuilder();
+        int blankPages;
+        try {
+            blankPages = extractPages(document, 1, Math.min(pageCount, rangeSize), text);
+
+            for (PageRangeTask range : ranges) {
                 try {
-                    document.setAllSecurityToBeRemoved(true);
-                } catch (Exception e) {
-                    throw new IOException("Cannot decrypt PDF: " + pdfFile.getName(), e);
+                    text.append(range.join());
+                    blankPages += range.blankPages;
+                } catch (UncheckedIOException e) {
+                    throw e.getCause();
                 }
             }
+        } finally {
+            // After a failure, ranges that have not started never load their copy
+            for (PageRangeTask range : ranges) {
+                range.cancel(false);
+            }
+        }
 
-            // Extract text
-            PDFTextStripper stripper = new PDFTextStripper();
-            stripper.setSortByPosition(true);
-            String text = stripper.getText(document);
+        logger.info("✅ Extracted {} pages from {} ({} ranges, {} blank or image-only)",
+            pageCount, pdfFile.getName(), ranges.size() + 1, blankPages);
 
-            // Clean and analyze text
-            text = cleanText(text);
-            int pageCount = document.getNumberOfPages();
-            int wordCount = text.isEmpty() ? 0 : text.split("\\s+").length;
+        return text.toString();
+    }
 
-            logger.info("✅ Extracted {} pages (~{} words) from {}", pageCount, wordCount, pdfFile.getName());
+    /**
+     * Number of ranges a PDF may be split into. Every range holds its own copy of
+     * the document, estimated at the file size for the parsed objects plus as much
+     * again for decoded streams (at most maxMainMemoryBytes, the rest is in a temp
+     * file), and all copies together stay within maxExtractionMemoryBytes
+     */
+    int parallelRanges(File pdfFile) {
+        long copyBytes = Math.max(1, pdfFile.length() + Math.min(pdfFile.length(), maxMainMemoryBytes));
+        return (int) Math.max(1, Math.min(maxParallelRanges, maxExtractionMemoryBytes / copyBytes));
+    }
 
-            return text;
-        } catch (IOException e) {
-            logger.error("❌ Failed to extract text from PDF: {}", pdfFile.getName(), e);
-            throw e;
+    /**
+     * Load a PDF, keeping at most maxMainMemoryBytes of parsed streams on the heap
+     * (the rest goes to a temp file), so huge scans do not exhaust memory
+     */
+    private PDDocument loadPDF(File pdfFile) throws IOException {
+        PDDocument document = PDDocument.load(pdfFile, MemoryUsageSetting.setupMixed(maxMainMemoryBytes));
+
+        // Handle encrypted PDFs
+        if (document.isEncrypted()) {
+            logger.warn("PDF is encrypted: {}", pdfFile.getName());
+            try {
+                document.setAllSecurityToBeRemoved(true);
+            } catch (Exception e) {
+                document.close();
+                throw new IOException("Cannot decrypt PDF: " + pdfFile.getName(), e);
+            }
+        }
+        return document;
+    }
+
+    /**
+     * Append the text of pages first..last (1-based), each followed by {@link #PAGE_BREAK}
+     *
+     * @return number of pages skipped as blank
+     */
+    private static int extractPages(PDDocument document, int first, int last, StringBuilder out) throws IOException {
+        PDFTextStripper stripper = new PDFTextStripper();
+        stripper.setSortByPosition(true);
+        stripper.setPageEnd(String.valueOf(PAGE_BREAK));
+
+        int blankPages = 0;
+        int runStart = -1;
+        for (int pageNumber = first; pageNumber <= last + 1; pageNumber++) {
+            boolean hasText = pageNumber <= last && mayContainText(document.getPage(pageNumber - 1));
+            if (hasText && runStart < 0) {
+                runStart = pageNumber;
+            } else if (!hasText && runStart > 0) {
+                // Strip consecutive text pages in one go
+                stripper.setStartPage(runStart);
+                stripper.setEndPage(pageNumber - 1);
+                out.append(stripper.getText(document));
+                runStart = -1;
+            }
+
+            if (!hasText && pageNumber <= last) {
+                out.append(PAGE_BREAK);
+                blankPages++;
+            }
+        }
+        return blankPages;
+    }
+
+    /**
+     * False when a page has no fonts and no form XObjects, so it cannot draw any text
+     * (blank or scanned pages); checks resources only, without parsing the content stream
+     */
+    private static boolean mayContainText(PDPage page) {
+        PDResources resources = page.getResources();
+        if (resources == null) {
+            return false;
+        }
+        if (resources.getFontNames().iterator().hasNext()) {
+            return true;
+        }
+        for (COSName name : resources.getXObjectNames()) {
+            if (!resources.isImageXObject(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Extracts one page range from its own copy of the document
+     */
+    private class PageRangeTask extends RecursiveTask<String> {
+        private static final long serialVersionUID = 1L;
+
+        private final File pdfFile;
+        private final int first;
+        private final int last;
+        private int blankPages;
+
+        private PageRangeTask(File pdfFile, int first, int last) {
+            this.pdfFile = pdfFile;
+            this.first = first;
+            this.last = last;
+        }
+
+        @Override
+        protected String compute() {
+            try (PDDocument document = loadPDF(pdfFile)) {
+                StringBuilder text = new StringBuilder();
+                blankPages = extractPages(document, first, last, text);
+                return text.toString();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
         }
     }
 
@@ -73,7 +247,7 @@ public class DocumentParser {
         String text = Files.readString(txtFile.toPath());
         text = cleanText(text);
 
-        int wordCount = text.isEmpty() ? 0 : text.split("\\s+").length;
+        int wordCount = countWords(text);
         logger.info("✅ Read {} words from {}", wordCount, txtFile.getName());
 
         return text;
@@ -86,10 +260,11 @@ public class DocumentParser {
         String filename = file.getName().toLowerCase();
 
         logger.info("Detecting file type for: {}", file.getName());
+        String type = typeOf(file);
 
-        if (filename.endsWith(".pdf")) {
+        if (CorpusCrawler.PDF.equals(type)) {
             return extractTextFromPDF(file);
-        } else if (filename.endsWith(".txt")) {
+        } else if (CorpusCrawler.TEXT.equals(type)) {
             return extractTextFromTxt(file);
         } else {
             throw new IOException("Unsupported file type: " + filename +
@@ -98,77 +273,286 @@ public class DocumentParser {
     }
 
     /**
-     * Clean and normalize extracted text
-     */
-    private String cleanText(String text) {
-          if (text == null || text.trim().isEmpty()) {
-              return "";
-          }
-          
-          // 1. Normalize whitespace
-          text = text.replaceAll("\\s+", " ");
-          
-          // 2. Remove page numbers and headers
-          text = text.replaceAll("(?m)^\\s*\\d+\\s*$", "");
-          text = text.replaceAll("(?m)^\\s*Page \\d+\\s*$", "");
-          text = text.replaceAll("(?m)^\\s*Chapter \\d+\\s*$", "");
-          
-          // 3. Remove URLs and emails
-          text = text.replaceAll("https?://\\S+", "");
-          text = text.replaceAll("[\\w.-]+@[\\w.-]+\\.\\w+", "");
-          
-          // 4. Remove common PDF artifacts
-          text = text.replaceAll("\\(cid:\\d+\\)", ""); // PDF encoding artifacts
-          text = text.replaceAll("\\u00A0", " "); // Non-breaking spaces
-          
-          // 5. Fix common OCR errors (optional)
-          text = text.replaceAll("\\bl\\b", "I"); // lowercase L → I
-          text = text.replaceAll("\\b0\\b", "O"); // zero → O (context dependent)
-          
-          // 6. Remove excessive line breaks
-          text = text.replaceAll("\n{3,}", "\n\n");
-          
-          // 7. Fix spacing around punctuation
-          text = text.replaceAll("\\s+([.,!?;:])", "$1");
-          text = text.replaceAll("([.,!?;:])([A-Z])", "$1 $2");
-          
-          // 8. Trim
-          text = text.trim();
-          
-          return text;
-      }
+     * Extract text without cleaning it, so parsing and cleaning can be measured
+     * separately; pass the result to {@link #cleanText}
+     */
+    public String extractRawText(File file) throws IOException {
+        String filename = file.getName().toLowerCase();
+        String type = typeOf(file);
+
+        if (CorpusCrawler.PDF.equals(type)) {
+            return extractRawTextFromPDF(file);
+        } else if (CorpusCrawler.TEXT.equals(type)) {
+            if (!file.exists()) {
+                throw new IOException("File not found: " + file.getAbsolutePath());
+            }
+            return Files.readString(file.toPath());
+        } else {
+            throw new IOException("Unsupported file type: " + filename +
+                    "\nSupported types: .pdf, .txt");
+        }
+    }
+
+    /**
+     * Stream uncleaned text one page at a time without holding the whole book.
+     * PDF pages are extracted lazily as the stream is consumed; text files are
+     * memory-mapped and decoded incrementally (see {@link MappedTextSource}), split
+     * at page breaks and into windows of at most windowChars characters (cut at
+     * whitespace). Close the stream to release the file.
+     */
+    public Stream<String> streamPages(File file) throws IOException {
+        String type = typeOf(file);
+
+        if (CorpusCrawler.PDF.equals(type)) {
+            PDDocument document = loadPDF(file);
+            int pageCount = document.getNumberOfPages();
+            Spliterator<String> pages = new Spliterators.AbstractSpliterator<>(pageCount, Spliterator.ORDERED) {
+                private int nextPage = 1;
+
+                @Override
+                public boolean tryAdvance(Consumer<? super String> action) {
+                    if (nextPage > pageCount) {
+                        return false;
+                    }
+                    StringBuilder page = new StringBuilder();
+                    try {
+                        extractPages(document, nextPage, nextPage, page);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    nextPage++;
+                    page.setLength(page.length() - 1); // Trailing page break
+                    action.accept(page.toString());
+                    return true;
+                }
+            };
+            return StreamSupport.stream(pages, false).onClose(() -> closeQuietly(document));
+        } else if (CorpusCrawler.TEXT.equals(type)) {
+            MappedTextSource source = new MappedTextSource(file, windowChars);
+            Spliterator<String> windows = Spliterators.spliteratorUnknownSize(source, Spliterator.ORDERED);
+            return StreamSupport.stream(windows, false).onClose(() -> closeQuietly(source));
+        } else {
+            throw new IOException("Unsupported file type: " + file.getName() +
+                    "\nSupported types: .pdf, .txt");
+        }
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            logger.warn("Failed to close document: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Media type from the extension, or from the content for files without a known one
+     */
+    private static String typeOf(File file) throws IOException {
+        String filename = file.getName().toLowerCase();
+        if (filename.endsWith(".pdf")) {
+            return CorpusCrawler.PDF;
+        } else if (filename.endsWith(".txt")) {
+            return CorpusCrawler.TEXT;
+        } else if (!file.exists()) {
+            throw new IOException("File not found: " + file.getAbsolutePath());
+        }
+        return CorpusCrawler.detectType(file);
+    }
+
+    /**
+     * Number of whitespace-separated words, without splitting the text into copies
+     */
+    static int countWords(String text) {
+        int words = 0;
+        boolean inWord = false;
+        for (int i = 0; i < text.length(); i++) {
+            boolean space = Character.isWhitespace(text.charAt(i));
+            if (!space && !inWord) words++;
+            inWord = !space;
+        }
+        return words;
+    }
+
+    /**
+     * Number of pages in raw text (page breaks, or 1 for text without any)
+     */
+    public static int countPages(String rawText) {
+        int pages = 0;
+        for (int i = 0; i < rawText.length(); i++) {
+            if (rawText.charAt(i) == PAGE_BREAK) pages++;
+        }
+        if (!rawText.isEmpty() && rawText.charAt(rawText.length() - 1) != PAGE_BREAK) {
+            pages++;
+        }
+        return pages;
+    }
+
+    /**
+     * Clean and normalize extracted text (see {@link TextNormalizer} for the rules)
+     */
+    public String cleanText(String text) {
+        return NORMALIZER.get().normalize(text);
+    }
 
     /**
      * Extract metadata for a given file
      */
     public DocumentMetadata getMetadata(File file) throws IOException {
+        DocumentMetadata metadata;
+        if (CorpusCrawler.PDF.equals(typeOf(file))) {
+            try (PDDocument document = loadPDF(file)) {
+                metadata = describe(file, document);
+            }
+        } else {
+            metadata = describe(file, null);
+        }
+
+        logger.info("📄 Metadata extracted for {} -> {} pages, size: {} bytes",
+                metadata.getFilename(), metadata.getPageCount(), metadata.getFileSize());
+
+        return metadata;
+    }
+
+    /**
+     * Metadata of a file, from the loaded document for PDFs (null for text files)
+     */
+    private static DocumentMetadata describe(File file, PDDocument document) {
         DocumentMetadata metadata = new DocumentMetadata();
         metadata.setFilename(file.getName());
         metadata.setFilePath(file.getAbsolutePath());
         metadata.setFileSize(file.length());
+        metadata.setTitle(file.getName());
+
+        if (document != null) {
+            metadata.setPageCount(document.getNumberOfPages());
 
-        if (file.getName().toLowerCase().endsWith(".pdf")) {
-            try (PDDocument document = PDDocument.load(file)) {
-                metadata.setPageCount(document.getNumberOfPages());
-
-                PDDocumentInformation info = document.getDocumentInformation();
-                if (info != null) {
-                    String title = info.getTitle();
-                    metadata.setTitle(title != null ? title : file.getName());
-                    metadata.setAuthor(info.getAuthor());
-                    metadata.setSubject(info.getSubject());
-                } else {
-                    metadata.setTitle(file.getName());
+            PDDocumentInformation info = document.getDocumentInformation();
+            if (info != null) {
+                if (info.getTitle() != null) {
+                    metadata.setTitle(info.getTitle());
                 }
+                metadata.setAuthor(info.getAuthor());
+                metadata.setSubject(info.getSubject());
             }
         } else {
-            metadata.setTitle(file.getName());
             metadata.setPageCount(1);
         }
+        return metadata;
+    }
 
-        logger.info("📄 Metadata extracted for {} -> {} pages, size: {} bytes",
-                metadata.getFilename(), metadata.getPageCount(), metadata.getFileSize());
+    /**
+     * Parse a document completely: cleaned text, metadata and where each page
+     * starts in the text. A PDF is loaded once for all of it, where calling
+     * {@link #extractText} and {@link #getMetadata} loads it twice. With a text
+     * cache set, a document parsed before is read from the cache instead.
+     */
+    public ParsedDocument parse(File file) throws IOException {
+        return parse(file, textCache != null ? ParsedTextCache.contentHash(file) : null);
+    }
 
-        return metadata;
+    /**
+     * Parse a document whose content hash is already known (null to bypass the cache)
+     */
+    public ParsedDocument parse(File file, String contentHash) throws IOException {
+        if (textCache != null && contentHash != null) {
+            ParsedDocument cached = textCache.get(file, contentHash);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        ParsedDocument parsed = clean(extractRaw(file));
+
+        if (textCache != null && contentHash != null) {
+            cacheParsed(contentHash, parsed);
+        }
+        return parsed;
+    }
+
+    /**
+     * Store a parsed document in the text cache, if one is set; failures are only logged
+     */
+    public void cacheParsed(String contentHash, ParsedDocument parsed) {
+        if (textCache == null) {
+            return;
+        }
+        try {
+            textCache.put(contentHash, parsed);
+        } catch (IOException e) {
+            logger.warn("Could not cache parsed text of {}: {}", parsed.getMetadata().getFilename(), e.getMessage());
+        }
+    }
+
+    /**
+     * First half of {@link #parse}: metadata and uncleaned text, pages separated by
+     * {@link #PAGE_BREAK}, from a single load of the file
+     */
+    public ParsedDocument extractRaw(File file) throws IOException {
+        String type = typeOf(file);
+        DocumentMetadata metadata;
+        String rawText;
+
+        if (CorpusCrawler.PDF.equals(type)) {
+            logger.info("Parsing PDF: {}", file.getName());
+            try (PDDocument document = loadPDF(file)) {
+                metadata = describe(file, document);
+                rawText = extractRawTextFromPDF(file, document);
+            } catch (IOException e) {
+                logger.error("❌ Failed to parse PDF: {}", file.getName(), e);
+                throw e;
+            }
+        } else if (CorpusCrawler.TEXT.equals(type)) {
+            logger.info("Reading text file: {}", file.getName());
+            metadata = describe(file, null);
+            rawText = Files.readString(file.toPath());
+        } else {
+            throw new IOException("Unsupported file type: " + file.getName() +
+                    "\nSupported types: .pdf, .txt");
+        }
+
+        // Pages start after each page break (text files are a single page)
+        int[] pageStarts = new int[Math.max(1, metadata.getPageCount())];
+        int page = 1;
+        for (int i = 0; i < rawText.length() && page < pageStarts.length; i++) {
+            if (rawText.charAt(i) == PAGE_BREAK) {
+                pageStarts[page++] = i + 1;
+            }
+        }
+        return new ParsedDocument(metadata, rawText, pageStarts);
     }
+
+    /**
+     * Second half of {@link #parse}: clean the text of {@link #extractRaw}'s result
+     */
+    public ParsedDocument clean(ParsedDocument raw) {
+        DocumentMetadata metadata = raw.getMetadata();
+        int[] pageStarts = new int[Math.max(1, metadata.getPageCount())];
+        String text = NORMALIZER.get().normalize(raw.getText(), pageStarts);
+
+        logger.info("📄 Parsed {} -> {} pages, {} characters", metadata.getFilename(), metadata.getPageCount(), text.length());
+
+        return new ParsedDocument(metadata, text, pageStarts);
+    }
+
+    // Getters and setters
+    public int getPagesPerTask() { return pagesPerTask; }
+    public void setPagesPerTask(int pagesPerTask) { this.pagesPerTask = pagesPerTask; }
+
+    public int getMaxParallelRanges() { return maxParallelRanges; }
+    public void setMaxParallelRanges(int maxParallelRanges) { this.maxParallelRanges = maxParallelRanges; }
+
+    public long getMaxMainMemoryBytes() { return maxMainMemoryBytes; }
+    public void setMaxMainMemoryBytes(long maxMainMemoryBytes) { this.maxMainMemoryBytes = maxMainMemoryBytes; }
+
+    public long getMaxExtractionMemoryBytes() { return maxExtractionMemoryBytes; }
+    public void setMaxExtractionMemoryBytes(long maxExtractionMemoryBytes) { 
+        this.maxExtractionMemoryBytes = maxExtractionMemoryBytes; 
+    }
+
+    public int getWindowChars() { return windowChars; }
+    public void setWindowChars(int windowChars) { this.windowChars = windowChars; }
+
+    public ParsedTextCache getTextCache() { return textCache; }
+    public void setTextCache(ParsedTextCache textCache) { this.textCache = textCache; }
 }
@@ -0,0 +1,154 @@
+package com.mohnish.voiceassistant.document;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads a UTF-8 text file of any size in constant memory.
+ *
+ * The file is memory-mapped region by region and decoded incrementally into
+ * one reusable character window; each call to {@link #next} returns the text
+ * up to the next page break ({@link DocumentParser#PAGE_BREAK}, dropped) or a
+ * piece of at most windowChars characters, cut at whitespace where possible
+ * (the {@code \s} kind {@link PageCleaner} can treat as a page break).
+ * Malformed bytes become U+FFFD instead of failing a multi-gigabyte run.
+ */
+public class MappedTextSource implements Iterator<String>, Closeable {
+    private static final long REGION_BYTES = 64L * 1024 * 1024;  // Mapped at a time
+    private static final int MAX_SEQUENCE_BYTES = 4;             // Longest UTF-8 sequence
+
+    private final FileChannel channel;
+    private final long size;
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+        .onMalformedInput(CodingErrorAction.REPLACE)
+        .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private final CharBuffer window;   // Decoded, not yet returned text in [0, position)
+    private MappedByteBuffer bytes;
+    private long regionStart;
+    private int scanned;               // Window prefix known to hold no page break
+    private boolean flushing;          // Every byte decoded, the decoder may still hold output
+    private boolean endOfFile;         // Every byte decoded and the decoder flushed
+    private String upcoming;
+
+    public MappedTextSource(File file, int windowChars) throws IOException {
+        if (!file.exists()) {
+            throw new IOException("File not found: " + file.getAbsolutePath());
+        }
+        this.channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        this.size = channel.size();
+        this.window = CharBuffer.allocate(Math.max(2 * MAX_SEQUENCE_BYTES, windowChars));
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (upcoming == null) {
+            try {
+                upcoming = advance();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return upcoming != null;
+    }
+
+    @Override
+    public String next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        String piece = upcoming;
+        upcoming = null;
+        return piece;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+        bytes = null;
+    }
+
+    private String advance() throws IOException {
+        char[] chars = window.array();
+        while (true) {
+            for (; scanned < window.position(); scanned++) {
+                if (chars[scanned] == DocumentParser.PAGE_BREAK) {
+                    return take(scanned, 1);
+                }
+            }
+            if (window.remaining() < 2) {
+                // Full, as far as the decoder is concerned (a surrogate pair needs two chars)
+                return take(cutPoint(), 0);
+            }
+            if (endOfFile) {
+                return window.position() > 0 ? take(window.position(), 0) : null;
+            }
+            decode();
+        }
+    }
+
+    /**
+     * Decode bytes into the free part of the window, mapping the next region
+     * when the current one is used up (a sequence split across regions is
+     * re-read from the start of the next mapping)
+     */
+    private void decode() throws IOException {
+        if (bytes == null || (bytes.remaining() < MAX_SEQUENCE_BYTES && regionStart + bytes.limit() < size)) {
+            long position = bytes == null ? 0 : regionStart + bytes.position();
+            bytes = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(REGION_BYTES, size - position));
+            regionStart = position;
+        }
+
+        if (!flushing) {
+            boolean lastRegion = regionStart + bytes.limit() == size;
+            decoder.decode(bytes, window, lastRegion);
+            flushing = lastRegion && !bytes.hasRemaining();
+        }
+        if (flushing) {
+            endOfFile = decoder.flush(window).isUnderflow();
+        }
+    }
+
+    /**
+     * Where to cut a full window: after the last {@code \s} character in its second half,
+     * or mid-word if there is none (never between the halves of a surrogate pair)
+     */
+    private int cutPoint() {
+        char[] chars = window.array();
+        int full = window.position();
+        int cut = full;
+        while (cut > full / 2 && !isSpace(chars[cut - 1])) {
+            cut--;
+        }
+        if (cut == full / 2) {
+            cut = Character.isHighSurrogate(chars[full - 1]) ? full - 1 : full;
+        }
+        return cut;
+    }
+
+    /**
+     * Return the first length characters and drop them plus skip more from the window
+     */
+    private String take(int length, int skip) {
+        String piece = new String(window.array(), 0, length);
+        window.flip();
+        window.position(length + skip);
+        window.compact();
+        scanned = 0;
+        return piece;
+    }
+
+    private static boolean isSpace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+}
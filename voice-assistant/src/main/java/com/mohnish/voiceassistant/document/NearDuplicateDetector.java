@@ -0,0 +1,239 @@
+package com.mohnish.voiceassistant.document;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Finds near-duplicate chunks (boilerplate, repeated headers, copyright pages)
+ * before they are embedded.
+ *
+ * Each chunk gets a MinHash signature over its word 3-gram shingles. Signatures
+ * are split into bands and bucketed (LSH), so only chunks sharing a band are
+ * compared.
+ *
+ * Only chunks of the same source are compared. A skipped duplicate is found
+ * through its canonical chunk, so the two have to be stored, re-indexed and
+ * removed together, which only holds within one book. Each source has its own
+ * index, kept until {@link #forgetSource} drops it, so books indexed at the
+ * same time do not wait on each other.
+ */
+public class NearDuplicateDetector {
+    private static final Logger logger = LoggerFactory.getLogger(NearDuplicateDetector.class);
+    private static final int SHINGLE_WORDS = 3;
+
+    private final int bands;
+    private final int rowsPerBand;
+    private final double threshold;
+    private final long[] seeds;
+
+    private final Map<String, SourceIndex> sources = new ConcurrentHashMap<>();
+
+    public NearDuplicateDetector() {
+        this(16, 4, 0.8);
+    }
+
+    /**
+     * @param bands       number of LSH bands
+     * @param rowsPerBand MinHash values per band (signature length = bands * rowsPerBand)
+     * @param threshold   minimum estimated Jaccard similarity to count as a duplicate
+     */
+    public NearDuplicateDetector(int bands, int rowsPerBand, double threshold) {
+        this.bands = bands;
+        this.rowsPerBand = rowsPerBand;
+        this.threshold = threshold;
+        this.seeds = new long[bands * rowsPerBand];
+
+        long seed = 0x2545F4914F6CDD1DL;
+        for (int i = 0; i < seeds.length; i++) {
+            seed = mix64(seed + 0x9E3779B97F4A7C15L);
+            seeds[i] = seed;
+        }
+    }
+
+    /**
+     * Return the ID of the canonical chunk this chunk duplicates within its source,
+     * or register it as a new canonical chunk and return null
+     */
+    public String findOrRegister(DocumentChunk chunk) {
+        int[] signature = signature(chunk.getText());
+        return sources.computeIfAbsent(chunk.getSourceFile(), key -> new SourceIndex())
+            .findOrRegister(chunk.getId(), signature);
+    }
+
+    /**
+     * Drop near duplicates from a list of chunks
+     *
+     * @param links filled with duplicate chunk ID → canonical chunk ID
+     * @return the chunks that still need embedding
+     */
+    public List<DocumentChunk> filter(List<DocumentChunk> chunks, Map<String, String> links) {
+        List<DocumentChunk> unique = new ArrayList<>(chunks.size());
+        for (DocumentChunk chunk : chunks) {
+            String canonicalId = findOrRegister(chunk);
+            if (canonicalId == null) {
+                unique.add(chunk);
+            } else {
+                links.put(chunk.getId(), canonicalId);
+            }
+        }
+
+        if (unique.size() < chunks.size()) {
+            logger.info("Skipped {} near-duplicate chunks out of {}", chunks.size() - unique.size(), chunks.size());
+        }
+        return unique;
+    }
+
+    /**
+     * Forget every chunk of a source, e.g. once it is indexed or before it is re-indexed
+     */
+    public void forgetSource(String sourceFile) {
+        sources.remove(sourceFile);
+    }
+
+    /**
+     * Canonical chunks held, over all sources
+     */
+    public int size() {
+        int size = 0;
+        for (SourceIndex index : sources.values()) {
+            size += index.size();
+        }
+        return size;
+    }
+
+    /**
+     * MinHash signature over word 3-gram shingles (case and punctuation insensitive)
+     */
+    int[] signature(String text) {
+        int[] signature = new int[seeds.length];
+        Arrays.fill(signature, Integer.MAX_VALUE);
+
+        int[] recent = new int[SHINGLE_WORDS];
+        int words = 0;
+        int wordHash = 0;
+        boolean inWord = false;
+
+        for (int i = 0; i <= text.length(); i++) {
+            char c = i < text.length() ? Character.toLowerCase(text.charAt(i)) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                wordHash = inWord ? 31 * wordHash + c : c;
+                inWord = true;
+            } else if (inWord) {
+                inWord = false;
+                recent[words % SHINGLE_WORDS] = wordHash;
+                words++;
+                if (words >= SHINGLE_WORDS) {
+                    addShingle(signature, shingleHash(recent, words));
+                }
+            }
+        }
+
+        // Very short texts: use whatever words there are as a single shingle
+        if (words > 0 && words < SHINGLE_WORDS) {
+            addShingle(signature, shingleHash(recent, words));
+        }
+        return signature;
+    }
+
+    private static int shingleHash(int[] recent, int words) {
+        int hash = 17;
+        int count = Math.min(words, SHINGLE_WORDS);
+        for (int k = count; k > 0; k--) {
+            hash = 31 * hash + recent[(words - k) % SHINGLE_WORDS];
+        }
+        return hash;
+    }
+
+    private void addShingle(int[] signature, int shingle) {
+        for (int i = 0; i < seeds.length; i++) {
+            int value = (int) (mix64(shingle ^ seeds[i]) >>> 33);
+            if (value < signature[i]) {
+                signature[i] = value;
+            }
+        }
+    }
+
+    private long bandKey(int[] signature, int band) {
+        long key = band;
+        for (int row = band * rowsPerBand; row < (band + 1) * rowsPerBand; row++) {
+            key = mix64(key * 31 + signature[row]);
+        }
+        return key;
+    }
+
+    private static double similarity(int[] a, int[] b) {
+        int equal = 0;
+        for (int i = 0; i < a.length; i++) {
+            if (a[i] == b[i]) equal++;
+        }
+        return (double) equal / a.length;
+    }
+
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Signatures of one source's canonical chunks, bucketed by band
+     */
+    private class SourceIndex {
+        private final Map<String, int[]> signatures = new HashMap<>();
+        private final Map<Long, List<String>> buckets = new HashMap<>();
+
+        synchronized String findOrRegister(String id, int[] signature) {
+            String best = null;
+            double bestSimilarity = 0;
+            for (int band = 0; band < bands; band++) {
+                List<String> candidates = buckets.get(bandKey(signature, band));
+                if (candidates == null) continue;
+
+                for (String candidate : candidates) {
+                    if (candidate.equals(id)) continue;
+                    double similarity = similarity(signature, signatures.get(candidate));
+                    if (similarity >= threshold && similarity > bestSimilarity) {
+                        best = candidate;
+                        bestSimilarity = similarity;
+                    }
+                }
+            }
+
+            if (best != null) {
+                logger.debug("Chunk {} duplicates {} (~{}% similar)", id, best, Math.round(bestSimilarity * 100));
+                return best;
+            }
+
+            int[] previous = signatures.put(id, signature);
+            if (previous != null) {
+                unbucket(id, previous);
+            }
+            for (int band = 0; band < bands; band++) {
+                buckets.computeIfAbsent(bandKey(signature, band), key -> new ArrayList<>(1)).add(id);
+            }
+            return null;
+        }
+
+        synchronized int size() {
+            return signatures.size();
+        }
+
+        private void unbucket(String id, int[] signature) {
+            for (int band = 0; band < bands; band++) {
+                long key = bandKey(signature, band);
+                List<String> bucket = buckets.get(key);
+                if (bucket != null) {
+                    bucket.remove(id);
+                    if (bucket.isEmpty()) buckets.remove(key);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.mohnish.voiceassistant.document;
+
+/**
+ * Cleans a text that arrives page by page (or in windows cut at whitespace, see
+ * {@link DocumentParser#streamPages}) so that concatenating the results gives
+ * {@link DocumentParser#cleanText} of the pages joined by page breaks.
+ *
+ * Cleaning a page on its own differs from cleaning it in place at its edges:
+ * the page break between two pages belongs to one whitespace run with the
+ * spaces around it, punctuation at the start of a page removes the space before
+ * it, and only the ends of the whole text are trimmed. Each page is therefore
+ * cleaned untrimmed as if preceded by its page break, and whitespace at the end
+ * of the output is held back until the next page shows whether it survives.
+ *
+ * Two differences remain. A line holding only a page number is removed when it
+ * ends at one of the rare Unicode line terminators, but not when it ends at the
+ * end of the text or runs across a page break (page breaks and newlines never
+ * end such a line, in either case). And a text-file window that had to be cut
+ * mid-word gets a space there.
+ *
+ * One instance per text; not thread-safe.
+ */
+public class PageCleaner {
+    private final TextNormalizer normalizer = new TextNormalizer();
+    private final StringBuilder held = new StringBuilder();  // Trailing whitespace not yet returned
+    private boolean first = true;
+    private boolean started;          // Whether anything but whitespace was returned
+    private boolean lineStart = true;
+    private boolean endsInSpace;      // Whether the last page ended in a whitespace run
+
+    /**
+     * Clean the next page
+     *
+     * @return the text to append to what previous calls returned (possibly empty)
+     */
+    public String clean(String page) {
+        String piece = normalizer.normalizePiece(page, first, lineStart);
+        String input = first ? page : DocumentParser.PAGE_BREAK + page;
+        first = false;
+        lineStart = normalizer.endsAtLineStart();
+
+        int start = 0;
+        if (!piece.isEmpty() && piece.charAt(0) == ' ' && endsInSpace) {
+            // The page break continues the run the last page ended in
+            start = 1;
+        } else if (!piece.isEmpty() && piece.charAt(0) != ' ') {
+            // Punctuation removed the spaces before it, which the last page left for us
+            int end = held.length();
+            while (end > 0 && held.charAt(end - 1) == ' ') end--;
+            held.setLength(end);
+        }
+        endsInSpace = !input.isEmpty() && isSpace(input.charAt(input.length() - 1));
+
+        int end = piece.length();
+        while (end > start && piece.charAt(end - 1) <= ' ') end--;
+        if (end == start) {
+            if (started) {
+                held.append(piece, start, piece.length());
+            }
+            return "";
+        }
+
+        StringBuilder text = new StringBuilder(held.length() + end - start);
+        if (started) {
+            text.append(held);
+        } else {
+            // Start of the whole text, trimmed
+            while (start < end && piece.charAt(start) <= ' ') start++;
+        }
+        text.append(piece, start, end);
+
+        held.setLength(0);
+        held.append(piece, end, piece.length());
+        started = true;
+        return text.toString();
+    }
+
+    /** {@code \s}, as {@link TextNormalizer} collapses it */
+    private static boolean isSpace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+}
@@ -0,0 +1,59 @@
+package com.mohnish.voiceassistant.document;
+
+/**
+ * Result of {@link DocumentParser#parse}: cleaned text, metadata and page offsets
+ * of one document, all taken from a single load of the file (or from the
+ * {@link ParsedTextCache}). {@link DocumentParser#extractRaw} returns the same
+ * with uncleaned text.
+ */
+public class ParsedDocument {
+    private final DocumentMetadata metadata;
+    private final String text;
+    private final int[] pageStarts;  // Offset in text where each page begins
+
+    public ParsedDocument(DocumentMetadata metadata, String text, int[] pageStarts) {
+        this.metadata = metadata;
+        this.text = text;
+        this.pageStarts = pageStarts;
+    }
+
+    /**
+     * Text of one page (1-based); pages of text files are not told apart, so it is all on page 1
+     */
+    public String getPageText(int pageNumber) {
+        if (pageNumber < 1 || pageNumber > pageStarts.length) {
+            throw new IndexOutOfBoundsException("Page " + pageNumber + " of " + pageStarts.length);
+        }
+        int end = pageNumber < pageStarts.length ? pageStarts[pageNumber] : text.length();
+        return text.substring(pageStarts[pageNumber - 1], end).trim();
+    }
+
+    /**
+     * Page (1-based) that holds the character at the given offset of the text
+     */
+    public int getPageAt(int offset) {
+        int low = 0;
+        int high = pageStarts.length - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (pageStarts[mid] <= offset) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low + 1;
+    }
+
+    // Getters
+    public DocumentMetadata getMetadata() { return metadata; }
+    public String getText() { return text; }
+    public int getPageCount() { return metadata.getPageCount(); }
+    public String getTitle() { return metadata.getTitle(); }
+    public String getAuthor() { return metadata.getAuthor(); }
+
+    /**
+     * Offsets in the text where pages 1..n begin (page 1 always at 0)
+     */
+    public int[] getPageStarts() { return pageStarts.clone(); }
+}
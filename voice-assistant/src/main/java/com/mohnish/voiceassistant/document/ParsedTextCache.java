@@ -0,0 +1,235 @@
+package com.mohnish.voiceassistant.document;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * On-disk cache of parsed documents, so re-indexing and chunker experiments
+ * skip PDF extraction and cleaning.
+ *
+ * Entries are keyed by the SHA-256 of the file content plus
+ * {@link DocumentParser#PARSER_VERSION}: a moved or renamed book still hits,
+ * an edited book or a changed parser misses. Each entry is one file with a
+ * small header (metadata, page offsets) followed by the cleaned text as
+ * deflate-compressed UTF-8. Entries are read as a stream and closed before
+ * {@link #get} returns, so nothing keeps them open against a later {@link #put}
+ * of the same key (a mapped or open file cannot be replaced on Windows).
+ */
+public class ParsedTextCache {
+    private static final Logger logger = LoggerFactory.getLogger(ParsedTextCache.class);
+
+    private static final int MAGIC = 0x50545843;  // "PTXC"
+    private static final String EXTENSION = ".parsed";
+    private static final int MAX_DEFLATE_RATIO = 1032;  // Deflate cannot expand data further than this
+
+    private final File directory;
+    private int compressionLevel = Deflater.DEFAULT_COMPRESSION;
+    private final AtomicInteger hits = new AtomicInteger();
+    private final AtomicInteger misses = new AtomicInteger();
+
+    public ParsedTextCache(File directory) throws IOException {
+        if (!directory.exists() && !directory.mkdirs()) {
+            throw new IOException("Cannot create parsed text cache directory: " + directory.getAbsolutePath());
+        }
+        this.directory = directory;
+    }
+
+    /**
+     * The cached parse of a file with the given content hash, or null if there is none.
+     * File name, path and size in the metadata are taken from the file itself.
+     */
+    public ParsedDocument get(File file, String contentHash) {
+        File entryFile = entryFile(contentHash);
+        if (!entryFile.exists()) {
+            misses.incrementAndGet();
+            return null;
+        }
+
+        // Lengths are checked against the entry size, so a corrupt header is a miss, not a huge allocation
+        long entrySize = entryFile.length();
+        try (DataInputStream input = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(entryFile.toPath()), 64 * 1024))) {
+            if (input.readInt() != MAGIC || input.readInt() != DocumentParser.PARSER_VERSION) {
+                throw new IOException("unexpected header");
+            }
+
+            DocumentMetadata metadata = new DocumentMetadata();
+            metadata.setFilename(file.getName());
+            metadata.setFilePath(file.getAbsolutePath());
+            metadata.setFileSize(file.length());
+            metadata.setPageCount(input.readInt());
+            metadata.setTitle(readString(input, entrySize));
+            metadata.setAuthor(readString(input, entrySize));
+            metadata.setSubject(readString(input, entrySize));
+            if (metadata.getTitle() == null) {
+                metadata.setTitle(file.getName());
+            }
+
+            int[] pageStarts = new int[readLength(input, entrySize / Integer.BYTES)];
+            for (int i = 0; i < pageStarts.length; i++) {
+                pageStarts[i] = input.readInt();
+            }
+
+            byte[] text = new byte[readLength(input, entrySize * MAX_DEFLATE_RATIO)];
+            Inflater inflater = new Inflater();
+            try {
+                DataInputStream compressed = new DataInputStream(new InflaterInputStream(input, inflater, 64 * 1024));
+                compressed.readFully(text);
+                // Run to the end of the stream, where the checksum is verified
+                if (compressed.read() != -1) {
+                    throw new IOException("text longer than recorded");
+                }
+            } finally {
+                inflater.end();
+            }
+
+            hits.incrementAndGet();
+            logger.info("📦 Parsed text of {} served from cache", file.getName());
+            return new ParsedDocument(metadata, new String(text, StandardCharsets.UTF_8), pageStarts);
+
+        } catch (IOException e) {
+            logger.warn("Ignoring unreadable cache entry {}: {}", entryFile.getName(), e.getMessage());
+            misses.incrementAndGet();
+            return null;
+        }
+    }
+
+    /**
+     * Store a parsed document under its content hash (atomically: temp file + rename)
+     */
+    public void put(String contentHash, ParsedDocument document) throws IOException {
+        DocumentMetadata metadata = document.getMetadata();
+        int[] pageStarts = document.getPageStarts();
+        byte[] text = document.getText().getBytes(StandardCharsets.UTF_8);
+
+        // Unique temp name: several threads or workers may parse the same book
+        File temp = new File(directory, "." + UUID.randomUUID() + ".tmp");
+        Deflater deflater = new Deflater(compressionLevel);
+        try (DataOutputStream output = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(temp.toPath())))) {
+            output.writeInt(MAGIC);
+            output.writeInt(DocumentParser.PARSER_VERSION);
+            output.writeInt(metadata.getPageCount());
+            // A title that is only the file name is filled in again on read
+            writeString(output, metadata.getFilename() != null && metadata.getFilename().equals(metadata.getTitle())
+                ? null : metadata.getTitle());
+            writeString(output, metadata.getAuthor());
+            writeString(output, metadata.getSubject());
+            output.writeInt(pageStarts.length);
+            for (int pageStart : pageStarts) {
+                output.writeInt(pageStart);
+            }
+            output.writeInt(text.length);
+
+            DeflaterOutputStream compressed = new DeflaterOutputStream(output, deflater, 64 * 1024);
+            compressed.write(text);
+            compressed.finish();
+        } catch (IOException e) {
+            Files.deleteIfExists(temp.toPath());
+            throw e;
+        } finally {
+            deflater.end();
+        }
+
+        Files.move(temp.toPath(), entryFile(contentHash).toPath(),
+            StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * SHA-256 of a file's content as lowercase hex (the same key IndexManifest records)
+     */
+    public static String contentHash(File file) throws IOException {
+        MessageDigest digest = newDigest();
+
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream input = Files.newInputStream(file.toPath())) {
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * SHA-256 of some bytes as lowercase hex
+     */
+    public static String contentHash(byte[] data) {
+        return HexFormat.of().formatHex(newDigest().digest(data));
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private File entryFile(String contentHash) {
+        return new File(directory, contentHash + "-v" + DocumentParser.PARSER_VERSION + EXTENSION);
+    }
+
+    private static void writeString(DataOutputStream output, String value) throws IOException {
+        if (value == null) {
+            output.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    private static String readString(DataInputStream input, long limit) throws IOException {
+        int length = input.readInt();
+        if (length < 0) {
+            return null;
+        }
+        if (length > limit) {
+            throw new IOException("length " + length + " exceeds entry size");
+        }
+        byte[] bytes = new byte[length];
+        input.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int readLength(DataInputStream input, long limit) throws IOException {
+        int length = input.readInt();
+        if (length < 0) {
+            throw new IOException("negative length");
+        }
+        if (length > limit) {
+            throw new IOException("length " + length + " exceeds entry size");
+        }
+        return length;
+    }
+
+    // Getters and setters
+    public File getDirectory() { return directory; }
+
+    public int getHits() { return hits.get(); }
+    public int getMisses() { return misses.get(); }
+
+    public int getCompressionLevel() { return compressionLevel; }
+    public void setCompressionLevel(int compressionLevel) { this.compressionLevel = compressionLevel; }
+}
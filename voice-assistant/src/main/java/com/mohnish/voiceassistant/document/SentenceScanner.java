@@ -0,0 +1,183 @@
+package com.mohnish.voiceassistant.document;
+
+/**
+ * Finds sentence boundaries in one pass, without regexes or allocation.
+ *
+ * A sentence ends at '.', '!', '?' or an ellipsis followed by whitespace
+ * (closing quotes and brackets stay with it), or at a blank line. It does not
+ * end when the next word starts in lower case, nor at a period after a known
+ * abbreviation ("Dr.", "e.g.", "No." or "p." before a number) or a single
+ * capital (an initial). A period
+ * inside a token ("3.14", "U.S.", "example.org") is never a boundary.
+ */
+public final class SentenceScanner {
+
+    /**
+     * Receives each sentence as [start, end), without surrounding whitespace
+     */
+    public interface Sink {
+        void sentence(int start, int end);
+    }
+
+    // Lower case, without the final period: words practically never at the end of a sentence
+    private static final String[] ABBREVIATIONS = {
+        "mr", "mrs", "ms", "dr", "prof", "sr", "jr", "st", "rev", "hon", "gen", "col", "lt", "sgt",
+        "capt", "mt", "vs", "viz", "cf", "e.g", "i.e", "fig", "figs", "eq", "eqs",
+        "vol", "vols", "ch", "chap", "sec", "approx", "ca"
+    };
+    // Common words too ("He said no."), so only abbreviations when a number follows
+    private static final String[] NUMBER_ABBREVIATIONS = { "no", "nos", "p", "pp" };
+    private static final int LONGEST_ABBREVIATION = 6;
+
+    private SentenceScanner() {
+    }
+
+    /**
+     * Scan text from the given offset. Unless the text is complete, stops before
+     * the first sentence whose end more text could still move.
+     *
+     * @return where scanning must resume once more text is appended (the end of a complete text)
+     */
+    public static int scan(CharSequence text, int from, boolean complete, Sink sink) {
+        return scan(text, from, text.length(), complete, sink);
+    }
+
+    /**
+     * Scan text[from, to) as if the text ended at to
+     */
+    public static int scan(CharSequence text, int from, int to, boolean complete, Sink sink) {
+        int length = to;
+        int start = skipSpaces(text, from, length);
+
+        while (start < length) {
+            int end = -1;
+            int next = length;
+            int i = start;
+            while (i < length) {
+                char c = text.charAt(i);
+                if (c > '?' && c != '\u2026') {
+                    i++;  // Letters and most other characters: neither a terminator nor a newline
+                } else if (c == '\n') {
+                    int k = i + 1;
+                    while (k < length && TokenizedText.isSpace(text.charAt(k)) && text.charAt(k) != '\n') k++;
+                    if (k < length && text.charAt(k) == '\n') {
+                        end = i;  // Blank line
+                        next = skipSpaces(text, k, length);
+                        break;
+                    }
+                    i = k;
+                } else if (isTerminator(c)) {
+                    int runEnd = i + 1;
+                    while (runEnd < length && isTerminator(text.charAt(runEnd))) runEnd++;
+                    int k = runEnd;
+                    while (k < length && isCloser(text.charAt(k))) k++;
+                    if (k == length) {
+                        break;
+                    }
+                    if (!TokenizedText.isSpace(text.charAt(k))) {
+                        i = k;  // Inside a token
+                        continue;
+                    }
+                    int nextWord = skipSpaces(text, k, length);
+                    if (nextWord == length) {
+                        break;
+                    }
+                    if (hasBlankLine(text, k, nextWord) || endsSentence(text, start, i, runEnd, nextWord)) {
+                        end = k;
+                        next = nextWord;
+                        break;
+                    }
+                    i = nextWord;
+                } else {
+                    i++;
+                }
+            }
+
+            if (end < 0) {
+                if (!complete) {
+                    return start;  // The sentence may go on
+                }
+                end = length;
+            }
+            while (end > start && TokenizedText.isSpace(text.charAt(end - 1))) end--;
+            if (end > start) {
+                sink.sentence(start, end);
+            }
+            start = next;
+        }
+        return complete ? length : start;
+    }
+
+    /**
+     * Whether the terminators in [runStart, runEnd), followed by whitespace and
+     * the word at nextWord, end the sentence that began at start
+     */
+    private static boolean endsSentence(CharSequence text, int start, int runStart, int runEnd, int nextWord) {
+        if (Character.isLowerCase(text.charAt(nextWord))) {
+            return false;
+        }
+        if (runEnd - runStart > 1 || text.charAt(runStart) != '.') {
+            return true;  // '!', '?', an ellipsis or a mix, before a capital
+        }
+
+        // A single period: look at the word it ends
+        int wordStart = runStart;
+        while (wordStart > start && !TokenizedText.isSpace(text.charAt(wordStart - 1))) wordStart--;
+        while (wordStart < runStart && isOpener(text.charAt(wordStart))) wordStart++;
+        int wordLength = runStart - wordStart;
+        if (wordLength == 1 && Character.isUpperCase(text.charAt(wordStart))) {
+            return false;  // An initial
+        }
+        if (isAbbreviation(text, wordStart, runStart, ABBREVIATIONS)) {
+            return false;
+        }
+        char following = text.charAt(nextWord);
+        return !(following >= '0' && following <= '9' && isAbbreviation(text, wordStart, runStart, NUMBER_ABBREVIATIONS));
+    }
+
+    private static boolean isAbbreviation(CharSequence text, int start, int end, String[] abbreviations) {
+        int length = end - start;
+        if (length == 0 || length > LONGEST_ABBREVIATION) {
+            return false;
+        }
+        for (String abbreviation : abbreviations) {
+            if (abbreviation.length() != length) continue;
+            int i = 0;
+            while (i < length && Character.toLowerCase(text.charAt(start + i)) == abbreviation.charAt(i)) i++;
+            if (i == length) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean hasBlankLine(CharSequence text, int start, int end) {
+        boolean newline = false;
+        for (int i = start; i < end; i++) {
+            if (text.charAt(i) == '\n') {
+                if (newline) return true;
+                newline = true;
+            }
+        }
+        return false;
+    }
+
+    private static int skipSpaces(CharSequence text, int i, int end) {
+        while (i < end && TokenizedText.isSpace(text.charAt(i))) i++;
+        return i;
+    }
+
+    private static boolean isTerminator(char c) {
+        return c == '.' || c == '!' || c == '?' || c == '\u2026';
+    }
+
+    private static boolean isCloser(char c) {
+        return c == '"' || c == '\'' || c == ')' || c == ']' || c == '}'
+            || c == '\u201D' || c == '\u2019' || c == '\u00BB';
+    }
+
+    private static boolean isOpener(char c) {
+        return c == '"' || c == '\'' || c == '(' || c == '[' || c == '{'
+            || c == '\u201C' || c == '\u2018' || c == '\u00AB';
+    }
+}
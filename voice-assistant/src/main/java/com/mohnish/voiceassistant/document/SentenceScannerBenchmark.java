@@ -0,0 +1,218 @@
+package com.mohnish.voiceassistant.document;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Compares {@link SentenceScanner} with the regex split it replaced: time and
+ * bytes allocated per run, how many sentences each finds, and the sizes of the
+ * chunks that sentence chunking then builds from them.
+ *
+ * Usage: SentenceScannerBenchmark [book.pdf|book.txt ...] [iterations]
+ * Without a book a ~5 MB synthetic text is generated.
+ */
+public class SentenceScannerBenchmark {
+    private static final int CHUNK_SIZE = 500;
+    private static final int CHUNK_OVERLAP = 50;
+
+    public static void main(String[] args) {
+        System.out.println("⏱️  Sentence Scanner Benchmark\n");
+
+        List<String> books = new ArrayList<>(Arrays.asList(args));
+        int iterations = 10;
+        if (!books.isEmpty() && books.get(books.size() - 1).matches("\\d+")) {
+            iterations = Integer.parseInt(books.remove(books.size() - 1));
+        }
+
+        try {
+            if (books.isEmpty()) {
+                run("synthetic", syntheticText(5_000_000), iterations);
+            }
+            DocumentParser parser = new DocumentParser();
+            for (String book : books) {
+                run(new File(book).getName(), parser.extractText(new File(book)), iterations);
+            }
+        } catch (Exception e) {
+            System.err.println("❌ Benchmark failed: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    private static void run(String name, String text, int iterations) {
+        System.out.println("📖 " + name + ": " + String.format("%,d", text.length()) + " chars");
+
+        // Warm up both paths before measuring
+        for (int i = 0; i < 3; i++) {
+            regexSplit(text);
+            scan(text);
+        }
+
+        long[] regex = measure(iterations, () -> regexSplit(text));
+        long[] scanner = measure(iterations, () -> scan(text));
+        report("Regex split", regex, iterations);
+        report("SentenceScanner", scanner, iterations);
+        System.out.println(String.format("Speedup: %.1fx, allocation: %.1fx less\n",
+            (double) regex[0] / scanner[0], (double) regex[1] / Math.max(1, scanner[1])));
+
+        List<String> sentences = regexSplit(text);
+        int[] regexWords = new int[sentences.size()];
+        for (int i = 0; i < regexWords.length; i++) {
+            regexWords[i] = TokenizedText.countWords(sentences.get(i));
+        }
+        TokenizedText.Spans spans = new TokenizedText(text).getSentences();
+        int[] scannerWords = new int[spans.size()];
+        for (int i = 0; i < scannerWords.length; i++) {
+            scannerWords[i] = spans.getWords(i);
+        }
+
+        describe("Regex split", regexWords);
+        describe("SentenceScanner", scannerWords);
+        System.out.println();
+    }
+
+    /**
+     * @return total nanoseconds and bytes allocated on this thread
+     */
+    private static long[] measure(int iterations, Runnable task) {
+        long allocatedBefore = allocatedBytes();
+        long startTime = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            task.run();
+        }
+        return new long[] { System.nanoTime() - startTime, allocatedBytes() - allocatedBefore };
+    }
+
+    private static long allocatedBytes() {
+        Object threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threads).getCurrentThreadAllocatedBytes();
+        }
+        return 0;
+    }
+
+    private static void report(String name, long[] totals, int iterations) {
+        System.out.println(String.format("%-17s %8.1f ms/run  %,14d bytes/run",
+            name + ":", totals[0] / 1_000_000.0 / iterations, totals[1] / iterations));
+    }
+
+    /**
+     * Sentence count and size, then the chunk sizes sentence chunking builds from them
+     */
+    private static void describe(String name, int[] sentenceWords) {
+        int tiny = 0;
+        long words = 0;
+        for (int count : sentenceWords) {
+            if (count <= 3) tiny++;
+            words += count;
+        }
+        int[] chunks = chunkWords(sentenceWords);
+        int small = 0;
+        long chunkWords = 0;
+        for (int count : chunks) {
+            if (count < CHUNK_SIZE / 2) small++;
+            chunkWords += count;
+        }
+        Arrays.sort(chunks);
+
+        System.out.println(String.format("%-17s %,9d sentences, %5.1f words each, %4.1f%% of 3 words or less",
+            name + ":", sentenceWords.length, (double) words / Math.max(1, sentenceWords.length),
+            100.0 * tiny / Math.max(1, sentenceWords.length)));
+        System.out.println(String.format("%-17s %,9d chunks, %5.1f words each, p10/p50/p90 %d/%d/%d, %4.1f%% under %d words",
+            "", chunks.length, (double) chunkWords / Math.max(1, chunks.length),
+            percentile(chunks, 10), percentile(chunks, 50), percentile(chunks, 90),
+            100.0 * small / Math.max(1, chunks.length), CHUNK_SIZE / 2));
+    }
+
+    /**
+     * Word counts of the chunks TextChunker's sentence strategy builds from sentences of these sizes
+     */
+    private static int[] chunkWords(int[] sentenceWords) {
+        List<Integer> chunks = new ArrayList<>();
+        List<Integer> current = new ArrayList<>();
+        int currentWords = 0;
+        for (int count : sentenceWords) {
+            if (currentWords + count > CHUNK_SIZE && !current.isEmpty()) {
+                chunks.add(currentWords);
+                int keep = 0;
+                int overlapWords = 0;
+                for (int i = current.size() - 1; i >= 0 && overlapWords + current.get(i) <= CHUNK_OVERLAP; i--) {
+                    overlapWords += current.get(i);
+                    keep++;
+                }
+                current = new ArrayList<>(current.subList(current.size() - keep, current.size()));
+                currentWords = overlapWords;
+            }
+            current.add(count);
+            currentWords += count;
+        }
+        if (!current.isEmpty()) {
+            chunks.add(currentWords);
+        }
+        return chunks.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static int percentile(int[] sorted, int percent) {
+        return sorted.length == 0 ? 0 : sorted[Math.min(sorted.length - 1, sorted.length * percent / 100)];
+    }
+
+    private static int scan(String text) {
+        int[] count = new int[1];
+        SentenceScanner.scan(text, 0, true, (start, end) -> count[0]++);
+        return count[0];
+    }
+
+    /**
+     * How TextChunker split sentences before SentenceScanner, as the baseline
+     */
+    private static List<String> regexSplit(String text) {
+        List<String> sentences = new ArrayList<>();
+        Pattern pattern = Pattern.compile("[^.!?]+[.!?]+\\s*|.+$");
+        Matcher matcher = pattern.matcher(text);
+        while (matcher.find()) {
+            String sentence = matcher.group().trim();
+            if (!sentence.isEmpty()) {
+                sentences.add(sentence);
+            }
+        }
+        return sentences;
+    }
+
+    /**
+     * Deterministic prose with titles, decimals, abbreviations and ellipses
+     */
+    private static String syntheticText(int chars) {
+        String[] vocabulary = {
+            "the", "model", "learns", "a", "representation", "of", "data", "with", "neural",
+            "networks", "and", "gradient", "descent", "which", "improves", "accuracy", "over",
+            "time", "while", "training", "on", "large", "datasets", "that", "contain", "many",
+            "examples", "from", "different", "domains", "such", "as", "vision", "language"
+        };
+        String[] asides = { "Dr. Smith", "e.g.", "i.e.", "Fig. 3", "vs.", "J. R. Hill", "3.14", "0.5 percent", "U.S." };
+        Random random = new Random(42);
+        StringBuilder builder = new StringBuilder(chars + 100);
+        boolean sentenceStart = true;
+
+        while (builder.length() < chars) {
+            int roll = random.nextInt(100);
+            if (roll < 4) {
+                builder.append(asides[random.nextInt(asides.length)]).append(' ');
+            } else if (roll < 11 && !sentenceStart) {
+                builder.append(random.nextInt(10) == 0 ? "... " : random.nextInt(8) == 0 ? "? " : ". ");
+                if (random.nextInt(15) == 0) builder.append("\n\n");
+                sentenceStart = true;
+                continue;
+            } else {
+                String word = vocabulary[random.nextInt(vocabulary.length)];
+                builder.append(sentenceStart ? Character.toUpperCase(word.charAt(0)) + word.substring(1) : word).append(' ');
+            }
+            sentenceStart = false;
+        }
+        return builder.toString();
+    }
+}
@@ -3,10 +3,19 @@ package com.mohnish.voiceassistant.document;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 /**
  * Splits text into semantic chunks for RAG.
@@ -14,8 +23,14 @@ import java.util.regex.Pattern;
 public class TextChunker {
     private static final Logger logger = LoggerFactory.getLogger(TextChunker.class);
 
+    /** Bump whenever the chunks of a text change for the same settings, so indexed books are re-chunked */
+    public static final int CHUNKER_VERSION = 3;
+
     private int chunkSize = 500;           // Target chunk size in words
     private int chunkOverlap = 50;         // Overlap between chunks
+    private int tokenBudget = 0;           // Estimated tokens per chunk; 0 sizes chunks in words
+    private int segmentChars = 1 << 20;    // Longer texts are tokenized in segments of about this size
+    private ForkJoinPool pool;             // Pool tokenizing the segments (common pool if null)
     private ChunkingStrategy strategy;
 
     public enum ChunkingStrategy {
@@ -48,310 +63,660 @@ public class TextChunker {
             return chunks;
         }
 
-        switch (strategy) {
-            case FIXED_SIZE:
-                chunks = chunkByFixedSize(text, sourceFile, documentTitle);
-                break;
-            case SENTENCE_BOUNDARY:
-                chunks = chunkBySentence(text, sourceFile, documentTitle);
-                break;
-            case PARAGRAPH_BOUNDARY:
-                chunks = chunkByParagraph(text, sourceFile, documentTitle);
-                break;
-        }
+        chunks = chunkWithStrategy(text, sourceFile, documentTitle);
 
         logger.info("Created {} chunks from {}", chunks.size(), sourceFile);
         return chunks;
     }
 
     /**
-     * Chunk by fixed word count.
+     * Texts longer than two segments are tokenized in segments on the pool and
+     * their spans grouped in text order, so chunks, indices and ids are the same
+     * as tokenizing the whole text on one thread. Segments are cut where the
+     * spans of this strategy cannot change (see {@link #segmentCuts}); a cut
+     * through a span only stands if the span is fed word by word on both sides
+     * anyway, otherwise the text is tokenized in one piece.
      */
-    private List<DocumentChunk> chunkByFixedSize(String text, String sourceFile, String documentTitle) {
+    private List<DocumentChunk> chunkWithStrategy(String text, String sourceFile, String documentTitle) {
         List<DocumentChunk> chunks = new ArrayList<>();
-        String[] words = text.split("\\s+");
-
-        int chunkIndex = 0;
-        int startPos = 0;
-        int pageNumber = -1;  // Optional metadata
-        String chapter = null;
-
-        for (int i = 0; i < words.length; i += (chunkSize - chunkOverlap)) {
-            int end = Math.min(i + chunkSize, words.length);
-
-            // Build chunk text
-            StringBuilder chunkText = new StringBuilder();
-            for (int j = i; j < end; j++) {
-                if (j > i) chunkText.append(" ");
-                chunkText.append(words[j]);
+        ChunkSink sink = new ChunkSink(sourceFile, documentTitle, chunks);
+        Grouper grouper = newGrouper(sink);
+
+        ForkJoinPool segmentPool = pool != null ? pool : ForkJoinPool.commonPool();
+        List<Integer> inexact = new ArrayList<>();
+        int[] cuts = segmentCuts(text, segmentPool.getParallelism(), inexact);
+        TokenizedText[] segments = new TokenizedText[cuts.length - 1];
+
+        if (segments.length > 1) {
+            logger.debug("Tokenizing {} in {} segments", sourceFile, segments.length);
+            List<ForkJoinTask<TokenizedText>> tasks = new ArrayList<>();
+            for (int i = 0; i < segments.length; i++) {
+                int from = cuts[i];
+                int to = cuts[i + 1];
+                tasks.add(segmentPool.submit(() -> tokenize(grouper, text, from, to)));
             }
+            for (int i = 0; i < segments.length; i++) {
+                segments[i] = tasks.get(i).join();
+            }
+            for (int cut : inexact) {
+                if (!splitsFreely(grouper, segments[cut - 1], segments[cut])) {
+                    logger.debug("A short span straddles a segment cut in {}, tokenizing it in one piece", sourceFile);
+                    cuts = new int[] { 0, text.length() };
+                    segments = new TokenizedText[1];
+                    break;
+                }
+            }
+        }
+        if (segments.length == 1) {
+            segments[0] = tokenize(grouper, text, 0, text.length());
+        }
 
-            String chunkContent = chunkText.toString();
-            if (chunkContent.trim().isEmpty()) continue;
+        sink.viewInto(text, segments, cuts);
+        for (TokenizedText segment : segments) {
+            feed(grouper, segment, grouper.spans(segment), 0);
+        }
+        grouper.finish();
+        return chunks;
+    }
 
-            int endPos = startPos + chunkContent.length();
+    /**
+     * Whether the span cut in two at the end of left and start of right is fed
+     * word by word in both parts, as it would be whole
+     */
+    private boolean splitsFreely(Grouper grouper, TokenizedText left, TokenizedText right) {
+        TokenizedText.Spans before = grouper.spans(left);
+        TokenizedText.Spans after = grouper.spans(right);
+        return before.size() > 0 && after.size() > 0
+            && fedByWords(left, before, before.size() - 1) && fedByWords(right, after, 0);
+    }
 
-            String chunkId = generateChunkId(sourceFile, chunkIndex);
-            DocumentChunk chunk = new DocumentChunk(
-                    chunkId, chunkContent, sourceFile, documentTitle,
-                    chunkIndex, startPos, endPos
-            );
+    private boolean fedByWords(TokenizedText tokens, TokenizedText.Spans spans, int i) {
+        return tokenBudget > 0
+            ? tokens.countTokens(spans.getStart(i), spans.getEnd(i)) > tokenBudget
+            : spans.getWords(i) > chunkSize;
+    }
 
-            // --- ✅ Add metadata ---
-            chunk.addMetadata("word_count", String.valueOf(chunk.getWordCount()));
-            chunk.addMetadata("char_count", String.valueOf(chunk.getCharCount()));
-            chunk.addMetadata("strategy", strategy.name());
-            chunk.addMetadata("chunk_size_config", String.valueOf(chunkSize));
-            chunk.addMetadata("overlap_config", String.valueOf(chunkOverlap));
+    /**
+     * Find the words of text[from, to) and the spans the grouper takes, and count tokens if needed
+     */
+    private TokenizedText tokenize(Grouper grouper, String text, int from, int to) {
+        TokenizedText tokens = new TokenizedText(text, from, to, true);
+        grouper.spans(tokens);
+        if (tokenBudget > 0) {
+            tokens.countTokens(from, from);
+        }
+        return tokens;
+    }
 
-            if (pageNumber > 0) {
-                chunk.addMetadata("page", String.valueOf(pageNumber));
+    /**
+     * Segment boundaries [0, ..., text.length()]: one segment unless the text
+     * is longer than two segments and the pool has more than one thread.
+     *
+     * Each cut is the first of these after its target: the end of a blank line,
+     * which ends every kind of span; else the start of a sentence, which cleaned
+     * text (one line, no blank lines) still has; else the start of a word. A
+     * word start never splits a word, a sentence start never splits a sentence,
+     * so only cuts that may split a span of this strategy (a paragraph, or a
+     * sentence at a bare word start) are added to inexact, by segment index.
+     */
+    int[] segmentCuts(String text, int parallelism, List<Integer> inexact) {
+        int length = text.length();
+        if (parallelism < 2 || length < 2 * segmentChars) {
+            return new int[] { 0, length };
+        }
+        int size = Math.max(segmentChars, length / (4 * parallelism));
+        int reach = Math.min(size / 2, 64 * 1024);  // How far past a target a boundary is looked for
+        List<Integer> cuts = new ArrayList<>();
+        cuts.add(0);
+        int target = size;
+        while (target < length - size / 2) {
+            int limit = Math.min(length, target + reach);
+            int cut = blankLineEnd(text, target, limit);
+            boolean exact = cut >= 0 || strategy == ChunkingStrategy.FIXED_SIZE;
+            if (cut < 0) {
+                cut = sentenceStart(text, target, limit);
+                exact |= cut >= 0 && strategy == ChunkingStrategy.SENTENCE_BOUNDARY;
             }
-            if (chapter != null) {
-                chunk.addMetadata("chapter", chapter);
+            if (cut < 0) {
+                cut = wordStart(text, target, limit);
             }
+            if (cut < 0 || cut >= length) break;
 
-            chunks.add(chunk);
-            chunkIndex++;
-            startPos = endPos;
+            if (!exact) inexact.add(cuts.size());
+            cuts.add(cut);
+            target = cut + size;
         }
+        cuts.add(length);
+        return cuts.stream().mapToInt(Integer::intValue).toArray();
+    }
 
-        return chunks;
+    /** Just past the first blank line in text[from, limit), or -1 */
+    private static int blankLineEnd(String text, int from, int limit) {
+        for (int i = from; i + 1 < limit; i++) {
+            if (text.charAt(i) == '\n' && text.charAt(i + 1) == '\n') {
+                int end = i + 2;
+                while (end < text.length() && text.charAt(end) == '\n') end++;
+                return end;
+            }
+        }
+        return -1;
     }
 
     /**
-     * Chunk by sentence boundaries (recommended).
+     * Start of the first sentence after a boundary in text[from, limit), or -1.
+     * Scanning starts at a word start: the scanner decides a boundary from the
+     * characters around it only, so it finds the same ones as a scan from 0.
      */
-    private List<DocumentChunk> chunkBySentence(String text, String sourceFile, String documentTitle) {
-        List<DocumentChunk> chunks = new ArrayList<>();
-        List<String> sentences = splitIntoSentences(text);
+    private static int sentenceStart(String text, int from, int limit) {
+        int wordStart = wordStart(text, from, limit);
+        if (wordStart < 0) {
+            return -1;
+        }
+        int[] found = { 0, -1 };  // Sentences found, start of the second one
+        int resume = SentenceScanner.scan(text, wordStart, limit, false, (start, end) -> {
+            if (found[0]++ == 1) found[1] = start;
+        });
+        if (found[0] == 1 && resume < limit) {
+            return resume;  // The sentence after the only boundary is still open
+        }
+        return found[1];
+    }
 
-        if (sentences.isEmpty()) {
-            return chunks;
+    /** First word start in text[from, limit) that follows whitespace, or -1 */
+    private static int wordStart(String text, int from, int limit) {
+        for (int i = Math.max(from, 1); i < limit; i++) {
+            if (TokenizedText.isSpace(text.charAt(i - 1)) && !TokenizedText.isSpace(text.charAt(i))) {
+                return i;
+            }
         }
+        return -1;
+    }
 
-        List<String> currentChunk = new ArrayList<>();
-        int currentWordCount = 0;
-        int chunkIndex = 0;
-        int startPos = 0;
-        int pageNumber = -1;  // Optional metadata
-        String chapter = null;
-
-        for (String sentence : sentences) {
-            int sentenceWordCount = sentence.split("\\s+").length;
-
-            // If adding this sentence exceeds chunk size, save current chunk
-            if (currentWordCount + sentenceWordCount > chunkSize && !currentChunk.isEmpty()) {
-                String chunkText = String.join(" ", currentChunk);
-                int endPos = startPos + chunkText.length();
-
-                String chunkId = generateChunkId(sourceFile, chunkIndex);
-                DocumentChunk chunk = new DocumentChunk(
-                        chunkId, chunkText, sourceFile, documentTitle,
-                        chunkIndex, startPos, endPos
-                );
-
-                // --- ✅ Add metadata ---
-                chunk.addMetadata("word_count", String.valueOf(chunk.getWordCount()));
-                chunk.addMetadata("char_count", String.valueOf(chunk.getCharCount()));
-                chunk.addMetadata("strategy", strategy.name());
-                chunk.addMetadata("chunk_size_config", String.valueOf(chunkSize));
-                chunk.addMetadata("overlap_config", String.valueOf(chunkOverlap));
-
-                if (pageNumber > 0) {
-                    chunk.addMetadata("page", String.valueOf(pageNumber));
-                }
-                if (chapter != null) {
-                    chunk.addMetadata("chapter", chapter);
-                }
+    private Grouper newGrouper(ChunkSink sink) {
+        switch (strategy) {
+            case FIXED_SIZE:
+                // Within a token budget words are grouped like sentences, as many as fit
+                return tokenBudget > 0 ? new SpanGrouper(sink, strategy) : new FixedSizeGrouper(sink);
+            case SENTENCE_BOUNDARY:
+            case PARAGRAPH_BOUNDARY:
+                return new SpanGrouper(sink, strategy);
+            default:
+                throw new IllegalStateException("Unknown strategy: " + strategy);
+        }
+    }
 
-                chunks.add(chunk);
-
-                // Handle overlap
-                int overlapSentences = calculateOverlapSentences(currentChunk);
-                if (overlapSentences > 0) {
-                    List<String> keepSentences = currentChunk.subList(
-                            currentChunk.size() - overlapSentences,
-                            currentChunk.size()
-                    );
-                    currentChunk = new ArrayList<>(keepSentences);
-                    currentWordCount = countWords(keepSentences);
+    private void feed(Grouper grouper, TokenizedText tokens, TokenizedText.Spans spans, long offset) {
+        for (int i = 0; i < spans.size(); i++) {
+            int start = spans.getStart(i);
+            int end = spans.getEnd(i);
+            if (tokenBudget <= 0) {
+                // A sentence or paragraph longer than a chunk (e.g. unpunctuated text) is taken word by word
+                if (spans.getWords(i) <= chunkSize) {
+                    grouper.add(offset + start, offset + end, spans.getWords(i), 0);
                 } else {
-                    currentChunk.clear();
-                    currentWordCount = 0;
+                    feedWords(grouper, tokens.getText(), start, end, offset);
                 }
-
-                chunkIndex++;
-                startPos = endPos;
+                continue;
             }
+            int spanTokens = tokens.countTokens(start, end);
+            if (spanTokens <= tokenBudget) {
+                grouper.add(offset + start, offset + end, spans.getWords(i), spanTokens);
+            } else {
+                feedWords(grouper, tokens.getText(), start, end, offset);
+            }
+        }
+    }
 
-            currentChunk.add(sentence);
-            currentWordCount += sentenceWordCount;
+    /**
+     * Feed a span too long for a chunk word by word. Within a token budget a word
+     * too long for it goes in pieces of tokenBudget characters (no character is
+     * more than a token).
+     */
+    private void feedWords(Grouper grouper, CharSequence text, int start, int end, long offset) {
+        int i = start;
+        while (i < end) {
+            while (i < end && TokenizedText.isSpace(text.charAt(i))) i++;
+            int wordStart = i;
+            while (i < end && !TokenizedText.isSpace(text.charAt(i))) i++;
+            if (tokenBudget <= 0) {
+                if (i > wordStart) grouper.add(offset + wordStart, offset + i, 1, 0);
+                continue;
+            }
+            int pieceStart = wordStart;
+            while (pieceStart < i) {
+                int pieceEnd = Math.min(i, pieceStart + tokenBudget);
+                if (pieceEnd < i && pieceEnd - 1 > pieceStart && Character.isLowSurrogate(text.charAt(pieceEnd))) pieceEnd--;
+                grouper.add(offset + pieceStart, offset + pieceEnd, 1, TokenEstimator.estimate(text, pieceStart, pieceEnd));
+                pieceStart = pieceEnd;
+            }
         }
+    }
 
-        // Add remaining chunk
-        if (!currentChunk.isEmpty()) {
-            String chunkText = String.join(" ", currentChunk);
-            int endPos = startPos + chunkText.length();
-
-            String chunkId = generateChunkId(sourceFile, chunkIndex);
-            DocumentChunk chunk = new DocumentChunk(
-                    chunkId, chunkText, sourceFile, documentTitle,
-                    chunkIndex, startPos, endPos
-            );
-
-            // --- ✅ Add metadata for final chunk ---
-            chunk.addMetadata("word_count", String.valueOf(chunk.getWordCount()));
-            chunk.addMetadata("char_count", String.valueOf(chunk.getCharCount()));
-            chunk.addMetadata("strategy", strategy.name());
-            chunk.addMetadata("chunk_size_config", String.valueOf(chunkSize));
-            chunk.addMetadata("overlap_config", String.valueOf(chunkOverlap));
-
-            if (pageNumber > 0) {
-                chunk.addMetadata("page", String.valueOf(pageNumber));
+    /**
+     * Chunk text that arrives in pieces (pages or windows), producing chunks lazily.
+     *
+     * Pieces are joined with a space and read a window at a time. Words,
+     * sentences or paragraphs are handed to the same grouping chunkDocument
+     * uses as soon as more text cannot change them, and the window only keeps
+     * text from the start of the chunk being built, so the result matches
+     * chunking the joined text in one go.
+     */
+    public Iterator<DocumentChunk> chunkStream(Iterator<String> pieces, String sourceFile, String documentTitle) {
+        return chunkWindows(new TextSource() {
+            @Override
+            public boolean exhausted() {
+                return !pieces.hasNext();
             }
-            // if (chapter != null) {
-            //     chunk.addMetadata("chapter", chapter);
-            // }
 
-            chunks.add(chunk);
-        }
+            @Override
+            public void appendTo(StringBuilder window) {
+                String piece = pieces.next();
+                if (piece == null || piece.trim().isEmpty()) return;
+                if (window.length() > 0) window.append(' ');
+                window.append(piece);
+            }
+        }, 0, sourceFile, documentTitle);
+    }
 
-        return chunks;
+    /**
+     * Chunk text that arrives in pieces to be concatenated as they are (e.g. pages
+     * cleaned by {@link PageCleaner}), producing chunks lazily; the result is the
+     * same as {@link #chunkDocument} on the concatenation
+     */
+    public Iterator<DocumentChunk> chunkConcatenation(Iterator<String> pieces, String sourceFile, String documentTitle) {
+        return chunkWindows(new TextSource() {
+            @Override
+            public boolean exhausted() {
+                return !pieces.hasNext();
+            }
+
+            @Override
+            public void appendTo(StringBuilder window) {
+                window.append(pieces.next());
+            }
+        }, 0, sourceFile, documentTitle);
     }
 
     /**
-     * Chunk by paragraph boundaries.
+     * Chunk a Reader lazily; the result is the same as {@link #chunkDocument} on
+     * its whole content, but only a window of a few chunks is ever held. The
+     * reader is not closed. Read errors surface as {@link UncheckedIOException}.
      */
-    private List<DocumentChunk> chunkByParagraph(String text, String sourceFile, String documentTitle) {
-        List<DocumentChunk> chunks = new ArrayList<>();
-        String[] paragraphs = text.split("\n\n+");
-
-        List<String> currentChunk = new ArrayList<>();
-        int currentWordCount = 0;
-        int chunkIndex = 0;
-        int startPos = 0;
-        int pageNumber = -1;  // Optional metadata
-        String chapter = null;
-
-        for (String paragraph : paragraphs) {
-            paragraph = paragraph.trim();
-            if (paragraph.isEmpty()) continue;
-
-            int paragraphWordCount = paragraph.split("\\s+").length;
-
-            if (currentWordCount + paragraphWordCount > chunkSize && !currentChunk.isEmpty()) {
-                String chunkText = String.join("\n\n", currentChunk);
-                int endPos = startPos + chunkText.length();
-
-                String chunkId = generateChunkId(sourceFile, chunkIndex);
-                DocumentChunk chunk = new DocumentChunk(
-                        chunkId, chunkText, sourceFile, documentTitle,
-                        chunkIndex, startPos, endPos
-                );
-
-                // --- ✅ Add metadata ---
-                chunk.addMetadata("word_count", String.valueOf(chunk.getWordCount()));
-                chunk.addMetadata("char_count", String.valueOf(chunk.getCharCount()));
-                chunk.addMetadata("strategy", strategy.name());
-                chunk.addMetadata("chunk_size_config", String.valueOf(chunkSize));
-                chunk.addMetadata("overlap_config", String.valueOf(chunkOverlap));
-
-                if (pageNumber > 0) {
-                    chunk.addMetadata("page", String.valueOf(pageNumber));
+    public Iterator<DocumentChunk> chunkStream(Reader reader, String sourceFile, String documentTitle) {
+        return chunkStream(reader, 0, sourceFile, documentTitle);
+    }
+
+    /**
+     * Chunk a Reader whose content starts at position start of the text, giving
+     * chunk positions in the whole text
+     */
+    Iterator<DocumentChunk> chunkStream(Reader reader, long start, String sourceFile, String documentTitle) {
+        return chunkWindows(new TextSource() {
+            private final char[] buffer = new char[8192];
+            private boolean endOfInput;
+
+            @Override
+            public boolean exhausted() {
+                return endOfInput;
+            }
+
+            @Override
+            public void appendTo(StringBuilder window) {
+                try {
+                    int read = reader.read(buffer);
+                    if (read < 0) {
+                        endOfInput = true;
+                    } else {
+                        window.append(buffer, 0, read);
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
                 }
-                if (chapter != null) {
-                    chunk.addMetadata("chapter", chapter);
+            }
+        }, start, sourceFile, documentTitle);
+    }
+
+    /**
+     * Chunk a character sequence lazily (e.g. a memory-mapped or cached text),
+     * with the same result as {@link #chunkDocument} on it
+     */
+    public Iterator<DocumentChunk> chunkStream(CharSequence text, String sourceFile, String documentTitle) {
+        return chunkWindows(new TextSource() {
+            private int position;
+
+            @Override
+            public boolean exhausted() {
+                return position >= text.length();
+            }
+
+            @Override
+            public void appendTo(StringBuilder window) {
+                int end = Math.min(text.length(), position + 8192);
+                window.append(text, position, end);
+                position = end;
+            }
+        }, 0, sourceFile, documentTitle);
+    }
+
+    /**
+     * Where chunkWindows takes its text from
+     */
+    private interface TextSource {
+        boolean exhausted();
+
+        /** Append the next bit of text (possibly nothing) */
+        void appendTo(StringBuilder window);
+    }
+
+    /**
+     * Chunk text from position start of the whole text on. Positions are longs,
+     * as a streamed text can be longer than a String; only the window is indexed by int.
+     */
+    private Iterator<DocumentChunk> chunkWindows(TextSource text, long start, String sourceFile, String documentTitle) {
+        String source = sourceFile != null ? sourceFile : "unknown_source";
+        int chunkUnits = tokenBudget > 0 ? tokenBudget : chunkSize;
+        int windowChars = Math.max(16 * 1024, chunkUnits * 6 * 8);  // ~8 chunks of ~6-char words
+
+        return new Iterator<>() {
+            private final StringBuilder window = new StringBuilder();
+            private final Deque<DocumentChunk> ready = new ArrayDeque<>();
+            private final ChunkSink sink = new ChunkSink(source, documentTitle, ready);
+            private final Grouper grouper = newGrouper(sink);
+            private long offset = start;    // Position of window[0] in the whole text
+            private long resume = start;    // Position tokenizing picks up at
+            private boolean finished;
+
+            @Override
+            public boolean hasNext() {
+                while (ready.isEmpty() && !finished) {
+                    fill();
                 }
+                return !ready.isEmpty();
+            }
 
-                chunks.add(chunk);
+            @Override
+            public DocumentChunk next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return ready.poll();
+            }
 
-                currentChunk.clear();
-                currentWordCount = 0;
-                chunkIndex++;
-                startPos = endPos;
+            private void fill() {
+                int limit = windowChars;
+                while (true) {
+                    while (!text.exhausted() && window.length() < limit) {
+                        text.appendTo(window);
+                    }
+
+                    boolean last = text.exhausted();
+                    TokenizedText tokens = new TokenizedText(window, (int) (resume - offset), last);
+                    TokenizedText.Spans spans = grouper.spans(tokens);
+                    sink.copyFrom(window, offset);
+                    feed(grouper, tokens, spans, offset);
+                    resume = offset + spans.getResume();
+
+                    if (last) {
+                        grouper.finish();
+                        window.setLength(0);
+                        finished = true;
+                        return;
+                    }
+
+                    // Keep the chunk being built and whatever has not been tokenized
+                    long open = grouper.openStart();
+                    long keep = open >= 0 ? Math.min(open, resume) : resume;
+                    window.delete(0, (int) (keep - offset));
+                    offset = keep;
+
+                    if (!ready.isEmpty()) {
+                        return;
+                    }
+                    limit = 2 * window.length() + windowChars;  // No chunk finished yet, read more
+                }
             }
+        };
+    }
 
-            currentChunk.add(paragraph);
-            currentWordCount += paragraphWordCount;
+    /**
+     * Turns chunk spans into DocumentChunks with ids and metadata. Chunks of a
+     * whole document are views into its text; chunks of a stream get a copy
+     * of their text from the current window.
+     */
+    private class ChunkSink {
+        private final String sourceFile;
+        private final String documentTitle;
+        private final Collection<DocumentChunk> chunks;
+        private final String idPrefix;
+        private final ChunkingConfig config = new ChunkingConfig(strategy, chunkSize, chunkOverlap, tokenBudget);
+        private String document;        // Whole text, chunks are views into it
+        private TokenizedText[] tokens; // Its word offsets, by segment
+        private int[] cuts;             // Where the segments start, then the text length
+        private CharSequence window;    // Or a stream window...
+        private long offset;            // ...starting at this position of the text
+        private int chunkIndex;
+
+        ChunkSink(String sourceFile, String documentTitle, Collection<DocumentChunk> chunks) {
+            this.sourceFile = sourceFile;
+            this.documentTitle = documentTitle;
+            this.chunks = chunks;
+            this.idPrefix = sourceFile.replaceAll("[^a-zA-Z0-9]", "_").toLowerCase();
         }
 
-        if (!currentChunk.isEmpty()) {
-            String chunkText = String.join("\n\n", currentChunk);
-            int endPos = startPos + chunkText.length();
-
-            String chunkId = generateChunkId(sourceFile, chunkIndex);
-            DocumentChunk chunk = new DocumentChunk(
-                    chunkId, chunkText, sourceFile, documentTitle,
-                    chunkIndex, startPos, endPos
-            );
-
-            // --- ✅ Add metadata for final chunk ---
-            chunk.addMetadata("word_count", String.valueOf(chunk.getWordCount()));
-            chunk.addMetadata("char_count", String.valueOf(chunk.getCharCount()));
-            chunk.addMetadata("strategy", strategy.name());
-            chunk.addMetadata("chunk_size_config", String.valueOf(chunkSize));
-            chunk.addMetadata("overlap_config", String.valueOf(chunkOverlap));
-
-            if (pageNumber > 0) {
-                chunk.addMetadata("page", String.valueOf(pageNumber));
-            }
-            // if (chapter != null) {
-            //     chunk.addMetadata("chapter", chapter);
-            // }
+        void viewInto(String document, TokenizedText[] tokens, int[] cuts) {
+            this.document = document;
+            this.tokens = tokens;
+            this.cuts = cuts;
+        }
+
+        void copyFrom(CharSequence window, long offset) {
+            this.window = window;
+            this.offset = offset;
+        }
+
+        void emit(long start, long end) {
+            String chunkId = String.format("%s_chunk_%04d", idPrefix, chunkIndex);
+            DocumentChunk chunk = document != null
+                ? new DocumentChunk(chunkId, document, (int) start, (int) end,
+                        sourceFile, documentTitle, chunkIndex, countWords((int) start, (int) end))
+                : new DocumentChunk(chunkId, window.subSequence((int) (start - offset), (int) (end - offset)).toString(),
+                        sourceFile, documentTitle, chunkIndex, start, end);
+
+            // Settings are shared by the run, counts are fields; the metadata map is built on demand
+            chunk.setConfig(config);
 
             chunks.add(chunk);
+            chunkIndex++;
         }
 
-        return chunks;
+        /** Words never span segments, so the count is the sum over the segments the chunk touches */
+        private int countWords(int start, int end) {
+            int words = 0;
+            for (int i = 0; i < tokens.length; i++) {
+                if (cuts[i] < end && cuts[i + 1] > start) {
+                    words += tokens[i].countWords(start, end);
+                }
+            }
+            return words;
+        }
     }
 
     /**
-     * Split text into sentences using regex.
+     * Groups spans of one kind into chunks as they arrive, in text order
      */
-    private List<String> splitIntoSentences(String text) {
-        List<String> sentences = new ArrayList<>();
-        Pattern pattern = Pattern.compile("[^.!?]+[.!?]+\\s*|.+$");
-        Matcher matcher = pattern.matcher(text);
-
-        while (matcher.find()) {
-            String sentence = matcher.group().trim();
-            if (!sentence.isEmpty()) {
-                sentences.add(sentence);
-            }
+    private abstract class Grouper {
+        protected final ChunkSink sink;
+
+        Grouper(ChunkSink sink) {
+            this.sink = sink;
         }
 
-        return sentences;
+        /** The spans this grouper takes */
+        abstract TokenizedText.Spans spans(TokenizedText tokens);
+
+        /** A span and its word count, and its estimated tokens when chunking to a token budget */
+        abstract void add(long start, long end, int words, int tokens);
+
+        /** Emit what is left at the end of the text */
+        abstract void finish();
+
+        /** Where the earliest chunk not emitted yet starts, or -1 if it has no span yet */
+        abstract long openStart();
     }
 
-    private int calculateOverlapSentences(List<String> sentences) {
-        int overlapWords = 0;
-        int sentencesToKeep = 0;
+    /**
+     * Chunk by fixed word count: chunkSize words, starting every
+     * chunkSize - chunkOverlap words. Only the last chunkSize word offsets are kept.
+     */
+    private class FixedSizeGrouper extends Grouper {
+        private final long[] starts = new long[chunkSize];  // Ring of recent word starts
+        private int wordCount;
+        private int nextChunk;  // Index of the word the next chunk starts at
+        private long lastEnd;
+
+        FixedSizeGrouper(ChunkSink sink) {
+            super(sink);
+        }
+
+        @Override
+        TokenizedText.Spans spans(TokenizedText tokens) {
+            return tokens.getWords();
+        }
 
-        for (int i = sentences.size() - 1; i >= 0; i--) {
-            int sentenceWords = sentences.get(i).split("\\s+").length;
-            if (overlapWords + sentenceWords <= chunkOverlap) {
-                overlapWords += sentenceWords;
-                sentencesToKeep++;
-            } else {
-                break;
+        @Override
+        void add(long start, long end, int words, int tokens) {
+            starts[wordCount % chunkSize] = start;
+            lastEnd = end;
+            wordCount++;
+            while (nextChunk + chunkSize <= wordCount) {
+                sink.emit(starts[nextChunk % chunkSize], end);
+                nextChunk += chunkSize - chunkOverlap;
             }
         }
 
-        return sentencesToKeep;
-    }
+        @Override
+        void finish() {
+            // Shorter chunks start in the last chunkSize words
+            while (nextChunk < wordCount) {
+                sink.emit(starts[nextChunk % chunkSize], lastEnd);
+                nextChunk += chunkSize - chunkOverlap;
+            }
+        }
 
-    private int countWords(List<String> strings) {
-        int total = 0;
-        for (String s : strings) {
-            total += s.split("\\s+").length;
+        @Override
+        long openStart() {
+            return nextChunk < wordCount ? starts[nextChunk % chunkSize] : -1;
         }
-        return total;
     }
 
-    private String generateChunkId(String sourceFile, int chunkIndex) {
-        String cleanName = sourceFile.replaceAll("[^a-zA-Z0-9]", "_").toLowerCase();
-        return String.format("%s_chunk_%04d", cleanName, chunkIndex);
+    /**
+     * Chunk by sentence boundaries (recommended), carrying up to chunkOverlap
+     * words of whole sentences into the next chunk, or by paragraph boundaries
+     * without overlap. Within a token budget, words are grouped the same way
+     * for FIXED_SIZE, and a chunk never goes over the budget. A sentence or
+     * paragraph longer than a chunk arrives word by word.
+     */
+    private class SpanGrouper extends Grouper {
+        private final ChunkingStrategy unit;
+        private long[] starts = new long[16];  // Spans in the current chunk
+        private long[] ends = new long[16];
+        private int[] words = new int[16];
+        private int[] tokens = new int[16];
+        private int size;
+        private int currentWordCount;
+        private int currentTokens;
+
+        SpanGrouper(ChunkSink sink, ChunkingStrategy unit) {
+            super(sink);
+            this.unit = unit;
+        }
+
+        @Override
+        TokenizedText.Spans spans(TokenizedText text) {
+            switch (unit) {
+                case FIXED_SIZE:
+                    return text.getWords();
+                case SENTENCE_BOUNDARY:
+                    return text.getSentences();
+                default:
+                    return text.getParagraphs();
+            }
+        }
+
+        @Override
+        void add(long start, long end, int spanWords, int spanTokens) {
+            // If adding this span exceeds chunk size, save current chunk
+            boolean full = tokenBudget > 0
+                ? currentTokens + spanTokens > tokenBudget
+                : currentWordCount + spanWords > chunkSize;
+            if (full && size > 0) {
+                sink.emit(starts[0], ends[size - 1]);
+
+                // Handle overlap, leaving room for this span within a token budget
+                int keep = unit != ChunkingStrategy.PARAGRAPH_BOUNDARY ? calculateOverlapSentences() : 0;
+                int keptTokens = 0;
+                for (int i = size - keep; i < size; i++) {
+                    keptTokens += tokens[i];
+                }
+                while (tokenBudget > 0 && keep > 0 && keptTokens + spanTokens > tokenBudget) {
+                    keptTokens -= tokens[size - keep];
+                    keep--;
+                }
+                System.arraycopy(starts, size - keep, starts, 0, keep);
+                System.arraycopy(ends, size - keep, ends, 0, keep);
+                System.arraycopy(words, size - keep, words, 0, keep);
+                System.arraycopy(tokens, size - keep, tokens, 0, keep);
+                size = keep;
+                currentWordCount = 0;
+                for (int i = 0; i < keep; i++) {
+                    currentWordCount += words[i];
+                }
+                currentTokens = keptTokens;
+            }
+
+            if (size == starts.length) {
+                starts = Arrays.copyOf(starts, size * 2);
+                ends = Arrays.copyOf(ends, size * 2);
+                words = Arrays.copyOf(words, size * 2);
+                tokens = Arrays.copyOf(tokens, size * 2);
+            }
+            starts[size] = start;
+            ends[size] = end;
+            words[size] = spanWords;
+            tokens[size] = spanTokens;
+            size++;
+            currentWordCount += spanWords;
+            currentTokens += spanTokens;
+        }
+
+        @Override
+        void finish() {
+            if (size > 0) {
+                sink.emit(starts[0], ends[size - 1]);
+                size = 0;
+            }
+        }
+
+        @Override
+        long openStart() {
+            return size > 0 ? starts[0] : -1;
+        }
+
+        private int calculateOverlapSentences() {
+            int overlapWords = 0;
+            int sentencesToKeep = 0;
+
+            for (int i = size - 1; i >= 0; i--) {
+                if (overlapWords + words[i] <= chunkOverlap) {
+                    overlapWords += words[i];
+                    sentencesToKeep++;
+                } else {
+                    break;
+                }
+            }
+
+            return sentencesToKeep;
+        }
     }
 
     // Getters and setters
@@ -361,6 +726,31 @@ public class TextChunker {
     public int getChunkOverlap() { return chunkOverlap; }
     public void setChunkOverlap(int chunkOverlap) { this.chunkOverlap = chunkOverlap; }
 
+    /**
+     * Estimated tokens ({@link TokenEstimator}) per chunk. Chunks are filled up to it
+     * and never go over it, a sentence or word too long for it being split;
+     * chunkSize is then not used. 0 (the default) sizes chunks in words.
+     */
+    public int getTokenBudget() { return tokenBudget; }
+    public void setTokenBudget(int tokenBudget) { this.tokenBudget = tokenBudget; }
+
+    /**
+     * Size chunks to fill the context window of an embedding model without being truncated
+     */
+    public void setTokenBudgetFor(String modelName) { this.tokenBudget = TokenEstimator.budgetFor(modelName); }
+
+    /**
+     * Approximate size of the segments a long text is tokenized in, in parallel
+     */
+    public int getSegmentChars() { return segmentChars; }
+    public void setSegmentChars(int segmentChars) { this.segmentChars = segmentChars; }
+
+    /**
+     * Pool tokenizing segments of long texts; the common pool if not set
+     */
+    public ForkJoinPool getPool() { return pool; }
+    public void setPool(ForkJoinPool pool) { this.pool = pool; }
+
     public ChunkingStrategy getStrategy() { return strategy; }
     public void setStrategy(ChunkingStrategy strategy) { this.strategy = strategy; }
     public List<DocumentChunk> chunkText(String text, String sourceFile) {
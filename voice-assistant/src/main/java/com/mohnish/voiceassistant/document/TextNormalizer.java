@@ -0,0 +1,414 @@
+package com.mohnish.voiceassistant.document;
+
+import java.util.Arrays;
+
+/**
+ * Cleans extracted text in a single pass, producing exactly what the former
+ * regex cascade in {@link DocumentParser#cleanText} produced:
+ *
+ * 1. whitespace runs collapsed to one space
+ * 2. lines holding only a page number, "Page N" or "Chapter N" removed
+ * 3. URLs and e-mail addresses removed
+ * 4. PDF "(cid:N)" artifacts removed, non-breaking spaces turned into spaces
+ * 5. standalone "l" and "0" replaced by "I" and "O" (common OCR errors)
+ * 6. spaces before punctuation removed, a space added between punctuation and a capital
+ * 7. trimmed
+ *
+ * The cascade applied these one after another, each step seeing the output of
+ * the previous one. Here every character is written once; where a later step
+ * depends on what an earlier one removed (e.g. the character following a
+ * standalone "l" once a "(cid:N)" is gone) the input is looked ahead instead.
+ *
+ * Page breaks ({@code \f}) are whitespace and disappear, but where each page
+ * starts in the result can be recorded while cleaning. A text that arrives page
+ * by page can be cleaned with {@link PageCleaner}.
+ *
+ * Not thread-safe: the output buffer is reused between calls.
+ */
+public class TextNormalizer {
+    private final StringBuilder out = new StringBuilder();
+    private String in;
+    private int length;
+    private int[] pageStarts;
+    private int pageBreaks;
+    private boolean wholeText;      // Whether the end of the input ends the last line
+    private boolean endsAtLineStart;
+
+    /**
+     * Clean a text; returns "" for null or blank input
+     */
+    public String normalize(String text) {
+        return normalize(text, null);
+    }
+
+    /**
+     * Clean a text and fill pageStarts with the offset in the result at which each
+     * page begins: pageStarts[0] is 0, pageStarts[k] follows the k-th page break.
+     * Breaks beyond the array are ignored.
+     */
+    public String normalize(String text, int[] pageStarts) {
+        if (pageStarts != null) {
+            Arrays.fill(pageStarts, 0);
+        }
+        if (text == null || text.trim().isEmpty()) {
+            return "";
+        }
+
+        in = text;
+        length = text.length();
+        this.pageStarts = pageStarts;
+        pageBreaks = 0;
+        wholeText = true;
+        out.setLength(0);
+        out.ensureCapacity(length);
+
+        clean(true);
+
+        // String.trim() semantics
+        int start = 0;
+        int end = out.length();
+        while (start < end && out.charAt(start) <= ' ') start++;
+        while (end > start && out.charAt(end - 1) <= ' ') end--;
+
+        if (pageStarts != null) {
+            // Spaces before punctuation may have been dropped after an offset was taken
+            int previous = 0;
+            for (int page = 1; page < pageStarts.length; page++) {
+                int offset = page <= pageBreaks ? pageStarts[page] - start : end - start;
+                previous = Math.min(Math.max(offset, previous), end - start);
+                pageStarts[page] = previous;
+            }
+        }
+
+        in = null;
+        this.pageStarts = null;
+        return out.substring(start, end);
+    }
+
+    /**
+     * Clean one piece of a longer text, untrimmed and as if preceded by a page break
+     * unless it is the first piece. A line runs on into the next piece, so a
+     * page-number line is only removed when it ends at a line terminator.
+     * {@link #endsAtLineStart()} tells whether the next piece starts a line.
+     */
+    String normalizePiece(String text, boolean first, boolean lineStart) {
+        in = first ? text : DocumentParser.PAGE_BREAK + text;
+        length = in.length();
+        pageStarts = null;
+        wholeText = false;
+        out.setLength(0);
+        out.ensureCapacity(length);
+
+        endsAtLineStart = clean(lineStart);
+
+        in = null;
+        return out.toString();
+    }
+
+    /**
+     * Whether the piece last cleaned by {@link #normalizePiece} ended right after a line terminator
+     */
+    boolean endsAtLineStart() {
+        return endsAtLineStart;
+    }
+
+    /**
+     * Clean in[0, length) into out
+     *
+     * @return whether the input ended at the start of a line
+     */
+    private boolean clean(boolean lineStart) {
+        boolean inEmailRun = false;  // Inside a run of [\w.-] already checked for an e-mail
+
+        int i = 0;
+        while (i < length) {
+            if (lineStart) {
+                lineStart = false;
+                int lineEnd = removableLineEnd(i);
+                if (lineEnd >= 0) {
+                    recordPageBreaks(i, lineEnd, out.length());
+                    i = lineEnd;
+                    continue;
+                }
+            }
+
+            char c = in.charAt(i);
+
+            if (isSpace(c)) {
+                int runStart = i;
+                while (i < length && isSpace(in.charAt(i))) i++;
+                recordPageBreaks(runStart, i, out.length() + 1);
+                out.append(' ');
+                inEmailRun = false;
+                continue;
+            }
+            if (isLineTerminator(c)) {
+                out.append(c);
+                i++;
+                lineStart = true;
+                inEmailRun = false;
+                continue;
+            }
+            if (isUrlAt(i)) {
+                int urlStart = i;
+                i = urlEnd(i);
+                recordPageBreaks(urlStart, i, out.length());
+                inEmailRun = false;
+                continue;
+            }
+            if (isEmailChar(c)) {
+                if (!inEmailRun) {
+                    int emailEnd = emailEnd(i);
+                    if (emailEnd >= 0) {
+                        i = emailEnd;
+                        continue;  // Whatever follows starts a new run
+                    }
+                }
+                inEmailRun = true;
+            } else {
+                inEmailRun = false;
+                if (c == '(') {
+                    int cidEnd = cidEnd(i);
+                    if (cidEnd >= 0) {
+                        i = cidEnd;
+                        continue;
+                    }
+                }
+            }
+
+            if (c == '\u00A0') {
+                c = ' ';
+            } else if ((c == 'l' || c == '0') && isStandalone(i)) {
+                c = c == 'l' ? 'I' : 'O';
+            }
+
+            if (isPunctuation(c)) {
+                int end = out.length();
+                while (end > 0 && out.charAt(end - 1) == ' ') end--;
+                out.setLength(end);
+            } else if (c >= 'A' && c <= 'Z' && out.length() > 0 && isPunctuation(out.charAt(out.length() - 1))) {
+                out.append(' ');
+            }
+
+            out.append(c);
+            i++;
+        }
+        return lineStart;
+    }
+
+    /**
+     * Note that pages following breaks in input[from, to) start at {@code offset} of the output
+     */
+    private void recordPageBreaks(int from, int to, int offset) {
+        if (pageStarts == null) {
+            return;
+        }
+        for (int i = from; i < to; i++) {
+            if (in.charAt(i) == DocumentParser.PAGE_BREAK && ++pageBreaks < pageStarts.length) {
+                pageStarts[pageBreaks] = offset;
+            }
+        }
+    }
+
+    /**
+     * If the line starting at {@code start} holds only a page number, "Page N" or
+     * "Chapter N" (plus whitespace), the index of its terminator (or the end); else -1
+     */
+    private int removableLineEnd(int start) {
+        int i = skipSpaces(start);
+
+        if (in.startsWith("Page", i)) {
+            i = skipLabel(i + 4);
+        } else if (in.startsWith("Chapter", i)) {
+            i = skipLabel(i + 7);
+        }
+        if (i < 0 || i >= length || !isDigit(in.charAt(i))) {
+            return -1;
+        }
+
+        while (i < length && isDigit(in.charAt(i))) i++;
+        i = skipSpaces(i);
+        if (i == length) {
+            return wholeText ? i : -1;
+        }
+        return isLineTerminator(in.charAt(i)) ? i : -1;
+    }
+
+    /**
+     * Position after the whitespace following "Page"/"Chapter", or -1 if there is none
+     */
+    private int skipLabel(int i) {
+        return i < length && isSpace(in.charAt(i)) ? skipSpaces(i) : -1;
+    }
+
+    private int skipSpaces(int i) {
+        while (i < length && isSpace(in.charAt(i))) i++;
+        return i;
+    }
+
+    private boolean isUrlAt(int i) {
+        if (in.charAt(i) != 'h') {
+            return false;
+        }
+        int schemeEnd;
+        if (in.startsWith("http://", i)) {
+            schemeEnd = i + 7;
+        } else if (in.startsWith("https://", i)) {
+            schemeEnd = i + 8;
+        } else {
+            return false;
+        }
+        return schemeEnd < length && !isSpace(in.charAt(schemeEnd));
+    }
+
+    /**
+     * A URL runs to the next whitespace. It may run across line separators; page-number
+     * lines on the way were already gone when the cascade removed URLs, so skip them too.
+     */
+    private int urlEnd(int i) {
+        while (i < length && !isSpace(in.charAt(i))) {
+            if (isLineTerminator(in.charAt(i))) {
+                int lineEnd = removableLineEnd(i + 1);
+                i = lineEnd >= 0 ? lineEnd : i + 1;
+            } else {
+                i++;
+            }
+        }
+        return i;
+    }
+
+    /**
+     * End of the e-mail address starting at {@code start}, or -1. Mirrors the greedy match of
+     * {@code [\w.-]+@[\w.-]+\.\w+}: the domain ends after the word following its last usable dot.
+     */
+    private int emailEnd(int start) {
+        int at = start;
+        while (at < length && isEmailChar(in.charAt(at)) && !isUrlAt(at)) at++;
+        if (at == start || at >= length || in.charAt(at) != '@') {
+            return -1;
+        }
+
+        int domainStart = at + 1;
+        int domainEnd = domainStart;
+        while (domainEnd < length && isEmailChar(in.charAt(domainEnd)) && !isUrlAt(domainEnd)) domainEnd++;
+
+        for (int dot = domainEnd - 2; dot > domainStart; dot--) {
+            if (in.charAt(dot) == '.' && isWordChar(in.charAt(dot + 1))) {
+                int end = dot + 1;
+                while (end < domainEnd && isWordChar(in.charAt(end))) end++;
+                return end;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * End of a "(cid:N)" artifact starting at {@code start}, or -1
+     */
+    private int cidEnd(int start) {
+        if (!in.startsWith("(cid:", start)) {
+            return -1;
+        }
+        int i = start + 5;
+        int digits = i;
+        while (i < length && isDigit(in.charAt(i))) i++;
+        return i > digits && i < length && in.charAt(i) == ')' ? i + 1 : -1;
+    }
+
+    /**
+     * Whether the "l" or "0" at {@code i} stands alone, i.e. {@code \b.\b} matches it in the
+     * text the cascade had at that step: left context from the output, right context looked
+     * ahead past artifacts and addresses that were removed earlier
+     */
+    private boolean isStandalone(int i) {
+        int outLength = out.length();
+        if (outLength > 0) {
+            int before = out.codePointBefore(outLength);
+            if (isWordCodePoint(before)
+                    || (Character.getType(before) == Character.NON_SPACING_MARK
+                        && hasBaseCharacter(out, outLength - 1))) {
+                return false;
+            }
+        }
+
+        int j = i + 1;
+        boolean runStart = false;  // Whether an e-mail address could start at j
+        while (j < length) {
+            char next = in.charAt(j);
+            if (isSpace(next) || isUrlAt(j)) {
+                return true;
+            }
+            if (next == '(') {
+                int cidEnd = cidEnd(j);
+                if (cidEnd >= 0) {
+                    j = cidEnd;
+                    runStart = true;
+                    continue;
+                }
+            }
+            if (runStart && isEmailChar(next)) {
+                int emailEnd = emailEnd(j);
+                if (emailEnd >= 0) {
+                    j = emailEnd;
+                    continue;
+                }
+            }
+
+            // A combining mark after the letter is part of the same word
+            int after = in.codePointAt(j);
+            return !isWordCodePoint(after) && Character.getType(after) != Character.NON_SPACING_MARK;
+        }
+        return true;
+    }
+
+    /**
+     * java.util.regex word-boundary rule for a combining mark: it counts as a word
+     * character when it follows a letter or digit (possibly via further marks)
+     */
+    private static boolean hasBaseCharacter(CharSequence text, int index) {
+        for (int x = index; x >= 0; x--) {
+            int ch = Character.codePointAt(text, x);
+            if (Character.isLetterOrDigit(ch)) {
+                return true;
+            }
+            if (Character.getType(ch) != Character.NON_SPACING_MARK) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    /** {@code \s} */
+    private static boolean isSpace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    /** Line terminators left after whitespace is collapsed ({@code \n} and {@code \r} are gone) */
+    private static boolean isLineTerminator(char c) {
+        return c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+
+    /** {@code \d} */
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    /** {@code \w} */
+    private static boolean isWordChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || isDigit(c) || c == '_';
+    }
+
+    /** {@code [\w.-]} */
+    private static boolean isEmailChar(char c) {
+        return isWordChar(c) || c == '.' || c == '-';
+    }
+
+    /** Word character as {@code \b} sees it */
+    private static boolean isWordCodePoint(int codePoint) {
+        return codePoint == '_' || Character.isLetterOrDigit(codePoint);
+    }
+
+    private static boolean isPunctuation(char c) {
+        return c == '.' || c == ',' || c == '!' || c == '?' || c == ';' || c == ':';
+    }
+}
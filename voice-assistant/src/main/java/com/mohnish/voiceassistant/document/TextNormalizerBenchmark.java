@@ -0,0 +1,140 @@
+package com.mohnish.voiceassistant.document;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+/**
+ * Compares {@link TextNormalizer} with the regex cascade it replaced: checks
+ * that both produce the same text and reports time and bytes allocated per run.
+ *
+ * Usage: TextNormalizerBenchmark [book.pdf|book.txt] [iterations]
+ * Without a book a ~5 MB synthetic raw text is generated.
+ */
+public class TextNormalizerBenchmark {
+    public static void main(String[] args) {
+        System.out.println("⏱️  Text Normalizer Benchmark\n");
+
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+        try {
+            String raw;
+            if (args.length > 0) {
+                raw = new DocumentParser().extractRawText(new File(args[0]));
+            } else {
+                raw = syntheticRawText(5_000_000);
+            }
+            System.out.println("Input: " + String.format("%,d", raw.length()) + " chars\n");
+
+            TextNormalizer normalizer = new TextNormalizer();
+            String expected = regexCascade(raw);
+            String actual = normalizer.normalize(raw);
+            if (!expected.equals(actual)) {
+                System.err.println("❌ Output differs from the regex cascade");
+                System.exit(1);
+            }
+            System.out.println("✅ Output identical to the regex cascade ("
+                + String.format("%,d", actual.length()) + " chars)\n");
+
+            // Warm up both paths before measuring
+            for (int i = 0; i < 3; i++) {
+                regexCascade(raw);
+                normalizer.normalize(raw);
+            }
+
+            long[] cascade = measure(iterations, () -> regexCascade(raw));
+            long[] single = measure(iterations, () -> normalizer.normalize(raw));
+
+            report("Regex cascade", cascade, iterations);
+            report("TextNormalizer", single, iterations);
+            System.out.println(String.format("\nSpeedup: %.1fx, allocation: %.1fx less",
+                (double) cascade[0] / single[0], (double) cascade[1] / Math.max(1, single[1])));
+
+        } catch (Exception e) {
+            System.err.println("❌ Benchmark failed: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * @return total nanoseconds and bytes allocated on this thread
+     */
+    private static long[] measure(int iterations, Runnable task) {
+        long allocatedBefore = allocatedBytes();
+        long startTime = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            task.run();
+        }
+        return new long[] { System.nanoTime() - startTime, allocatedBytes() - allocatedBefore };
+    }
+
+    private static long allocatedBytes() {
+        Object threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threads).getCurrentThreadAllocatedBytes();
+        }
+        return 0;
+    }
+
+    private static void report(String name, long[] totals, int iterations) {
+        System.out.println(String.format("%-16s %8.1f ms/run  %,14d bytes/run",
+            name + ":", totals[0] / 1_000_000.0 / iterations, totals[1] / iterations));
+    }
+
+    /**
+     * The cleaning DocumentParser.cleanText did before TextNormalizer, as the baseline
+     */
+    private static String regexCascade(String text) {
+        if (text == null || text.trim().isEmpty()) {
+            return "";
+        }
+        text = text.replaceAll("\\s+", " ");
+        text = text.replaceAll("(?m)^\\s*\\d+\\s*$", "");
+        text = text.replaceAll("(?m)^\\s*Page \\d+\\s*$", "");
+        text = text.replaceAll("(?m)^\\s*Chapter \\d+\\s*$", "");
+        text = text.replaceAll("https?://\\S+", "");
+        text = text.replaceAll("[\\w.-]+@[\\w.-]+\\.\\w+", "");
+        text = text.replaceAll("\\(cid:\\d+\\)", "");
+        text = text.replaceAll("\\u00A0", " ");
+        text = text.replaceAll("\\bl\\b", "I");
+        text = text.replaceAll("\\b0\\b", "O");
+        text = text.replaceAll("\n{3,}", "\n\n");
+        text = text.replaceAll("\\s+([.,!?;:])", "$1");
+        text = text.replaceAll("([.,!?;:])([A-Z])", "$1 $2");
+        return text.trim();
+    }
+
+    /**
+     * Deterministic text that looks like PDF extraction output: line breaks, page
+     * numbers, page breaks and the odd URL, e-mail address and CID artifact
+     */
+    private static String syntheticRawText(int chars) {
+        String[] vocabulary = {
+            "the", "model", "learns", "a", "representation", "of", "data", "with", "neural",
+            "networks", "and", "gradient", "descent", "which", "improves", "accuracy", "over",
+            "time", "while", "training", "on", "large", "datasets", "that", "contain", "many",
+            "examples", "from", "different", "domains", "such", "as", "vision", "language"
+        };
+        Random random = new Random(42);
+        StringBuilder builder = new StringBuilder(chars + 100);
+        int page = 1;
+
+        while (builder.length() < chars) {
+            int roll = random.nextInt(400);
+            if (roll == 0) {
+                builder.append("\n").append(page).append("\n").append(DocumentParser.PAGE_BREAK).append("Chapter ").append(page++).append("\n");
+            } else if (roll == 1) {
+                builder.append("https://example.org/page/").append(random.nextInt(1000)).append(' ');
+            } else if (roll == 2) {
+                builder.append("author").append(random.nextInt(50)).append("@example.com ");
+            } else if (roll == 3) {
+                builder.append("(cid:").append(random.nextInt(200)).append(")");
+            } else if (roll < 30) {
+                builder.append(random.nextBoolean() ? ". " : ",\n");
+            } else {
+                builder.append(vocabulary[random.nextInt(vocabulary.length)]).append(random.nextInt(20) == 0 ? "  " : " ");
+            }
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,67 @@
+package com.mohnish.voiceassistant.document;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compares chunking in words with chunking to each embedding model's token
+ * budget: how many chunks (embedding calls) each takes, how full they are and
+ * how many word-sized chunks the model would truncate.
+ *
+ * Usage: TokenBudgetBenchmark book.pdf|book.txt [model ...]
+ */
+public class TokenBudgetBenchmark {
+    public static void main(String[] args) {
+        System.out.println("⏱️  Token Budget Benchmark\n");
+
+        if (args.length == 0) {
+            System.out.println("Usage: TokenBudgetBenchmark book.pdf|book.txt [model ...]");
+            return;
+        }
+        String[] models = args.length > 1
+            ? Arrays.copyOfRange(args, 1, args.length)
+            : new String[] { "nomic-embed-text", "mxbai-embed-large" };
+
+        try {
+            String text = new DocumentParser().extractText(new File(args[0]));
+            System.out.println("Input: " + String.format("%,d", text.length()) + " chars, "
+                + String.format("%,d", TokenEstimator.estimate(text)) + " estimated tokens\n");
+
+            TextChunker words = new TextChunker(500, 50, TextChunker.ChunkingStrategy.SENTENCE_BOUNDARY);
+            List<DocumentChunk> wordChunks = words.chunkDocument(text, args[0], args[0]);
+
+            for (String model : models) {
+                int budget = TokenEstimator.budgetFor(model);
+                System.out.println("📐 " + model + ": " + TokenEstimator.contextWindow(model)
+                    + " token window, budget " + budget);
+                report("500 words", wordChunks, budget);
+
+                TextChunker tokens = new TextChunker(500, 50, TextChunker.ChunkingStrategy.SENTENCE_BOUNDARY);
+                tokens.setTokenBudget(budget);
+                long startTime = System.nanoTime();
+                List<DocumentChunk> tokenChunks = tokens.chunkDocument(text, args[0], args[0]);
+                long elapsed = System.nanoTime() - startTime;
+                report("Token budget", tokenChunks, budget);
+                System.out.println(String.format("%-14s %8.1f ms to chunk\n", "", elapsed / 1_000_000.0));
+            }
+        } catch (Exception e) {
+            System.err.println("❌ Benchmark failed: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    private static void report(String name, List<DocumentChunk> chunks, int budget) {
+        long total = 0;
+        int largest = 0;
+        int over = 0;
+        for (DocumentChunk chunk : chunks) {
+            int tokens = TokenEstimator.estimate(chunk.getContent());
+            total += tokens;
+            largest = Math.max(largest, tokens);
+            if (tokens > budget) over++;
+        }
+        System.out.println(String.format("%-14s %,7d chunks, %6.1f%% of budget used on average, largest %,d tokens, %,d over budget",
+            name + ":", chunks.size(), 100.0 * total / Math.max(1, chunks.size()) / budget, largest, over));
+    }
+}
@@ -0,0 +1,112 @@
+package com.mohnish.voiceassistant.document;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Approximate token counts for the WordPiece tokenizers of the embedding models,
+ * without their vocabularies. Each punctuation mark, symbol or CJK character is
+ * a token, a number takes one per two digits (or part) and a run of letters one
+ * per six letters (or part). Common words of any length are single tokens in
+ * the real vocabularies, so on ordinary prose estimates tend to run high. Rare
+ * words split into pieces of three to five letters and are underestimated
+ * ("Kubernetes" is estimated at 2 tokens, the tokenizers need about 4), so
+ * text full of names or jargon can exceed its estimate; budgets keep headroom
+ * for that (see {@link #budgetFor}).
+ *
+ * Whitespace is never part of a token, so the estimate of a text is the sum of
+ * the estimates of its words, and splitting a word never lowers its estimate.
+ */
+public final class TokenEstimator {
+
+    // Context windows the embedding models are served with, by model name without the tag
+    private static final Map<String, Integer> CONTEXT_WINDOWS = new ConcurrentHashMap<>();
+    static {
+        CONTEXT_WINDOWS.put("nomic-embed-text", 2048);
+        CONTEXT_WINDOWS.put("mxbai-embed-large", 512);
+        CONTEXT_WINDOWS.put("all-minilm", 512);
+        CONTEXT_WINDOWS.put("snowflake-arctic-embed", 512);
+        CONTEXT_WINDOWS.put("bge-large", 512);
+        CONTEXT_WINDOWS.put("bge-m3", 8192);
+    }
+    private static final int DEFAULT_CONTEXT_WINDOW = 512;
+    private static final int SPECIAL_TOKENS = 2;  // [CLS] and [SEP]
+    private static final double HEADROOM = 0.9;   // Room for estimation error
+
+    private TokenEstimator() {
+    }
+
+    /**
+     * Estimated tokens in text[start, end)
+     */
+    public static int estimate(CharSequence text, int start, int end) {
+        int tokens = 0;
+        int i = start;
+        while (i < end) {
+            char c = text.charAt(i);
+            if (TokenizedText.isSpace(c)) {
+                i++;
+            } else if (isWordLetter(c)) {
+                int runStart = i;
+                while (i < end && isWordLetter(text.charAt(i))) i++;
+                tokens += (i - runStart + 5) / 6;
+            } else if (c >= '0' && c <= '9') {
+                int runStart = i;
+                while (i < end && text.charAt(i) >= '0' && text.charAt(i) <= '9') i++;
+                tokens += (i - runStart + 1) / 2;
+            } else {
+                // Punctuation, symbols, CJK; a surrogate pair is one character
+                i += Character.isHighSurrogate(c) && i + 1 < end && Character.isLowSurrogate(text.charAt(i + 1)) ? 2 : 1;
+                tokens++;
+            }
+        }
+        return tokens;
+    }
+
+    public static int estimate(CharSequence text) {
+        return estimate(text, 0, text.length());
+    }
+
+    /**
+     * Context window of an embedding model ("nomic-embed-text:latest" is looked up as
+     * "nomic-embed-text"); 512 tokens for models not listed
+     */
+    public static int contextWindow(String modelName) {
+        if (modelName == null) {
+            return DEFAULT_CONTEXT_WINDOW;
+        }
+        String name = modelName.toLowerCase(Locale.ROOT);
+        int tag = name.indexOf(':');
+        if (tag >= 0) {
+            name = name.substring(0, tag);
+        }
+        name = name.substring(name.lastIndexOf('/') + 1);
+        return CONTEXT_WINDOWS.getOrDefault(name, DEFAULT_CONTEXT_WINDOW);
+    }
+
+    /**
+     * Estimated tokens a chunk may hold so the model embeds all of it: the context
+     * window less the special tokens the model adds, with headroom for estimation error
+     */
+    public static int budgetFor(String modelName) {
+        return (int) (contextWindow(modelName) * HEADROOM) - SPECIAL_TOKENS;
+    }
+
+    /**
+     * Set the context window of a model, e.g. one served with a different num_ctx
+     */
+    public static void setContextWindow(String modelName, int tokens) {
+        CONTEXT_WINDOWS.put(modelName.toLowerCase(Locale.ROOT), tokens);
+    }
+
+    private static boolean isWordLetter(char c) {
+        if (c < 0x80) {
+            return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+        }
+        // Accented and other alphabetic letters join words; ideographs and kana are a token each
+        return Character.isLetter(c) && !Character.isIdeographic(c)
+            && Character.UnicodeScript.of(c) != Character.UnicodeScript.HIRAGANA
+            && Character.UnicodeScript.of(c) != Character.UnicodeScript.KATAKANA;
+    }
+}
@@ -0,0 +1,248 @@
+package com.mohnish.voiceassistant.document;
+
+import java.util.Arrays;
+
+/**
+ * Word, sentence and paragraph boundaries of a text, recorded as offsets in
+ * int arrays so chunks can be sized and sliced without splitting strings.
+ * Words are found when the text is tokenized, sentences and paragraphs on
+ * first use; each takes one pass.
+ *
+ * Tokenizing can start at any offset, and stop at one (a segment of a text
+ * tokenized in parallel). A text marked incomplete (a window of a stream) may
+ * still continue: units that more text could change are left out, and
+ * {@link Spans#getResume()} tells where the next window must pick up.
+ */
+public class TokenizedText {
+    private final CharSequence text;
+    private final int from;
+    private final int to;
+    private final boolean complete;
+
+    private int[] wordStarts = new int[256];
+    private int[] wordEnds = new int[256];
+    private int wordCount;
+    private int[] tokensBefore;  // Estimated tokens of the words before each word, counted on first use
+    private Spans words;
+    private Spans sentences;
+    private Spans paragraphs;
+
+    public TokenizedText(CharSequence text) {
+        this(text, 0, true);
+    }
+
+    public TokenizedText(CharSequence text, int from, boolean complete) {
+        this(text, from, text.length(), complete);
+    }
+
+    /**
+     * Tokenize text[from, to) as if the text ended at to; offsets stay those of the whole text
+     */
+    public TokenizedText(CharSequence text, int from, int to, boolean complete) {
+        this.text = text;
+        this.from = from;
+        this.to = to;
+        this.complete = complete;
+
+        int length = to;
+        int i = from;
+        while (i < length) {
+            while (i < length && isSpace(text.charAt(i))) i++;
+            if (i == length) break;
+            int start = i;
+            while (i < length && !isSpace(text.charAt(i))) i++;
+            if (wordCount == wordStarts.length) {
+                wordStarts = Arrays.copyOf(wordStarts, wordCount * 2);
+                wordEnds = Arrays.copyOf(wordEnds, wordCount * 2);
+            }
+            wordStarts[wordCount] = start;
+            wordEnds[wordCount] = i;
+            wordCount++;
+        }
+    }
+
+    public CharSequence getText() { return text; }
+
+    /**
+     * Runs of non-whitespace characters
+     */
+    public Spans getWords() {
+        if (words == null) {
+            // A word touching the end of an incomplete text may go on
+            boolean partial = !complete && wordCount > 0 && wordEnds[wordCount - 1] == to;
+            int size = partial ? wordCount - 1 : wordCount;
+            words = new Spans(wordStarts, wordEnds, null, size, partial ? wordStarts[size] : to);
+        }
+        return words;
+    }
+
+    /**
+     * Sentences as {@link SentenceScanner} finds them
+     */
+    public Spans getSentences() {
+        if (sentences == null) {
+            SpanList list = new SpanList();
+            int resume = SentenceScanner.scan(text, from, to, complete, (start, end) -> addTrimmed(list, start, end));
+            sentences = list.toSpans(resume);
+        }
+        return sentences;
+    }
+
+    /**
+     * Text between runs of two or more newlines, trimmed, empty ones dropped
+     */
+    public Spans getParagraphs() {
+        if (paragraphs == null) {
+            SpanList list = new SpanList();
+            int length = to;
+            int pieceStart = from;
+            int i = from;
+            while (i < length) {
+                if (text.charAt(i) == '\n' && i + 1 < length && text.charAt(i + 1) == '\n') {
+                    int runEnd = i + 2;
+                    while (runEnd < length && text.charAt(runEnd) == '\n') runEnd++;
+                    addTrimmed(list, pieceStart, i);
+                    pieceStart = runEnd;
+                    i = runEnd;
+                } else {
+                    i++;
+                }
+            }
+            if (complete) {
+                addTrimmed(list, pieceStart, length);
+                pieceStart = length;
+            }
+            paragraphs = list.toSpans(pieceStart);
+        }
+        return paragraphs;
+    }
+
+    /**
+     * Number of words that overlap [start, end)
+     */
+    public int countWords(int start, int end) {
+        return Math.max(0, lastWordStartingBefore(end) - firstWordEndingAfter(start) + 1);
+    }
+
+    /**
+     * Estimated tokens ({@link TokenEstimator}) of the words that overlap [start, end)
+     */
+    public int countTokens(int start, int end) {
+        if (tokensBefore == null) {
+            tokensBefore = new int[wordCount + 1];
+            for (int i = 0; i < wordCount; i++) {
+                tokensBefore[i + 1] = tokensBefore[i] + TokenEstimator.estimate(text, wordStarts[i], wordEnds[i]);
+            }
+        }
+        int first = firstWordEndingAfter(start);
+        int last = lastWordStartingBefore(end);
+        return last < first ? 0 : tokensBefore[last + 1] - tokensBefore[first];
+    }
+
+    /**
+     * Number of runs of non-whitespace characters, without splitting
+     */
+    public static int countWords(CharSequence text) {
+        int words = 0;
+        boolean inWord = false;
+        for (int i = 0; i < text.length(); i++) {
+            boolean space = isSpace(text.charAt(i));
+            if (!space && !inWord) words++;
+            inWord = !space;
+        }
+        return words;
+    }
+
+    private int firstWordEndingAfter(int offset) {
+        int low = 0;
+        int high = wordCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (wordEnds[mid] <= offset) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int lastWordStartingBefore(int offset) {
+        int low = -1;
+        int high = wordCount - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (wordStarts[mid] < offset) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    private void addTrimmed(SpanList list, int start, int end) {
+        while (start < end && text.charAt(start) <= ' ') start++;
+        while (end > start && text.charAt(end - 1) <= ' ') end--;
+        if (start < end) {
+            list.add(start, end, countWords(start, end));
+        }
+    }
+
+    /** {@code \s} */
+    static boolean isSpace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    /**
+     * Offsets of one kind of unit, in text order
+     */
+    public static class Spans {
+        private final int[] starts;
+        private final int[] ends;
+        private final int[] words;  // Word count of each span, null when every span is one word
+        private final int size;
+        private final int resume;
+
+        private Spans(int[] starts, int[] ends, int[] words, int size, int resume) {
+            this.starts = starts;
+            this.ends = ends;
+            this.words = words;
+            this.size = size;
+            this.resume = resume;
+        }
+
+        public int size() { return size; }
+        public int getStart(int i) { return starts[i]; }
+        public int getEnd(int i) { return ends[i]; }
+        public int getWords(int i) { return words == null ? 1 : words[i]; }
+
+        /**
+         * Where tokenizing must start again once more text is appended (the end of a complete text)
+         */
+        public int getResume() { return resume; }
+    }
+
+    private static class SpanList {
+        private int[] starts = new int[64];
+        private int[] ends = new int[64];
+        private int[] words = new int[64];
+        private int size;
+
+        void add(int start, int end, int wordCount) {
+            if (size == starts.length) {
+                starts = Arrays.copyOf(starts, size * 2);
+                ends = Arrays.copyOf(ends, size * 2);
+                words = Arrays.copyOf(words, size * 2);
+            }
+            starts[size] = start;
+            ends[size] = end;
+            words[size] = wordCount;
+            size++;
+        }
+
+        Spans toSpans(int resume) {
+            return new Spans(starts, ends, words, size, resume);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.mohnish.voiceassistant.embedding;
+
+/**
+ * Non-200 answer from an embedding server
+ */
+public class EmbeddingApiException extends Exception {
+    private static final long serialVersionUID = 1L;
+
+    private final int statusCode;
+
+    public EmbeddingApiException(int statusCode) {
+        super("Embedding API error: " + statusCode);
+        this.statusCode = statusCode;
+    }
+
+    public int getStatusCode() { return statusCode; }
+
+    /**
+     * Server errors and rate limiting may pass; other client errors will fail the same way again
+     */
+    public boolean isRetryable() {
+        return statusCode >= 500 || statusCode == 429;
+    }
+}
@@ -0,0 +1,183 @@
+package com.mohnish.voiceassistant.embedding;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.mohnish.voiceassistant.document.DocumentChunk;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Persists embedding progress for a single book so an interrupted run can resume.
+ *
+ * Each finished chunk is appended as one JSON line (chunk ID, text checksum,
+ * embedding space, vector). An entry is only reused when the chunk text and the
+ * embedding space (model, API, normalisation) still match, so changing the chunker
+ * settings or the model never mixes stale vectors into a new run.
+ */
+public class EmbeddingCheckpoint implements Closeable {
+    private static final Logger logger = LoggerFactory.getLogger(EmbeddingCheckpoint.class);
+
+    private final File file;
+    private final String space;
+    private final Gson gson;
+    private final Map<String, Entry> entries;
+    private BufferedWriter writer;
+    private FileOutputStream outputStream;
+
+    private EmbeddingCheckpoint(File file, String space) {
+        this.file = file;
+        this.space = space;
+        this.gson = new Gson();
+        this.entries = new HashMap<>();
+    }
+
+    /**
+     * Open (or create) the checkpoint for a book inside the given directory
+     *
+     * @param space embedding space of the provider (see {@link EmbeddingProvider#getEmbeddingSpace()});
+     *              entries recorded in another space are ignored
+     */
+    public static EmbeddingCheckpoint open(File directory, String bookName, String space) throws IOException {
+        if (!directory.exists() && !directory.mkdirs()) {
+            throw new IOException("Cannot create checkpoint directory: " + directory.getAbsolutePath());
+        }
+
+        String cleanName = bookName.replaceAll("[^a-zA-Z0-9]", "_").toLowerCase();
+        EmbeddingCheckpoint checkpoint = new EmbeddingCheckpoint(new File(directory, cleanName + ".ckpt.jsonl"), space);
+        checkpoint.load();
+        return checkpoint;
+    }
+
+    /**
+     * Load previously recorded embeddings (a torn last line from a crash is ignored)
+     */
+    private void load() throws IOException {
+        if (!file.exists()) {
+            return;
+        }
+
+        int stale = 0;
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) continue;
+
+                try {
+                    JsonObject json = gson.fromJson(line, JsonObject.class);
+                    if (!json.has("space") || !json.get("space").getAsString().equals(space)) {
+                        stale++;
+                        continue;
+                    }
+                    List<Double> embedding = new ArrayList<>();
+                    json.getAsJsonArray("embedding").forEach(element -> embedding.add(element.getAsDouble()));
+                    entries.put(json.get("id").getAsString(), new Entry(json.get("crc").getAsLong(), embedding));
+                } catch (JsonParseException | IllegalStateException | NullPointerException e) {
+                    logger.warn("Skipping unreadable checkpoint line in {}", file.getName());
+                }
+            }
+        }
+
+        if (stale > 0) {
+            logger.info("Ignoring {} checkpointed embeddings from another model or API in {}", stale, file.getName());
+        }
+        logger.info("Loaded checkpoint {} ({} embeddings)", file.getName(), entries.size());
+    }
+
+    /**
+     * Get the stored embedding for a chunk, or null if it still has to be generated
+     */
+    public synchronized List<Double> get(DocumentChunk chunk) {
+        Entry entry = entries.get(chunk.getId());
+        if (entry == null || entry.crc != checksum(chunk.getText())) {
+            return null;
+        }
+        return entry.embedding;
+    }
+
+    /**
+     * Record a finished embedding and flush it to disk
+     */
+    public synchronized void record(DocumentChunk chunk, List<Double> embedding) throws IOException {
+        long crc = checksum(chunk.getText());
+
+        JsonObject json = new JsonObject();
+        json.addProperty("id", chunk.getId());
+        json.addProperty("crc", crc);
+        json.addProperty("space", space);
+        JsonArray vector = new JsonArray(embedding.size());
+        for (Double value : embedding) {
+            vector.add(value);
+        }
+        json.add("embedding", vector);
+
+        if (writer == null) {
+            outputStream = new FileOutputStream(file, true);
+            writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        }
+        writer.write(gson.toJson(json));
+        writer.newLine();
+        writer.flush();
+
+        entries.put(chunk.getId(), new Entry(crc, embedding));
+    }
+
+    /**
+     * Number of embeddings available in this checkpoint
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Remove the checkpoint once the book is fully stored
+     */
+    public synchronized void delete() throws IOException {
+        close();
+        Files.deleteIfExists(file.toPath());
+        entries.clear();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (writer != null) {
+            writer.flush();
+            outputStream.getFD().sync();
+            writer.close();
+            writer = null;
+            outputStream = null;
+        }
+    }
+
+    private static long checksum(String text) {
+        CRC32 crc = new CRC32();
+        crc.update(text.getBytes(StandardCharsets.UTF_8));
+        return crc.getValue();
+    }
+
+    private static class Entry {
+        private final long crc;
+        private final List<Double> embedding;
+
+        private Entry(long crc, List<Double> embedding) {
+            this.crc = crc;
+            this.embedding = embedding;
+        }
+    }
+}
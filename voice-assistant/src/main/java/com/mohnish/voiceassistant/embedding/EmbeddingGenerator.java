@@ -5,16 +5,28 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 
 public class EmbeddingGenerator {
     private static final Logger logger = LoggerFactory.getLogger(EmbeddingGenerator.class);
     
-    private final OllamaEmbeddings ollamaEmbeddings;
+    private final EmbeddingProvider provider;
+    private volatile QueryEmbeddingBatcher queryBatcher;
     
     public EmbeddingGenerator(String ollamaUrl) {
-        this.ollamaEmbeddings = new OllamaEmbeddings(ollamaUrl);
-        logger.info("Embedding Generator initialized");
+        this(List.of(ollamaUrl));
+    }
+    
+    public EmbeddingGenerator(List<String> ollamaUrls) {
+        this(new OllamaEndpointPool(ollamaUrls));
+    }
+    
+    public EmbeddingGenerator(EmbeddingProvider provider) {
+        this.provider = provider;
+        logger.info("Embedding Generator initialized with model: {}", provider.getModelName());
     }
     
     /**
@@ -22,7 +34,7 @@ public class EmbeddingGenerator {
      */
     public List<Double> generateForChunk(DocumentChunk chunk) throws Exception {
         logger.debug("Generating embedding for chunk: {}", chunk.getId());
-        return ollamaEmbeddings.generateEmbedding(chunk.getText());
+        return provider.generateEmbedding(chunk.getText());
     }
     
     /**
@@ -36,7 +48,43 @@ public class EmbeddingGenerator {
             texts.add(chunk.getText());
         }
         
-        return ollamaEmbeddings.generateEmbeddings(texts);
+        return provider.generateEmbeddings(texts);
+    }
+    
+    /**
+     * Embed one batch of chunks with a single provider call, reusing checkpointed
+     * vectors and recording the new ones (checkpoint may be null)
+     */
+    public List<List<Double>> generateForBatch(List<DocumentChunk> chunks, 
+                                               EmbeddingCheckpoint checkpoint) throws Exception {
+        List<List<Double>> embeddings = new ArrayList<>(Collections.nCopies(chunks.size(), null));
+        List<Integer> missing = new ArrayList<>();
+        List<String> texts = new ArrayList<>();
+        
+        for (int i = 0; i < chunks.size(); i++) {
+            List<Double> embedding = checkpoint != null ? checkpoint.get(chunks.get(i)) : null;
+            if (embedding != null) {
+                embeddings.set(i, embedding);
+            } else {
+                missing.add(i);
+                texts.add(chunks.get(i).getText());
+            }
+        }
+        
+        if (!texts.isEmpty()) {
+            List<List<Double>> generated = provider.generateEmbeddingBatch(texts);
+            for (int j = 0; j < missing.size(); j++) {
+                int index = missing.get(j);
+                embeddings.set(index, generated.get(j));
+                if (checkpoint != null) {
+                    checkpoint.record(chunks.get(index), generated.get(j));
+                }
+            }
+        }
+        
+        logger.debug("Embedded batch of {} chunks ({} from checkpoint)", 
+            chunks.size(), chunks.size() - texts.size());
+        return embeddings;
     }
     
     /**
@@ -44,20 +92,68 @@ public class EmbeddingGenerator {
      */
     public List<Double> generateForQuery(String query) throws Exception {
         logger.debug("Generating embedding for query: {}", query);
-        return ollamaEmbeddings.generateEmbedding(query);
+        if (queryBatcher == null) {
+            return provider.generateEmbedding(query);
+        }
+        
+        try {
+            return queryBatcher.submit(query).get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof Exception ? (Exception) cause : e;
+        }
+    }
+    
+    /**
+     * Generate embedding for a query without blocking the caller
+     */
+    public CompletableFuture<List<Double>> generateForQueryAsync(String query) {
+        if (queryBatcher == null) {
+            return provider.submit(query);
+        }
+        return queryBatcher.submit(query);
+    }
+    
+    /**
+     * Batch concurrent query embeddings: wait up to maxWaitMs or maxBatchSize queries
+     */
+    public synchronized void enableQueryBatching(int maxBatchSize, long maxWaitMs) {
+        disableQueryBatching();
+        queryBatcher = new QueryEmbeddingBatcher(provider, maxBatchSize, maxWaitMs, 4);
+    }
+    
+    public synchronized void disableQueryBatching() {
+        if (queryBatcher != null) {
+            queryBatcher.close();
+            queryBatcher = null;
+        }
     }
     
     /**
      * Test if embedding generation is working
      */
     public boolean test() {
-        return ollamaEmbeddings.testConnection();
+        return provider.testConnection();
     }
     
     /**
      * Get the dimension size of embeddings
      */
     public int getDimensionSize() throws Exception {
-        return ollamaEmbeddings.getDimensionSize();
+        return provider.getDimensionSize();
+    }
+    
+    /**
+     * Verify the provider is consistently configured (e.g. all Ollama endpoints match)
+     */
+    public int verifyEndpoints() throws Exception {
+        return provider.verifyConsistency();
+    }
+    
+    /**
+     * Get the underlying embedding provider
+     */
+    public EmbeddingProvider getProvider() {
+        return provider;
     }
 }
\ No newline at end of file
@@ -0,0 +1,92 @@
+package com.mohnish.voiceassistant.embedding;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Source of text embeddings used by {@link EmbeddingGenerator}.
+ *
+ * Implemented by the Ollama client, the multi-endpoint Ollama pool and the
+ * in-process {@link HashingEmbeddingProvider} used for benchmarks.
+ */
+public interface EmbeddingProvider {
+
+    /**
+     * Generate embedding for a single text
+     */
+    List<Double> generateEmbedding(String text) throws Exception;
+
+    /**
+     * Generate embeddings for multiple texts, in order
+     */
+    default List<List<Double>> generateEmbeddings(List<String> texts) throws Exception {
+        List<List<Double>> embeddings = new ArrayList<>(texts.size());
+        for (String text : texts) {
+            embeddings.add(generateEmbedding(text));
+        }
+        return embeddings;
+    }
+
+    /**
+     * Generate embeddings for several texts in a single request where the backend supports it
+     */
+    default List<List<Double>> generateEmbeddingBatch(List<String> texts) throws Exception {
+        return generateEmbeddings(texts);
+    }
+
+    /**
+     * Generate embedding asynchronously (runs inline unless the provider has its own workers)
+     */
+    default CompletableFuture<List<Double>> submit(String text) {
+        try {
+            return CompletableFuture.completedFuture(generateEmbedding(text));
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Requests worth having in flight at once, e.g. to size the callers' thread pools
+     */
+    default int getConcurrency() {
+        return 1;
+    }
+
+    /**
+     * Get embedding dimension size
+     */
+    int getDimensionSize() throws Exception;
+
+    /**
+     * Name of the embedding model
+     */
+    String getModelName();
+
+    /**
+     * Model plus whatever else shapes its vectors (API, normalisation); vectors
+     * from different spaces must not be compared or mixed in one collection
+     */
+    default String getEmbeddingSpace() {
+        return getModelName();
+    }
+
+    /**
+     * Test that embeddings can be generated
+     */
+    boolean testConnection();
+
+    /**
+     * Total number of retried requests since the provider was created
+     */
+    default long getRetryCount() {
+        return 0;
+    }
+
+    /**
+     * Check the provider is consistently configured and return its dimension
+     */
+    default int verifyConsistency() throws Exception {
+        return getDimensionSize();
+    }
+}
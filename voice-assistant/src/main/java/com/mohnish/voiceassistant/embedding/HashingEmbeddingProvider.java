@@ -0,0 +1,114 @@
+package com.mohnish.voiceassistant.embedding;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fast, deterministic in-process embeddings for benchmarks and offline tests.
+ *
+ * Word unigrams and character n-grams are hashed into a fixed number of
+ * dimensions with a random sign per feature (a sparse random projection),
+ * then L2-normalised. Similar texts share features, so nearest-neighbour
+ * queries still behave sensibly, but no model or network is involved.
+ */
+public class HashingEmbeddingProvider implements EmbeddingProvider {
+    private final int dimension;
+    private final int ngramSize;
+
+    public HashingEmbeddingProvider() {
+        this(768, 3);
+    }
+
+    public HashingEmbeddingProvider(int dimension, int ngramSize) {
+        if (dimension <= 0 || ngramSize <= 0) {
+            throw new IllegalArgumentException("Dimension and n-gram size must be positive");
+        }
+        this.dimension = dimension;
+        this.ngramSize = ngramSize;
+    }
+
+    @Override
+    public List<Double> generateEmbedding(String text) {
+        if (text == null || text.trim().isEmpty()) {
+            throw new IllegalArgumentException("Text cannot be empty");
+        }
+
+        double[] vector = new double[dimension];
+        int wordStart = -1;
+        int wordHash = 0;
+
+        for (int i = 0; i <= text.length(); i++) {
+            char c = i < text.length() ? Character.toLowerCase(text.charAt(i)) : ' ';
+
+            if (Character.isLetterOrDigit(c)) {
+                if (wordStart < 0) {
+                    wordStart = i;
+                    wordHash = 0;
+                }
+                wordHash = 31 * wordHash + c;
+
+                // Character n-gram ending at this position (within the word)
+                if (i - wordStart + 1 >= ngramSize) {
+                    int gramHash = 0;
+                    for (int j = i - ngramSize + 1; j <= i; j++) {
+                        gramHash = 31 * gramHash + Character.toLowerCase(text.charAt(j));
+                    }
+                    addFeature(vector, gramHash * 0x9E3779B1, 0.5);
+                }
+            } else if (wordStart >= 0) {
+                addFeature(vector, wordHash, 1.0);
+                wordStart = -1;
+            }
+        }
+
+        double norm = 0;
+        for (double value : vector) {
+            norm += value * value;
+        }
+        norm = norm > 0 ? Math.sqrt(norm) : 1;
+
+        List<Double> embedding = new ArrayList<>(dimension);
+        for (double value : vector) {
+            embedding.add(value / norm);
+        }
+        return embedding;
+    }
+
+    private void addFeature(double[] vector, int hash, double weight) {
+        int mixed = mix(hash);
+        int index = Math.floorMod(mixed, dimension);
+        vector[index] += (mixed & 0x40000000) != 0 ? weight : -weight;
+    }
+
+    /**
+     * Murmur3 finalizer so neighbouring hashes land far apart
+     */
+    private static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    @Override
+    public int getDimensionSize() {
+        return dimension;
+    }
+
+    @Override
+    public int getConcurrency() {
+        return Runtime.getRuntime().availableProcessors();  // In-process, bound by cores
+    }
+
+    @Override
+    public String getModelName() {
+        return "hashing-" + ngramSize + "gram-" + dimension;
+    }
+
+    @Override
+    public boolean testConnection() {
+        return true;
+    }
+}
@@ -1,10 +1,13 @@
 package com.mohnish.voiceassistant.embedding;
 
 import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
@@ -12,17 +15,30 @@ import java.net.http.HttpResponse;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
-public class OllamaEmbeddings {
+public class OllamaEmbeddings implements EmbeddingProvider {
+    public static final String DEFAULT_MODEL = "nomic-embed-text";
+    private static final String EMBED_API = "/api/embed";  // Returns L2-normalised vectors, unlike /api/embeddings
+    
     private static final Logger logger = LoggerFactory.getLogger(OllamaEmbeddings.class);
     
     private final String baseUrl;
     private final HttpClient httpClient;
     private final Gson gson;
-    private final String model = "nomic-embed-text";
+    private final String model;
+    private int maxRetries = 3;            // Attempts after the first failure
+    private long retryBackoffMs = 500;     // Initial backoff, doubled per attempt
+    private long maxBackoffMs = 8000;
+    private final AtomicLong retryCount = new AtomicLong();
     
     public OllamaEmbeddings(String baseUrl) {
+        this(baseUrl, DEFAULT_MODEL);
+    }
+    
+    public OllamaEmbeddings(String baseUrl, String model) {
         this.baseUrl = baseUrl;
+        this.model = model;
         this.httpClient = HttpClient.newBuilder()
             .connectTimeout(Duration.ofSeconds(10))
             .build();
@@ -33,23 +49,40 @@ public class OllamaEmbeddings {
     /**
      * Generate embedding for a single text
      */
+    @Override
     public List<Double> generateEmbedding(String text) throws Exception {
-        if (text == null || text.trim().isEmpty()) {
-            throw new IllegalArgumentException("Text cannot be empty");
+        return generateEmbeddingBatch(List.of(text)).get(0);
+    }
+    
+    /**
+     * Generate embeddings for several texts in one /api/embed call.
+     * Single texts use the same endpoint, so batched and unbatched vectors are
+     * identical (Ollama returns them L2-normalised).
+     */
+    @Override
+    public List<List<Double>> generateEmbeddingBatch(List<String> texts) throws Exception {
+        JsonArray input = new JsonArray(texts.size());
+        int totalChars = 0;
+        for (String text : texts) {
+            if (text == null || text.trim().isEmpty()) {
+                throw new IllegalArgumentException("Text cannot be empty");
+            }
+            input.add(text);
+            totalChars += text.length();
         }
         
-        logger.debug("Generating embedding for text ({} chars)", text.length());
+        logger.debug("Generating {} embedding(s) ({} chars)", texts.size(), totalChars);
         
         // Build request body
         JsonObject requestBody = new JsonObject();
         requestBody.addProperty("model", model);
-        requestBody.addProperty("prompt", text);
+        requestBody.add("input", input);
         
         // Create HTTP request
         HttpRequest request = HttpRequest.newBuilder()
-            .uri(URI.create(baseUrl + "/api/embeddings"))
+            .uri(URI.create(baseUrl + EMBED_API))
             .header("Content-Type", "application/json")
-            .timeout(Duration.ofSeconds(30))
+            .timeout(Duration.ofSeconds(30 + 5L * (texts.size() - 1)))
             .POST(HttpRequest.BodyPublishers.ofString(gson.toJson(requestBody)))
             .build();
         
@@ -61,25 +94,83 @@ public class OllamaEmbeddings {
         
         // Check response
         if (response.statusCode() != 200) {
-            throw new Exception("Embedding API error: " + response.statusCode());
+            throw new EmbeddingApiException(response.statusCode());
         }
         
         // Parse response
         JsonObject jsonResponse = gson.fromJson(response.body(), JsonObject.class);
+        JsonArray vectors = jsonResponse.getAsJsonArray("embeddings");
+        if (vectors == null || vectors.size() != texts.size()) {
+            throw new Exception("Embedding API returned " + (vectors == null ? 0 : vectors.size()) + 
+                " embeddings for " + texts.size() + " texts");
+        }
         
-        // Extract embedding array
-        List<Double> embedding = new ArrayList<>();
-        jsonResponse.getAsJsonArray("embedding").forEach(element -> {
-            embedding.add(element.getAsDouble());
-        });
+        // Extract embedding arrays
+        List<List<Double>> embeddings = new ArrayList<>(vectors.size());
+        for (JsonElement vector : vectors) {
+            List<Double> embedding = new ArrayList<>();
+            vector.getAsJsonArray().forEach(element -> embedding.add(element.getAsDouble()));
+            embeddings.add(embedding);
+        }
         
-        logger.debug("Generated embedding with {} dimensions", embedding.size());
-        return embedding;
+        logger.debug("Generated {} embedding(s) with {} dimensions", embeddings.size(), embeddings.get(0).size());
+        return embeddings;
+    }
+    
+    /**
+     * Generate embedding with bounded retries and exponential backoff.
+     * Only transient failures are retried (see {@link #isRetryable}); an interrupt
+     * stops the retries and is passed on with the thread's interrupt flag set.
+     */
+    public List<Double> generateEmbeddingWithRetry(String text) throws Exception {
+        long backoff = retryBackoffMs;
+        
+        for (int attempt = 0; ; attempt++) {
+            try {
+                return generateEmbedding(text);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw e;
+            } catch (Exception e) {
+                if (attempt >= maxRetries || !isRetryable(e)) {
+                    throw e;
+                }
+                logger.warn("Embedding attempt {}/{} failed: {} (retrying in {}ms)", 
+                    attempt + 1, maxRetries + 1, e.getMessage(), backoff);
+                retryCount.incrementAndGet();
+                sleep(backoff);
+                backoff = Math.min(backoff * 2, maxBackoffMs);
+            }
+        }
+    }
+    
+    /**
+     * Network errors (including timeouts), server errors and rate limiting are
+     * worth another attempt; bad input and other client errors are not
+     */
+    static boolean isRetryable(Exception e) {
+        if (e instanceof EmbeddingApiException) {
+            return ((EmbeddingApiException) e).isRetryable();
+        }
+        return e instanceof IOException;
+    }
+    
+    /**
+     * Back off before a retry, keeping the interrupt flag if the wait is interrupted
+     */
+    static void sleep(long millis) throws InterruptedException {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw e;
+        }
     }
     
     /**
      * Generate embeddings for multiple texts (batch processing)
      */
+    @Override
     public List<List<Double>> generateEmbeddings(List<String> texts) throws Exception {
         logger.info("Generating embeddings for {} texts", texts.size());
         
@@ -91,7 +182,7 @@ public class OllamaEmbeddings {
             logger.info("Processing text {}/{}", count, texts.size());
             
             try {
-                List<Double> embedding = generateEmbedding(text);
+                List<Double> embedding = generateEmbeddingWithRetry(text);
                 embeddings.add(embedding);
                 
                 // Small delay to avoid overwhelming Ollama
@@ -113,15 +204,43 @@ public class OllamaEmbeddings {
     /**
      * Get embedding dimension size
      */
+    @Override
     public int getDimensionSize() throws Exception {
         // Generate a test embedding to determine dimension
         List<Double> testEmbedding = generateEmbedding("test");
         return testEmbedding.size();
     }
     
+    /**
+     * Get the digest of the embedding model installed on this server (null if missing)
+     */
+    public String getModelDigest() throws Exception {
+        HttpRequest request = HttpRequest.newBuilder()
+            .uri(URI.create(baseUrl + "/api/tags"))
+            .timeout(Duration.ofSeconds(10))
+            .GET()
+            .build();
+        
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new Exception("Tags API error: " + response.statusCode());
+        }
+        
+        JsonObject jsonResponse = gson.fromJson(response.body(), JsonObject.class);
+        for (JsonElement element : jsonResponse.getAsJsonArray("models")) {
+            JsonObject entry = element.getAsJsonObject();
+            String name = entry.get("name").getAsString();
+            if (name.equals(model) || name.startsWith(model + ":")) {
+                return entry.has("digest") ? entry.get("digest").getAsString() : name;
+            }
+        }
+        return null;
+    }
+    
     /**
      * Test connection to Ollama
      */
+    @Override
     public boolean testConnection() {
         try {
             generateEmbedding("test");
@@ -131,4 +250,26 @@ public class OllamaEmbeddings {
             return false;
         }
     }
+    
+    // Getters and setters
+    public String getBaseUrl() { return baseUrl; }
+    public String getModel() { return model; }
+    
+    @Override
+    public String getModelName() { return model; }
+    
+    @Override
+    public String getEmbeddingSpace() { return model + EMBED_API + "+l2"; }
+    
+    @Override
+    public long getRetryCount() { return retryCount.get(); }
+    
+    @Override
+    public int getConcurrency() { return 2; }  // As an endpoint of OllamaEndpointPool by default
+    
+    public int getMaxRetries() { return maxRetries; }
+    public void setMaxRetries(int maxRetries) { this.maxRetries = maxRetries; }
+    
+    public long getRetryBackoffMs() { return retryBackoffMs; }
+    public void setRetryBackoffMs(long retryBackoffMs) { this.retryBackoffMs = retryBackoffMs; }
 }
\ No newline at end of file
@@ -0,0 +1,399 @@
+package com.mohnish.voiceassistant.embedding;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Spreads embedding requests over several Ollama servers.
+ *
+ * Each request goes to the available endpoint with the fewest requests in flight.
+ * Endpoints that keep failing or answer too slowly are ejected, and a background
+ * health check re-admits them once they respond again.
+ */
+public class OllamaEndpointPool implements EmbeddingProvider, Closeable {
+    private static final Logger logger = LoggerFactory.getLogger(OllamaEndpointPool.class);
+
+    private final List<Endpoint> endpoints;
+    private final String model;
+    private final int concurrencyPerEndpoint;
+    private final ExecutorService executor;
+    private final ScheduledExecutorService healthChecker;
+
+    private int failuresBeforeEjection = 3;  // Consecutive failures before ejecting
+    private long slowRequestMs = 15000;      // Slower answers count as failures
+    private long ejectionMs = 30000;         // Minimum time an endpoint stays out
+    private int maxRetries = 3;              // Attempts after the first failure
+    private long retryBackoffMs = 500;       // Initial backoff, doubled per attempt
+    private final AtomicLong retryCount = new AtomicLong();
+
+    public OllamaEndpointPool(List<String> baseUrls) {
+        this(baseUrls, OllamaEmbeddings.DEFAULT_MODEL, 2);
+    }
+
+    public OllamaEndpointPool(List<String> baseUrls, String model, int concurrencyPerEndpoint) {
+        if (baseUrls == null || baseUrls.isEmpty()) {
+            throw new IllegalArgumentException("At least one Ollama URL is required");
+        }
+
+        this.model = model;
+        this.concurrencyPerEndpoint = Math.max(1, concurrencyPerEndpoint);
+        this.endpoints = new ArrayList<>();
+        for (String baseUrl : baseUrls) {
+            OllamaEmbeddings client = new OllamaEmbeddings(baseUrl.trim(), model);
+            client.setMaxRetries(0); // Retries are handled here, on another endpoint
+            endpoints.add(new Endpoint(client));
+        }
+
+        this.executor = Executors.newFixedThreadPool(
+            endpoints.size() * this.concurrencyPerEndpoint, daemonThreads("embedding-worker"));
+        this.healthChecker = Executors.newSingleThreadScheduledExecutor(daemonThreads("embedding-health"));
+        healthChecker.scheduleWithFixedDelay(this::checkHealth, 10, 10, TimeUnit.SECONDS);
+
+        logger.info("Ollama endpoint pool initialized with {} endpoint(s)", endpoints.size());
+    }
+
+    /**
+     * Generate embedding on the least busy endpoint, failing over on errors
+     */
+    @Override
+    public List<Double> generateEmbedding(String text) throws Exception {
+        return callWithFailover(client -> client.generateEmbedding(text));
+    }
+
+    /**
+     * Send a whole batch to the least busy endpoint in one request, failing over on errors
+     */
+    @Override
+    public List<List<Double>> generateEmbeddingBatch(List<String> texts) throws Exception {
+        return callWithFailover(client -> client.generateEmbeddingBatch(texts));
+    }
+
+    private <T> T callWithFailover(EndpointCall<T> call) throws Exception {
+        Exception lastError = null;
+        long backoff = retryBackoffMs;
+
+        for (int attempt = 0; attempt <= maxRetries; attempt++) {
+            Endpoint endpoint = acquire();
+            long startTime = System.currentTimeMillis();
+
+            try {
+                T result = call.apply(endpoint.client);
+                endpoint.recordSuccess(System.currentTimeMillis() - startTime);
+                return result;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw e;
+            } catch (Exception e) {
+                if (!OllamaEmbeddings.isRetryable(e)) {
+                    throw e;  // The request is at fault, not the endpoint
+                }
+                endpoint.recordFailure();
+                lastError = e;
+                logger.warn("Embedding failed on {} (attempt {}/{}): {}",
+                    endpoint.client.getBaseUrl(), attempt + 1, maxRetries + 1, e.getMessage());
+            } finally {
+                endpoint.outstanding.decrementAndGet();
+            }
+
+            if (attempt < maxRetries) {
+                retryCount.incrementAndGet();
+                OllamaEmbeddings.sleep(backoff);
+                backoff = Math.min(backoff * 2, 8000);
+            }
+        }
+
+        throw lastError;
+    }
+
+    /**
+     * Generate embedding asynchronously on the pool's worker threads
+     */
+    @Override
+    public CompletableFuture<List<Double>> submit(String text) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return generateEmbedding(text);
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+
+    /**
+     * Generate embeddings for multiple texts concurrently across all endpoints
+     */
+    @Override
+    public List<List<Double>> generateEmbeddings(List<String> texts) throws Exception {
+        logger.info("Generating embeddings for {} texts on {} endpoint(s)", texts.size(), endpoints.size());
+
+        List<CompletableFuture<List<Double>>> futures = new ArrayList<>(texts.size());
+        for (String text : texts) {
+            futures.add(submit(text));
+        }
+
+        List<List<Double>> embeddings = awaitAll(futures);
+        logger.info("✅ Generated {} embeddings successfully", embeddings.size());
+        return embeddings;
+    }
+
+    /**
+     * Wait for every future to settle, then return results in order or rethrow the first failure
+     */
+    public static List<List<Double>> awaitAll(List<CompletableFuture<List<Double>>> futures) throws Exception {
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+        } catch (CompletionException e) {
+            // Every future has completed here; the first failure is rethrown below
+        }
+
+        List<List<Double>> results = new ArrayList<>(futures.size());
+        for (CompletableFuture<List<Double>> future : futures) {
+            try {
+                results.add(future.join());
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause();
+                throw cause instanceof Exception ? (Exception) cause : e;
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Check that every reachable endpoint serves the same model with the same dimension
+     *
+     * @return the shared embedding dimension
+     */
+    @Override
+    public int verifyConsistency() throws Exception {
+        Endpoint reference = null;
+        String referenceDigest = null;
+        int referenceDimension = -1;
+
+        for (Endpoint endpoint : endpoints) {
+            String digest;
+            int dimension;
+            try {
+                digest = endpoint.client.getModelDigest();
+                dimension = endpoint.client.getDimensionSize();
+            } catch (Exception e) {
+                logger.warn("Endpoint {} unreachable during verification: {}",
+                    endpoint.client.getBaseUrl(), e.getMessage());
+                endpoint.eject();
+                continue;
+            }
+
+            if (digest == null) {
+                throw new IllegalStateException("Model " + endpoint.client.getModel() +
+                    " is not installed on " + endpoint.client.getBaseUrl());
+            }
+
+            if (reference == null) {
+                reference = endpoint;
+                referenceDigest = digest;
+                referenceDimension = dimension;
+            } else if (!digest.equals(referenceDigest) || dimension != referenceDimension) {
+                throw new IllegalStateException(String.format(
+                    "Endpoint %s serves %s (%d dims) but %s serves %s (%d dims)",
+                    endpoint.client.getBaseUrl(), digest, dimension,
+                    reference.client.getBaseUrl(), referenceDigest, referenceDimension));
+            }
+        }
+
+        if (reference == null) {
+            throw new IOException("No Ollama endpoint is reachable");
+        }
+
+        logger.info("✅ All endpoints serve {} ({} dims)", reference.client.getModel(), referenceDimension);
+        return referenceDimension;
+    }
+
+    /**
+     * Get embedding dimension size
+     */
+    @Override
+    public int getDimensionSize() throws Exception {
+        return generateEmbedding("test").size();
+    }
+
+    /**
+     * Test that at least one endpoint can generate embeddings
+     */
+    @Override
+    public boolean testConnection() {
+        try {
+            generateEmbedding("test");
+            return true;
+        } catch (Exception e) {
+            logger.error("Connection test failed", e);
+            return false;
+        }
+    }
+
+    /**
+     * Pick the available endpoint with the fewest requests in flight
+     */
+    private synchronized Endpoint acquire() {
+        Endpoint best = null;
+        for (Endpoint endpoint : endpoints) {
+            if (!endpoint.ejected && (best == null || endpoint.outstanding.get() < best.outstanding.get())) {
+                best = endpoint;
+            }
+        }
+
+        // Every endpoint is ejected: fail open instead of stalling the whole run
+        if (best == null) {
+            for (Endpoint endpoint : endpoints) {
+                if (best == null || endpoint.outstanding.get() < best.outstanding.get()) {
+                    best = endpoint;
+                }
+            }
+        }
+
+        best.outstanding.incrementAndGet();
+        return best;
+    }
+
+    /**
+     * Probe ejected endpoints and re-admit the ones that respond again (every 10 seconds)
+     */
+    void checkHealth() {
+        long now = System.currentTimeMillis();
+        for (Endpoint endpoint : endpoints) {
+            if (!endpoint.ejected || now - endpoint.ejectedAt < ejectionMs) {
+                continue;
+            }
+
+            try {
+                long startTime = System.currentTimeMillis();
+                endpoint.client.generateEmbedding("test");
+                if (System.currentTimeMillis() - startTime <= slowRequestMs) {
+                    endpoint.readmit();
+                }
+            } catch (Exception e) {
+                endpoint.ejectedAt = now;
+                logger.debug("Endpoint {} still unhealthy: {}", endpoint.client.getBaseUrl(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Number of endpoints currently receiving traffic
+     */
+    public int getAvailableEndpointCount() {
+        int count = 0;
+        for (Endpoint endpoint : endpoints) {
+            if (!endpoint.ejected) count++;
+        }
+        return count;
+    }
+
+    public int getEndpointCount() { return endpoints.size(); }
+
+    /**
+     * Requests per endpoint times endpoints, so callers scale with the nodes added
+     */
+    @Override
+    public int getConcurrency() { return endpoints.size() * concurrencyPerEndpoint; }
+
+    @Override
+    public String getModelName() { return model; }
+
+    @Override
+    public String getEmbeddingSpace() { return endpoints.get(0).client.getEmbeddingSpace(); }
+
+    @Override
+    public long getRetryCount() { return retryCount.get(); }
+
+    @Override
+    public void close() {
+        healthChecker.shutdownNow();
+        executor.shutdownNow();
+    }
+
+    private static ThreadFactory daemonThreads(String name) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    // Getters and setters
+    public int getFailuresBeforeEjection() { return failuresBeforeEjection; }
+    public void setFailuresBeforeEjection(int failuresBeforeEjection) {
+        this.failuresBeforeEjection = failuresBeforeEjection;
+    }
+
+    public long getSlowRequestMs() { return slowRequestMs; }
+    public void setSlowRequestMs(long slowRequestMs) { this.slowRequestMs = slowRequestMs; }
+
+    public long getEjectionMs() { return ejectionMs; }
+    public void setEjectionMs(long ejectionMs) { this.ejectionMs = ejectionMs; }
+
+    public int getMaxRetries() { return maxRetries; }
+    public void setMaxRetries(int maxRetries) { this.maxRetries = maxRetries; }
+
+    public long getRetryBackoffMs() { return retryBackoffMs; }
+    public void setRetryBackoffMs(long retryBackoffMs) { this.retryBackoffMs = retryBackoffMs; }
+
+    private interface EndpointCall<T> {
+        T apply(OllamaEmbeddings client) throws Exception;
+    }
+
+    /**
+     * One Ollama server and its live statistics
+     */
+    private class Endpoint {
+        private final OllamaEmbeddings client;
+        private final AtomicInteger outstanding = new AtomicInteger();
+        private final AtomicInteger consecutiveFailures = new AtomicInteger();
+        private volatile boolean ejected;
+        private volatile long ejectedAt;
+
+        private Endpoint(OllamaEmbeddings client) {
+            this.client = client;
+        }
+
+        private void recordSuccess(long durationMs) {
+            if (durationMs > slowRequestMs) {
+                logger.warn("Slow embedding response from {} ({}ms)", client.getBaseUrl(), durationMs);
+                recordFailure();
+            } else {
+                consecutiveFailures.set(0);
+            }
+        }
+
+        private void recordFailure() {
+            if (consecutiveFailures.incrementAndGet() >= failuresBeforeEjection && !ejected) {
+                eject();
+            }
+        }
+
+        private void eject() {
+            ejectedAt = System.currentTimeMillis();
+            ejected = true;
+            logger.warn("❌ Ejected endpoint {} for at least {}ms", client.getBaseUrl(), ejectionMs);
+        }
+
+        private void readmit() {
+            consecutiveFailures.set(0);
+            ejected = false;
+            logger.info("✅ Endpoint {} is healthy again", client.getBaseUrl());
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package com.mohnish.voiceassistant.embedding;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Collects concurrent query-embedding requests into micro-batches.
+ *
+ * The first request of a batch waits at most {@code maxWaitMs} for others to
+ * arrive (or until {@code maxBatchSize} is reached), then the whole batch is
+ * sent as one provider call and every caller's future is completed with its
+ * own vector.
+ *
+ * Every submitted future is completed: queries still queued or collected when
+ * the batcher is closed fail with an {@link IllegalStateException}.
+ */
+public class QueryEmbeddingBatcher implements Closeable {
+    private static final Logger logger = LoggerFactory.getLogger(QueryEmbeddingBatcher.class);
+
+    private final EmbeddingProvider provider;
+    private final int maxBatchSize;
+    private final long maxWaitNanos;
+    private final BlockingQueue<PendingQuery> queue;
+    private final ExecutorService sender;
+    private final Thread collector;
+    private final Object lock = new Object();  // Orders submit() against close()
+    private volatile boolean running = true;
+
+    public QueryEmbeddingBatcher(EmbeddingProvider provider) {
+        this(provider, 16, 5, 4);
+    }
+
+    public QueryEmbeddingBatcher(EmbeddingProvider provider, int maxBatchSize, long maxWaitMs, int maxBatchesInFlight) {
+        this.provider = provider;
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+        this.queue = new LinkedBlockingQueue<>();
+
+        AtomicInteger counter = new AtomicInteger();
+        this.sender = Executors.newFixedThreadPool(Math.max(1, maxBatchesInFlight), runnable -> {
+            Thread thread = new Thread(runnable, "query-embedding-sender-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.collector = new Thread(this::collectLoop, "query-embedding-batcher");
+        collector.setDaemon(true);
+        collector.start();
+
+        logger.info("Query embedding batcher started (batch ≤ {}, wait ≤ {}ms)", this.maxBatchSize, maxWaitMs);
+    }
+
+    /**
+     * Queue a query for the next batch
+     */
+    public CompletableFuture<List<Double>> submit(String query) {
+        CompletableFuture<List<Double>> future = new CompletableFuture<>();
+
+        if (query == null || query.trim().isEmpty()) {
+            future.completeExceptionally(new IllegalArgumentException("Text cannot be empty"));
+        } else {
+            synchronized (lock) {
+                if (running) {
+                    queue.add(new PendingQuery(query, future));
+                } else {
+                    future.completeExceptionally(closed());
+                }
+            }
+        }
+        return future;
+    }
+
+    private void collectLoop() {
+        List<PendingQuery> batch = new ArrayList<>(maxBatchSize);
+        while (running) {
+            try {
+                PendingQuery first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+
+                batch.add(first);
+                long deadline = System.nanoTime() + maxWaitNanos;
+
+                while (batch.size() < maxBatchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        queue.drainTo(batch, maxBatchSize - batch.size());
+                        break;
+                    }
+                    PendingQuery next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+
+                List<PendingQuery> ready = batch;
+                batch = new ArrayList<>(maxBatchSize);
+                try {
+                    sender.execute(() -> send(ready));
+                } catch (RejectedExecutionException e) {
+                    fail(ready);  // Closed by an interrupted caller that could not wait for us
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        fail(batch);
+    }
+
+    private void send(List<PendingQuery> batch) {
+        List<String> texts = new ArrayList<>(batch.size());
+        for (PendingQuery pending : batch) {
+            texts.add(pending.text);
+        }
+
+        try {
+            List<List<Double>> embeddings = provider.generateEmbeddingBatch(texts);
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).future.complete(embeddings.get(i));
+            }
+            logger.debug("Embedded query batch of {}", batch.size());
+        } catch (Exception e) {
+            for (PendingQuery pending : batch) {
+                pending.future.completeExceptionally(e);
+            }
+        }
+    }
+
+    /**
+     * Stop accepting queries and fail the ones not yet handed to a sender;
+     * batches already being sent still complete
+     */
+    @Override
+    public void close() {
+        synchronized (lock) {
+            if (!running) {
+                return;
+            }
+            running = false;
+        }
+
+        // No submit() can enqueue from here on; wait for the collector to hand off or fail its batch
+        collector.interrupt();
+        try {
+            collector.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        sender.shutdown();
+
+        List<PendingQuery> leftover = new ArrayList<>();
+        queue.drainTo(leftover);
+        fail(leftover);
+    }
+
+    private static void fail(List<PendingQuery> queries) {
+        for (PendingQuery pending : queries) {
+            pending.future.completeExceptionally(closed());
+        }
+    }
+
+    private static IllegalStateException closed() {
+        return new IllegalStateException("Query embedding batcher is closed");
+    }
+
+    private static class PendingQuery {
+        private final String text;
+        private final CompletableFuture<List<Double>> future;
+
+        private PendingQuery(String text, CompletableFuture<List<Double>> future) {
+            this.text = text;
+            this.future = future;
+        }
+    }
+}
@@ -0,0 +1,291 @@
+package com.mohnish.voiceassistant.indexing;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import com.google.gson.reflect.TypeToken;
+import com.mohnish.voiceassistant.document.ParsedTextCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Remembers what has already been indexed so unchanged books can be skipped.
+ *
+ * One entry per book: path, size, modification time, SHA-256 of the content,
+ * the chunker configuration used and the IDs of the chunks stored in ChromaDB.
+ * Size and mtime are a cheap first check; the hash decides when they differ,
+ * so a book that was only touched or copied is not re-embedded.
+ *
+ * The manifest is either one JSON file for a single process, or a shared
+ * directory with one file per book for distributed workers.
+ */
+public class IndexManifest {
+    private static final Logger logger = LoggerFactory.getLogger(IndexManifest.class);
+
+    private final File file;            // Single JSON file, or null in shared mode
+    private final File directory;       // One JSON file per book, or null in single-file mode
+    private final Gson gson;
+    private final Map<String, BookEntry> books;
+
+    private IndexManifest(File file, File directory, Map<String, BookEntry> books) {
+        this.file = file;
+        this.directory = directory;
+        this.gson = new GsonBuilder().setPrettyPrinting().create();
+        this.books = books;
+    }
+
+    /**
+     * Load the manifest, or start an empty one if the file does not exist or is unreadable
+     */
+    public static IndexManifest load(File file) throws IOException {
+        Map<String, BookEntry> books = new TreeMap<>();
+
+        if (file.exists()) {
+            try (Reader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+                Map<String, BookEntry> loaded = new Gson().fromJson(reader,
+                    new TypeToken<Map<String, BookEntry>>() {}.getType());
+                if (loaded != null) {
+                    books.putAll(loaded);
+                }
+            } catch (JsonParseException e) {
+                logger.warn("Index manifest {} is unreadable, every book will be re-indexed", file.getName());
+            }
+        }
+
+        logger.info("Loaded index manifest {} ({} books)", file.getName(), books.size());
+        return new IndexManifest(file, null, books);
+    }
+
+    /**
+     * Open a manifest shared by several processes: every book is its own file in
+     * the directory and is read and written on demand, so workers indexing
+     * different books never overwrite each other's entries
+     */
+    public static IndexManifest openShared(File directory) throws IOException {
+        if (!directory.exists() && !directory.mkdirs()) {
+            throw new IOException("Cannot create manifest directory: " + directory.getAbsolutePath());
+        }
+        logger.info("Using shared index manifest {}", directory.getAbsolutePath());
+        return new IndexManifest(null, directory, null);
+    }
+
+    /**
+     * Check whether a book is indexed with its current content and the given chunker settings
+     */
+    public synchronized boolean isUnchanged(File bookFile, String chunkerConfig) throws IOException {
+        BookEntry entry = read(key(bookFile));
+        if (entry == null || !entry.chunkerConfig.equals(chunkerConfig) || entry.size != bookFile.length()) {
+            return false;
+        }
+        if (entry.lastModified == bookFile.lastModified()) {
+            return true;
+        }
+
+        // Touched but maybe not modified: let the content decide
+        if (entry.sha256.equals(sha256(bookFile))) {
+            entry.lastModified = bookFile.lastModified();
+            write(key(bookFile), entry);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Whether a book is in the manifest, whatever its content now
+     */
+    public synchronized boolean contains(File bookFile) throws IOException {
+        return read(key(bookFile)) != null;
+    }
+
+    /**
+     * Chunk IDs stored for a book (empty if the book is not in the manifest)
+     */
+    public synchronized List<String> getChunkIds(File bookFile) throws IOException {
+        BookEntry entry = read(key(bookFile));
+        return entry != null ? new ArrayList<>(entry.chunkIds) : new ArrayList<>();
+    }
+
+    /**
+     * Chunk IDs the manifest has for a book that are not among its current ones, e.g.
+     * because the book shrank or the chunker changed; they must be deleted from the index
+     */
+    public synchronized List<String> staleChunkIds(File bookFile, Collection<String> currentIds) throws IOException {
+        List<String> stale = getChunkIds(bookFile);
+        stale.removeAll(new HashSet<>(currentIds));
+        return stale;
+    }
+
+    /**
+     * Record a successfully indexed book
+     */
+    public synchronized void record(File bookFile, String sha256, String chunkerConfig, 
+                                    List<String> chunkIds) throws IOException {
+        BookEntry entry = new BookEntry();
+        entry.path = key(bookFile);
+        entry.size = bookFile.length();
+        entry.lastModified = bookFile.lastModified();
+        entry.sha256 = sha256;
+        entry.chunkerConfig = chunkerConfig;
+        entry.chunkIds = new ArrayList<>(chunkIds);
+        write(entry.path, entry);
+    }
+
+    /**
+     * Forget a book and return the chunk IDs it had stored
+     */
+    public synchronized List<String> remove(File bookFile) throws IOException {
+        String key = key(bookFile);
+        BookEntry entry = read(key);
+        if (directory != null) {
+            Files.deleteIfExists(entryFile(key).toPath());
+        } else {
+            books.remove(key);
+        }
+        return entry != null ? entry.chunkIds : new ArrayList<>();
+    }
+
+    /**
+     * Books in the manifest that lie inside the given directory
+     */
+    public synchronized List<File> booksIn(File bookDirectory) throws IOException {
+        String prefix = key(bookDirectory) + File.separator;
+        List<File> result = new ArrayList<>();
+        for (String path : paths()) {
+            if (path.startsWith(prefix)) {
+                result.add(new File(path));
+            }
+        }
+        return result;
+    }
+
+    public synchronized int size() throws IOException {
+        return paths().size();
+    }
+
+    /**
+     * Write the manifest atomically (temp file + rename); entries of a shared
+     * manifest are already written as they change
+     */
+    public synchronized void save() throws IOException {
+        if (directory != null) {
+            return;
+        }
+
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.exists() && !parent.mkdirs()) {
+            throw new IOException("Cannot create manifest directory: " + parent.getAbsolutePath());
+        }
+
+        File temp = new File(file.getAbsolutePath() + ".tmp");
+        try (Writer writer = Files.newBufferedWriter(temp.toPath(), StandardCharsets.UTF_8)) {
+            gson.toJson(books, writer);
+        }
+        Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private BookEntry read(String key) throws IOException {
+        if (directory == null) {
+            return books.get(key);
+        }
+
+        File entryFile = entryFile(key);
+        if (!entryFile.exists()) {
+            return null;
+        }
+        try (Reader reader = Files.newBufferedReader(entryFile.toPath(), StandardCharsets.UTF_8)) {
+            return gson.fromJson(reader, BookEntry.class);
+        } catch (JsonParseException e) {
+            logger.warn("Manifest entry {} is unreadable, the book will be re-indexed", entryFile.getName());
+            return null;
+        }
+    }
+
+    private void write(String key, BookEntry entry) throws IOException {
+        if (directory == null) {
+            books.put(key, entry);
+            return;
+        }
+
+        // Unique temp name: other processes may be writing entries at the same time
+        File temp = new File(directory, "." + UUID.randomUUID() + ".tmp");
+        try (Writer writer = Files.newBufferedWriter(temp.toPath(), StandardCharsets.UTF_8)) {
+            gson.toJson(entry, writer);
+        }
+        Files.move(temp.toPath(), entryFile(key).toPath(), 
+            StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private List<String> paths() throws IOException {
+        if (directory == null) {
+            return new ArrayList<>(books.keySet());
+        }
+
+        List<String> paths = new ArrayList<>();
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(".json") && !name.startsWith("."));
+        if (files != null) {
+            for (File entryFile : files) {
+                try (Reader reader = Files.newBufferedReader(entryFile.toPath(), StandardCharsets.UTF_8)) {
+                    BookEntry entry = gson.fromJson(reader, BookEntry.class);
+                    if (entry != null && entry.path != null) {
+                        paths.add(entry.path);
+                    }
+                } catch (JsonParseException | IOException e) {
+                    logger.warn("Skipping unreadable manifest entry {}", entryFile.getName());
+                }
+            }
+        }
+        return paths;
+    }
+
+    private File entryFile(String key) {
+        return new File(directory, sha256(key.getBytes(StandardCharsets.UTF_8)).substring(0, 32) + ".json");
+    }
+
+    /**
+     * SHA-256 of a file's content as lowercase hex, the same key the parsed text cache uses
+     */
+    public static String sha256(File file) throws IOException {
+        return ParsedTextCache.contentHash(file);
+    }
+
+    /**
+     * Key identifying a book's chunks, checkpoint and duplicate entries: the file name
+     * plus a short hash of its absolute path, so same-named files in different
+     * folders stay apart while IDs remain readable
+     */
+    public static String sourceKey(File bookFile) {
+        return bookFile.getName() + "#" + sha256(key(bookFile).getBytes(StandardCharsets.UTF_8)).substring(0, 12);
+    }
+
+    private static String sha256(byte[] data) {
+        return ParsedTextCache.contentHash(data);
+    }
+
+    private static String key(File file) {
+        return file.getAbsoluteFile().toPath().normalize().toString();
+    }
+
+    private static class BookEntry {
+        private String path;
+        private long size;
+        private long lastModified;
+        private String sha256;
+        private String chunkerConfig;
+        private List<String> chunkIds = new ArrayList<>();
+    }
+}
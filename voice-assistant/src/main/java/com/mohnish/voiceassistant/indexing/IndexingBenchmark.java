@@ -0,0 +1,217 @@
+package com.mohnish.voiceassistant.indexing;
+
+import com.mohnish.voiceassistant.document.DocumentChunk;
+import com.mohnish.voiceassistant.document.DocumentParser;
+import com.mohnish.voiceassistant.document.TextChunker;
+import com.mohnish.voiceassistant.embedding.EmbeddingGenerator;
+import com.mohnish.voiceassistant.embedding.HashingEmbeddingProvider;
+import com.mohnish.voiceassistant.vectordb.ChromaDBClient;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Measures the chunk → embed → index → query path without a live model.
+ *
+ * Usage: IndexingBenchmark [book.pdf|book.txt] [dimension] [chromaUrl]
+ * Without a book a synthetic text is generated; without a Chroma URL the
+ * index is an in-memory brute-force cosine search.
+ */
+public class IndexingBenchmark {
+    public static void main(String[] args) {
+        System.out.println("⏱️  Indexing Benchmark (in-process embeddings)\n");
+
+        int dimension = args.length > 1 ? Integer.parseInt(args[1]) : 768;
+        String chromaUrl = args.length > 2 ? args[2] : null;
+
+        try {
+            // Step 1: Source text
+            String text;
+            String source;
+            if (args.length > 0) {
+                File bookFile = new File(args[0]);
+                text = new DocumentParser().extractText(bookFile);
+                source = bookFile.getName();
+            } else {
+                text = syntheticText(200_000);
+                source = "synthetic.txt";
+            }
+            System.out.println("Source: " + source + " (" + String.format("%,d", text.length()) + " chars)\n");
+
+            // Step 2: Chunking
+            TextChunker chunker = new TextChunker();
+            long startTime = System.nanoTime();
+            List<DocumentChunk> chunks = chunker.chunkText(text, source);
+            long chunkNanos = System.nanoTime() - startTime;
+            report("Chunking", chunks.size(), "chunks", chunkNanos);
+
+            // Step 3: Embedding
+            EmbeddingGenerator generator = new EmbeddingGenerator(new HashingEmbeddingProvider(dimension, 3));
+            startTime = System.nanoTime();
+            List<List<Double>> embeddings = generator.generateForChunks(chunks);
+            long embedNanos = System.nanoTime() - startTime;
+            report("Embedding", embeddings.size(), "embeddings", embedNanos);
+
+            // Step 4 + 5: Index and query
+            if (chromaUrl != null) {
+                benchmarkChroma(chromaUrl, chunks, embeddings, generator);
+            } else {
+                benchmarkInMemory(chunks, embeddings, generator);
+            }
+
+            System.out.println("\n" + "═".repeat(50));
+            System.out.println("🎉 Benchmark complete!");
+            System.out.println("═".repeat(50));
+
+        } catch (Exception e) {
+            System.err.println("❌ Benchmark failed: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    private static void benchmarkInMemory(List<DocumentChunk> chunks, List<List<Double>> embeddings,
+                                          EmbeddingGenerator generator) throws Exception {
+        int queries = Math.min(200, chunks.size());
+        int hits = 0;
+
+        long startTime = System.nanoTime();
+        for (int q = 0; q < queries; q++) {
+            int target = (int) ((long) q * chunks.size() / queries);
+            List<Double> query = generator.generateForQuery(queryText(chunks.get(target)));
+            if (nearest(query, embeddings) == target) hits++;
+        }
+        long queryNanos = System.nanoTime() - startTime;
+
+        report("Query (brute force)", queries, "queries", queryNanos);
+        System.out.println("  Top-1 self-retrieval: " + hits + "/" + queries);
+
+        // The same queries arriving at once, as from several users, go through the micro-batcher
+        generator.enableQueryBatching(16, 5);
+        try {
+            List<CompletableFuture<List<Double>>> pending = new ArrayList<>(queries);
+            startTime = System.nanoTime();
+            for (int q = 0; q < queries; q++) {
+                int target = (int) ((long) q * chunks.size() / queries);
+                pending.add(generator.generateForQueryAsync(queryText(chunks.get(target))));
+            }
+            int batchedHits = 0;
+            for (int q = 0; q < queries; q++) {
+                int target = (int) ((long) q * chunks.size() / queries);
+                if (nearest(pending.get(q).get(), embeddings) == target) batchedHits++;
+            }
+            report("Query (batched)", queries, "queries", System.nanoTime() - startTime);
+            System.out.println("  Top-1 self-retrieval: " + batchedHits + "/" + queries);
+        } finally {
+            generator.disableQueryBatching();
+        }
+    }
+
+    private static int nearest(List<Double> query, List<List<Double>> embeddings) {
+        int best = -1;
+        double bestScore = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < embeddings.size(); i++) {
+            double score = dot(query, embeddings.get(i));
+            if (score > bestScore) {
+                bestScore = score;
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    private static void benchmarkChroma(String chromaUrl, List<DocumentChunk> chunks,
+                                        List<List<Double>> embeddings, EmbeddingGenerator generator) throws Exception {
+        ChromaDBClient client = new ChromaDBClient(chromaUrl);
+        String collection = "benchmark_" + System.currentTimeMillis();
+        client.createCollection(collection);
+
+        try {
+            long startTime = System.nanoTime();
+            for (int from = 0; from < chunks.size(); from += 100) {
+                int to = Math.min(from + 100, chunks.size());
+                List<String> ids = new ArrayList<>();
+                List<String> documents = new ArrayList<>();
+                List<Map<String, String>> metadatas = new ArrayList<>();
+                for (DocumentChunk chunk : chunks.subList(from, to)) {
+                    ids.add(chunk.getId());
+                    documents.add(chunk.getText());
+                    Map<String, String> metadata = new HashMap<>();
+                    metadata.put("source", chunk.getSourceFile());
+                    metadatas.add(metadata);
+                }
+                client.addDocuments(collection, ids, embeddings.subList(from, to), documents, metadatas);
+            }
+            report("Store (Chroma)", chunks.size(), "chunks", System.nanoTime() - startTime);
+
+            int queries = Math.min(50, chunks.size());
+            startTime = System.nanoTime();
+            for (int q = 0; q < queries; q++) {
+                int target = (int) ((long) q * chunks.size() / queries);
+                client.query(collection, generator.generateForQuery(queryText(chunks.get(target))), 5);
+            }
+            report("Query (Chroma)", queries, "queries", System.nanoTime() - startTime);
+        } finally {
+            client.deleteCollection(collection);
+        }
+    }
+
+    /**
+     * Take the query from the middle of a chunk, away from the overlap with its neighbours
+     */
+    private static String queryText(DocumentChunk chunk) {
+        String text = chunk.getText();
+        int middle = text.length() / 2;
+        return text.substring(middle, Math.min(text.length(), middle + 200));
+    }
+
+    private static double dot(List<Double> a, List<Double> b) {
+        double sum = 0;
+        for (int i = 0; i < a.size(); i++) {
+            sum += a.get(i) * b.get(i);
+        }
+        return sum;
+    }
+
+    private static void report(String stage, int count, String unit, long nanos) {
+        double seconds = nanos / 1_000_000_000.0;
+        System.out.println(String.format("%-22s %,8d %-10s in %8.1f ms  (%,.0f %s/s)",
+            stage + ":", count, unit, nanos / 1_000_000.0, count / Math.max(seconds, 1e-9), unit));
+    }
+
+    /**
+     * Deterministic pseudo-English text so runs are comparable between machines
+     */
+    private static String syntheticText(int words) {
+        String[] vocabulary = {
+            "the", "model", "learns", "a", "representation", "of", "data", "with", "neural",
+            "networks", "and", "gradient", "descent", "which", "improves", "accuracy", "over",
+            "time", "while", "training", "on", "large", "datasets", "that", "contain", "many",
+            "examples", "from", "different", "domains", "such", "as", "vision", "language"
+        };
+        Random random = new Random(42);
+        StringBuilder builder = new StringBuilder(words * 7);
+        int sentenceLength = 0;
+
+        for (int i = 0; i < words; i++) {
+            String word = vocabulary[random.nextInt(vocabulary.length)];
+            if (sentenceLength == 0) {
+                word = Character.toUpperCase(word.charAt(0)) + word.substring(1);
+            }
+            builder.append(word);
+            sentenceLength++;
+
+            if (sentenceLength > 8 && random.nextInt(6) == 0) {
+                builder.append(". ");
+                sentenceLength = 0;
+            } else {
+                builder.append(' ');
+            }
+        }
+        return builder.toString().trim() + ".";
+    }
+}
@@ -0,0 +1,96 @@
+package com.mohnish.voiceassistant.indexing;
+
+import com.mohnish.voiceassistant.document.CorpusCrawler;
+import com.mohnish.voiceassistant.utils.ConfigLoader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fills a shared {@link WorkQueue} with books and watches it until every book
+ * has been indexed by the {@link IndexingWorker}s, reclaiming leases of workers
+ * that died. Book paths must resolve to the same files on every worker host
+ * (e.g. a shared mount).
+ *
+ * Usage: IndexingCoordinator &lt;queueDirectory&gt; &lt;booksDirectory&gt;
+ */
+public class IndexingCoordinator {
+    private static final Logger logger = LoggerFactory.getLogger(IndexingCoordinator.class);
+
+    private final WorkQueue queue;
+    private long pollIntervalMs = 10000;
+
+    public IndexingCoordinator(WorkQueue queue) {
+        this.queue = queue;
+    }
+
+    /**
+     * Queue every document in a directory tree (books already pending or leased are left alone)
+     *
+     * @return number of books queued
+     */
+    public int enqueueDirectory(File booksDirectory) throws IOException {
+        List<File> files = new CorpusCrawler().findDocuments(booksDirectory);
+
+        List<File> queued = new ArrayList<>();
+        for (File file : files) {
+            if (queue.enqueue(file)) {
+                queued.add(file);
+            }
+        }
+
+        logger.info("Queued {} of {} books", queued.size(), files.size());
+        return queued.size();
+    }
+
+    /**
+     * Block until nothing is pending or leased, reclaiming expired leases meanwhile
+     */
+    public void awaitCompletion() throws IOException, InterruptedException {
+        while (true) {
+            queue.reclaimExpired();
+
+            int pending = queue.pendingCount();
+            int leased = queue.leasedCount();
+            logger.info("📊 Queue: {} pending, {} in progress, {} done, {} failed",
+                pending, leased, queue.doneCount(), queue.failedCount());
+
+            if (pending == 0 && leased == 0) {
+                return;
+            }
+            Thread.sleep(pollIntervalMs);
+        }
+    }
+
+    public long getPollIntervalMs() { return pollIntervalMs; }
+    public void setPollIntervalMs(long pollIntervalMs) { this.pollIntervalMs = pollIntervalMs; }
+
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.err.println("Usage: IndexingCoordinator <queueDirectory> <booksDirectory>");
+            System.exit(1);
+        }
+
+        try {
+            WorkQueue queue = new WorkQueue(new File(args[0]));
+            queue.setLeaseMs(ConfigLoader.getInt("indexing.lease.seconds", 300) * 1000L);
+
+            IndexingCoordinator coordinator = new IndexingCoordinator(queue);
+            int queued = coordinator.enqueueDirectory(new File(args[1]));
+            System.out.println("📚 Queued " + queued + " books in " + args[0]);
+            System.out.println("Start workers with: IndexingWorker " + args[0]);
+
+            coordinator.awaitCompletion();
+            System.out.println("✅ All books processed (" + queue.doneCount() + " done, "
+                + queue.failedCount() + " failed)");
+        } catch (Exception e) {
+            System.err.println("❌ Coordinator failed: " + e.getMessage());
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package com.mohnish.voiceassistant.indexing;
+
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonObject;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-stage timing and throughput for indexing one book.
+ *
+ * Each stage records wall time, CPU time and bytes allocated on the thread
+ * that ran it. Embed and store run concurrently on several threads, so their
+ * wall time is summed busy time and can exceed the book's elapsed time.
+ */
+public class IndexingMetrics {
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+    private static final boolean CPU_TIME = THREADS.isCurrentThreadCpuTimeSupported();
+
+    public enum Stage { PARSE, CLEAN, CHUNK, EMBED, STORE }
+
+    private final Map<Stage, StageStats> stages = new EnumMap<>(Stage.class);
+    private final long startedAt = System.currentTimeMillis();
+    private final long startNanos = System.nanoTime();
+    private volatile long elapsedNanos;
+
+    private final AtomicLong pages = new AtomicLong();
+    private final AtomicLong bytesUploaded = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong backpressureWaitNanos = new AtomicLong(); // Producer blocked on full pipeline
+    private final AtomicLong embedQueueWaitNanos = new AtomicLong();   // Batch waiting for an embed thread
+    private final AtomicLong storeQueueWaitNanos = new AtomicLong();   // Embedded batch waiting for a store thread
+
+    public IndexingMetrics() {
+        for (Stage stage : Stage.values()) {
+            stages.put(stage, new StageStats());
+        }
+    }
+
+    /**
+     * Start timing a stage on the current thread; call {@link Timer#stop} on the same thread
+     */
+    public Timer start(Stage stage) {
+        return new Timer(stages.get(stage));
+    }
+
+    /**
+     * Mark the book as finished (fixes the elapsed time used for throughput)
+     */
+    public void finish() {
+        elapsedNanos = System.nanoTime() - startNanos;
+    }
+
+    public long getElapsedMs() {
+        long nanos = elapsedNanos > 0 ? elapsedNanos : System.nanoTime() - startNanos;
+        return nanos / 1_000_000;
+    }
+
+    public void addPages(long count) { pages.addAndGet(count); }
+    public void addBytesUploaded(long bytes) { bytesUploaded.addAndGet(bytes); }
+    public void addRetries(long count) { retries.addAndGet(count); }
+    public void addBackpressureWait(long nanos) { backpressureWaitNanos.addAndGet(nanos); }
+    public void addEmbedQueueWait(long nanos) { embedQueueWaitNanos.addAndGet(nanos); }
+    public void addStoreQueueWait(long nanos) { storeQueueWaitNanos.addAndGet(nanos); }
+
+    public long getPages() { return pages.get(); }
+    public long getBytesUploaded() { return bytesUploaded.get(); }
+    public long getRetries() { return retries.get(); }
+
+    public long getWallMs(Stage stage) { return stages.get(stage).wallNanos.get() / 1_000_000; }
+    public long getCpuMs(Stage stage) { return stages.get(stage).cpuNanos.get() / 1_000_000; }
+    public long getAllocatedBytes(Stage stage) { return stages.get(stage).allocatedBytes.get(); }
+    public long getItems(Stage stage) { return stages.get(stage).items.get(); }
+
+    /**
+     * Items per second of elapsed book time
+     */
+    public double getThroughput(Stage stage) {
+        return perSecond(getItems(stage));
+    }
+
+    private double perSecond(long count) {
+        return count * 1000.0 / Math.max(1, getElapsedMs());
+    }
+
+    /**
+     * Metrics as a JSON object
+     */
+    public JsonObject toJson() {
+        JsonObject json = new JsonObject();
+        json.addProperty("startedAt", startedAt);
+        json.addProperty("elapsedMs", getElapsedMs());
+
+        JsonObject stageJson = new JsonObject();
+        for (Stage stage : Stage.values()) {
+            JsonObject entry = new JsonObject();
+            entry.addProperty("wallMs", getWallMs(stage));
+            entry.addProperty("cpuMs", getCpuMs(stage));
+            entry.addProperty("allocatedBytes", getAllocatedBytes(stage));
+            entry.addProperty("calls", stages.get(stage).calls.get());
+            entry.addProperty("items", getItems(stage));
+            stageJson.add(stage.name().toLowerCase(), entry);
+        }
+        json.add("stages", stageJson);
+
+        JsonObject throughput = new JsonObject();
+        throughput.addProperty("pagesPerSecond", perSecond(getPages()));
+        throughput.addProperty("chunksPerSecond", getThroughput(Stage.STORE));
+        throughput.addProperty("embeddingsPerSecond", getThroughput(Stage.EMBED));
+        json.add("throughput", throughput);
+
+        json.addProperty("pages", getPages());
+        json.addProperty("bytesUploaded", getBytesUploaded());
+        json.addProperty("retries", getRetries());
+
+        JsonObject queueWait = new JsonObject();
+        queueWait.addProperty("backpressureMs", backpressureWaitNanos.get() / 1_000_000);
+        queueWait.addProperty("embedQueueMs", embedQueueWaitNanos.get() / 1_000_000);
+        queueWait.addProperty("storeQueueMs", storeQueueWaitNanos.get() / 1_000_000);
+        json.add("queueWait", queueWait);
+
+        return json;
+    }
+
+    /**
+     * Write the metrics for a book as pretty-printed JSON
+     */
+    public void writeJson(File file, String bookName) throws IOException {
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.exists() && !parent.mkdirs()) {
+            throw new IOException("Cannot create metrics directory: " + parent.getAbsolutePath());
+        }
+
+        JsonObject json = new JsonObject();
+        json.addProperty("book", bookName);
+        toJson().entrySet().forEach(entry -> json.add(entry.getKey(), entry.getValue()));
+
+        try (Writer writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            new GsonBuilder().setPrettyPrinting().create().toJson(json, writer);
+        }
+    }
+
+    /**
+     * One-line summary for logs
+     */
+    public String summary() {
+        StringBuilder builder = new StringBuilder();
+        for (Stage stage : Stage.values()) {
+            if (builder.length() > 0) builder.append(", ");
+            builder.append(String.format("%s %dms (cpu %dms)", stage.name().toLowerCase(), getWallMs(stage), getCpuMs(stage)));
+        }
+        builder.append(String.format(" | %.1f chunks/s, %,d bytes uploaded, %d retries",
+            getThroughput(Stage.STORE), getBytesUploaded(), getRetries()));
+        return builder.toString();
+    }
+
+    private static long cpuNanos() {
+        return CPU_TIME ? THREADS.getCurrentThreadCpuTime() : 0;
+    }
+
+    private static long allocatedBytes() {
+        if (THREADS instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) THREADS).getCurrentThreadAllocatedBytes();
+        }
+        return 0;
+    }
+
+    private static class StageStats {
+        private final AtomicLong calls = new AtomicLong();
+        private final AtomicLong items = new AtomicLong();
+        private final AtomicLong wallNanos = new AtomicLong();
+        private final AtomicLong cpuNanos = new AtomicLong();
+        private final AtomicLong allocatedBytes = new AtomicLong();
+    }
+
+    /**
+     * Measurement of one stage invocation on the current thread
+     */
+    public static class Timer {
+        private final StageStats stats;
+        private final long wallStart = System.nanoTime();
+        private final long cpuStart = cpuNanos();
+        private final long allocatedStart = allocatedBytes();
+
+        private Timer(StageStats stats) {
+            this.stats = stats;
+        }
+
+        public void stop(long items) {
+            stats.calls.incrementAndGet();
+            stats.items.addAndGet(items);
+            stats.wallNanos.addAndGet(System.nanoTime() - wallStart);
+            stats.cpuNanos.addAndGet(cpuNanos() - cpuStart);
+            stats.allocatedBytes.addAndGet(Math.max(0, allocatedBytes() - allocatedStart));
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.mohnish.voiceassistant.indexing;
+
+import com.mohnish.voiceassistant.document.DocumentChunk;
+import com.mohnish.voiceassistant.document.NearDuplicateDetector;
+import com.mohnish.voiceassistant.embedding.EmbeddingCheckpoint;
+import com.mohnish.voiceassistant.embedding.EmbeddingGenerator;
+import com.mohnish.voiceassistant.vectordb.ChromaDBClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Streams one book's chunks through the embed and store stages concurrently.
+ *
+ * The calling thread pulls chunks, drops near duplicates and groups the rest
+ * into batches. Each batch is embedded on the embed executor and then stored
+ * on the store executor. At most {@code queueCapacity} batches are in flight;
+ * when the limit is reached the producer blocks, which keeps memory flat and
+ * lets the slowest stage set the pace.
+ *
+ * The executors can be shared between books: batches are independent tasks,
+ * so a large book spreads over every embed and store thread while smaller
+ * books run alongside it.
+ */
+class IndexingPipeline {
+    private static final Logger logger = LoggerFactory.getLogger(IndexingPipeline.class);
+
+    private final EmbeddingGenerator embeddingGenerator;
+    private final ChromaDBClient chromaClient;
+    private final String collectionName;
+    private final Executor embedExecutor;
+    private final Executor storeExecutor;
+    private final int batchSize;
+    private final int queueCapacity;
+    private IndexingResult result;
+
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+    IndexingPipeline(EmbeddingGenerator embeddingGenerator, ChromaDBClient chromaClient, String collectionName,
+                     Executor embedExecutor, Executor storeExecutor, int batchSize, int queueCapacity) {
+        this.embeddingGenerator = embeddingGenerator;
+        this.chromaClient = chromaClient;
+        this.collectionName = collectionName;
+        this.embedExecutor = embedExecutor;
+        this.storeExecutor = storeExecutor;
+        this.batchSize = Math.max(1, batchSize);
+        this.queueCapacity = Math.max(1, queueCapacity);
+    }
+
+    /**
+     * Run all chunks through the pipeline and wait until every batch is stored.
+     * Counts, stored IDs and duplicate links are added to the result as batches complete.
+     *
+     * @param duplicateDetector optional near-duplicate filter (may be null)
+     * @return number of chunks taken from the iterator
+     */
+    int run(Iterator<DocumentChunk> chunks, EmbeddingCheckpoint checkpoint,
+             NearDuplicateDetector duplicateDetector, IndexingResult result) throws Exception {
+        this.result = result;
+        Semaphore inFlight = new Semaphore(queueCapacity);
+        List<DocumentChunk> batch = new ArrayList<>(batchSize);
+        int chunksCreated = 0;
+
+        while (chunks.hasNext() && failure.get() == null) {
+            DocumentChunk chunk = chunks.next();
+            chunksCreated++;
+
+            if (duplicateDetector != null) {
+                String canonicalId = duplicateDetector.findOrRegister(chunk);
+                if (canonicalId != null) {
+                    result.getDuplicateLinks().put(chunk.getId(), canonicalId);
+                    continue;
+                }
+            }
+
+            batch.add(chunk);
+            if (batch.size() == batchSize) {
+                submit(batch, checkpoint, inFlight);
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+        if (!batch.isEmpty() && failure.get() == null) {
+            submit(batch, checkpoint, inFlight);
+        }
+
+        // Wait for every in-flight batch to drain
+        inFlight.acquire(queueCapacity);
+        inFlight.release(queueCapacity);
+
+        Throwable error = failure.get();
+        if (error != null) {
+            throw error instanceof Exception ? (Exception) error : new RuntimeException(error);
+        }
+        return chunksCreated;
+    }
+
+    private void submit(List<DocumentChunk> batch, EmbeddingCheckpoint checkpoint, Semaphore inFlight)
+            throws InterruptedException {
+        long waitStart = System.nanoTime();
+        inFlight.acquire();
+        long submitted = System.nanoTime();
+        result.getMetrics().addBackpressureWait(submitted - waitStart);
+
+        CompletableFuture
+            .supplyAsync(() -> embed(batch, checkpoint, submitted), embedExecutor)
+            .thenAcceptAsync(embedded -> store(batch, embedded), storeExecutor)
+            .whenComplete((ignored, error) -> {
+                if (error != null) {
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause() : error;
+                    if (failure.compareAndSet(null, cause)) {
+                        logger.error("Indexing pipeline failed: {}", cause.getMessage());
+                    }
+                }
+                inFlight.release();
+            });
+    }
+
+    private EmbeddedBatch embed(List<DocumentChunk> batch, EmbeddingCheckpoint checkpoint, long submitted) {
+        IndexingMetrics metrics = result.getMetrics();
+        metrics.addEmbedQueueWait(System.nanoTime() - submitted);
+        IndexingMetrics.Timer timer = metrics.start(IndexingMetrics.Stage.EMBED);
+        try {
+            List<List<Double>> embeddings = embeddingGenerator.generateForBatch(batch, checkpoint);
+            result.addEmbeddingsGenerated(embeddings.size());
+            timer.stop(embeddings.size());
+            return new EmbeddedBatch(embeddings, System.nanoTime());
+        } catch (Exception e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    private void store(List<DocumentChunk> batch, EmbeddedBatch embedded) {
+        IndexingMetrics metrics = result.getMetrics();
+        metrics.addStoreQueueWait(System.nanoTime() - embedded.readyAt);
+        IndexingMetrics.Timer timer = metrics.start(IndexingMetrics.Stage.STORE);
+
+        List<String> ids = new ArrayList<>(batch.size());
+        List<String> documents = new ArrayList<>(batch.size());
+        List<Map<String, String>> metadatas = new ArrayList<>(batch.size());
+
+        for (DocumentChunk chunk : batch) {
+            ids.add(chunk.getId());
+            documents.add(chunk.getText());
+
+            Map<String, String> metadata = new HashMap<>();
+            metadata.put("source", chunk.getSourceFile());
+            metadata.put("title", chunk.getDocumentTitle());
+            metadata.put("chunk_index", String.valueOf(chunk.getChunkIndex()));
+            metadatas.add(metadata);
+        }
+
+        try {
+            metrics.addBytesUploaded(
+                chromaClient.upsertDocuments(collectionName, ids, embedded.embeddings, documents, metadatas));
+        } catch (Exception e) {
+            throw new CompletionException(e);
+        }
+
+        timer.stop(ids.size());
+        result.addStoredChunks(ids);
+        logger.info("Stored {} chunks", result.getChunksStored());
+    }
+
+    private static class EmbeddedBatch {
+        private final List<List<Double>> embeddings;
+        private final long readyAt;
+
+        private EmbeddedBatch(List<List<Double>> embeddings, long readyAt) {
+            this.embeddings = embeddings;
+            this.readyAt = readyAt;
+        }
+    }
+}
@@ -1,12 +1,26 @@
 package com.mohnish.voiceassistant.indexing;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
 public class IndexingResult {
     private String bookName;
     private boolean success;
     private int charactersExtracted;
     private int chunksCreated;
-    private int embeddingsGenerated;
-    private int chunksStored;
+    private volatile int embeddingsGenerated;
+    private volatile int chunksStored;
+    private Map<String, String> duplicateLinks = new ConcurrentHashMap<>(); // duplicate ID → canonical ID
+    private List<String> chunkIds = new ArrayList<>();            // IDs stored in ChromaDB
+    private boolean skipped;                                      // Unchanged since last run
+    private int staleChunksDeleted;
+    private CompletableFuture<IndexingResult> backfill;           // Completes when every chunk is stored
+    private volatile boolean backfillFailed;                      // Sample stored, the rest was not
+    private volatile String backfillErrorMessage;
+    private final IndexingMetrics metrics = new IndexingMetrics();
     private long durationMs;
     private String errorMessage;
     
@@ -42,6 +56,68 @@ public class IndexingResult {
         this.chunksStored = chunksStored; 
     }
     
+    public synchronized void addEmbeddingsGenerated(int count) { 
+        embeddingsGenerated += count; 
+    }
+    
+    public synchronized void addStoredChunks(List<String> ids) { 
+        chunkIds.addAll(ids);
+        chunksStored += ids.size(); 
+    }
+    
+    /**
+     * Percentage of the book that can already be found by a query
+     * (duplicates count as covered through their canonical chunk)
+     */
+    public double getSearchableCoverage() {
+        if (chunksCreated == 0) {
+            return success ? 100.0 : 0.0;
+        }
+        return Math.min(100.0, 100.0 * (chunksStored + getDuplicatesSkipped()) / chunksCreated);
+    }
+    
+    public int getDuplicatesSkipped() { return duplicateLinks.size(); }
+    
+    public Map<String, String> getDuplicateLinks() { return duplicateLinks; }
+    public void setDuplicateLinks(Map<String, String> duplicateLinks) { 
+        this.duplicateLinks = duplicateLinks; 
+    }
+    
+    public synchronized List<String> getChunkIds() { return new ArrayList<>(chunkIds); }
+    public synchronized void setChunkIds(List<String> chunkIds) { this.chunkIds = new ArrayList<>(chunkIds); }
+    
+    public boolean isSkipped() { return skipped; }
+    public void setSkipped(boolean skipped) { this.skipped = skipped; }
+    
+    public int getStaleChunksDeleted() { return staleChunksDeleted; }
+    public void setStaleChunksDeleted(int staleChunksDeleted) { 
+        this.staleChunksDeleted = staleChunksDeleted; 
+    }
+    
+    /**
+     * Background backfill of a progressively indexed book (already complete otherwise)
+     */
+    public CompletableFuture<IndexingResult> getBackfill() { 
+        return backfill != null ? backfill : CompletableFuture.completedFuture(this); 
+    }
+    public void setBackfill(CompletableFuture<IndexingResult> backfill) { this.backfill = backfill; }
+    
+    /**
+     * Whether the background part failed; {@link #isSuccess()} only covers the foreground part
+     */
+    public boolean isBackfillFailed() { return backfillFailed; }
+    public void setBackfillFailed(boolean backfillFailed) { this.backfillFailed = backfillFailed; }
+    
+    public String getBackfillErrorMessage() { return backfillErrorMessage; }
+    public void setBackfillErrorMessage(String backfillErrorMessage) { 
+        this.backfillErrorMessage = backfillErrorMessage; 
+    }
+    
+    /**
+     * Per-stage timings and throughput for this book
+     */
+    public IndexingMetrics getMetrics() { return metrics; }
+    
     public long getDurationMs() { return durationMs; }
     public void setDurationMs(long durationMs) { this.durationMs = durationMs; }
     
@@ -52,11 +128,23 @@ public class IndexingResult {
     
     @Override
     public String toString() {
-        if (success) {
+        if (success && skipped) {
+            return String.format("⏭️  %s: unchanged, skipped", bookName);
+        } else if (success && backfillFailed) {
+            return String.format(
+                "⚠️  %s: %.0f%% searchable (%d/%d chunks stored), backfill failed - %s",
+                bookName, getSearchableCoverage(), chunksStored, chunksCreated, backfillErrorMessage
+            );
+        } else if (success && getSearchableCoverage() < 100.0) {
+            return String.format(
+                "⏳ %s: %.0f%% searchable (%d/%d chunks stored), backfilling",
+                bookName, getSearchableCoverage(), chunksStored, chunksCreated
+            );
+        } else if (success) {
             return String.format(
-                "✅ %s: %d chars → %d chunks → %d embeddings (%d ms)",
+                "✅ %s: %d chars → %d chunks → %d embeddings (%d duplicates skipped, %d ms)",
                 bookName, charactersExtracted, chunksCreated, 
-                embeddingsGenerated, durationMs
+                embeddingsGenerated, getDuplicatesSkipped(), durationMs
             );
         } else {
             return String.format(
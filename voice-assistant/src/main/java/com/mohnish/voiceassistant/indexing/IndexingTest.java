@@ -1,6 +1,9 @@
 package com.mohnish.voiceassistant.indexing;
 
+import com.mohnish.voiceassistant.utils.ConfigLoader;
+
 import java.io.File;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Scanner;
 
@@ -12,7 +15,9 @@ public class IndexingTest {
         
         // Configuration
         String chromaUrl = "http://localhost:8000";
-        String ollamaUrl = "http://localhost:11434";
+        // Comma-separated list to spread embedding work over several Ollama servers
+        List<String> ollamaUrls = Arrays.asList(
+            ConfigLoader.get("embedding.ollama.urls", "http://localhost:11434").split(","));
         String collectionName = "my_books";
         String booksDirectory = "books";
         
@@ -40,8 +45,15 @@ public class IndexingTest {
             // Initialize indexer
             System.out.println("Initializing Knowledge Base Indexer...");
             KnowledgeBaseIndexer indexer = new KnowledgeBaseIndexer(
-                chromaUrl, ollamaUrl, collectionName
+                chromaUrl, ollamaUrls, collectionName
             );
+            if (ConfigLoader.getBoolean("indexing.fit.chunks.to.model", false)) {
+                indexer.fitChunksToModel();
+            }
+            int embedThreads = ConfigLoader.getInt("indexing.embed.threads", 0);
+            if (embedThreads > 0) {
+                indexer.setEmbedThreads(embedThreads);
+            }
             
             // Initialize collection
             System.out.println("Creating collection: " + collectionName);
@@ -116,6 +128,18 @@ public class IndexingTest {
             System.out.println("\n🎉 Indexing complete!");
             System.out.println("Your books are now searchable in the knowledge base!");
             
+            // Optionally keep the knowledge base in sync with the books folder
+            System.out.print("\nWatch books/ for new or changed books? (y/n): ");
+            if (scanner.nextLine().trim().toLowerCase().startsWith("y")) {
+                try (LiveIngestionService ingestion = new LiveIngestionService(indexer, booksDir.toPath())) {
+                    ingestion.setQuietPeriodMs(ConfigLoader.getInt("ingestion.quiet.ms", 2000));
+                    ingestion.setCatchUpOnStart(false);
+                    ingestion.start();
+                    System.out.println("👀 Watching books/ - press Enter to stop");
+                    scanner.nextLine();
+                }
+            }
+            
         } catch (Exception e) {
             System.err.println("\n❌ Error: " + e.getMessage());
             e.printStackTrace();
@@ -0,0 +1,177 @@
+package com.mohnish.voiceassistant.indexing;
+
+import com.mohnish.voiceassistant.utils.ConfigLoader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.net.InetAddress;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Takes books from a shared {@link WorkQueue} and indexes them, one at a time,
+ * renewing the lease while a book is in progress. Run as many workers as there
+ * are machines (or JVMs); they coordinate only through the queue directory.
+ *
+ * Usage: IndexingWorker &lt;queueDirectory&gt;
+ */
+public class IndexingWorker implements Runnable {
+    private static final Logger logger = LoggerFactory.getLogger(IndexingWorker.class);
+
+    private final KnowledgeBaseIndexer indexer;
+    private final WorkQueue queue;
+    private final String workerId;
+    private final ScheduledExecutorService heartbeat;
+
+    private long pollIntervalMs = 5000;
+    private boolean exitWhenDrained = true;  // Stop once nothing is pending or leased
+    private volatile boolean running = true;
+    private int booksIndexed;
+    private int booksFailed;
+
+    public IndexingWorker(KnowledgeBaseIndexer indexer, WorkQueue queue) {
+        this.indexer = indexer;
+        this.queue = queue;
+        this.workerId = defaultWorkerId();
+        this.heartbeat = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "indexing-worker-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void run() {
+        logger.info("Worker {} started", workerId);
+
+        while (running) {
+            try {
+                queue.reclaimExpired();
+                WorkQueue.Lease lease = queue.claim(workerId);
+
+                if (lease == null) {
+                    if (exitWhenDrained && queue.isDrained()) {
+                        break;
+                    }
+                    Thread.sleep(pollIntervalMs);
+                    continue;
+                }
+
+                process(lease);
+
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                logger.error("Worker {} error: {}", workerId, e.getMessage());
+            }
+        }
+
+        heartbeat.shutdownNow();
+        logger.info("Worker {} finished ({} indexed, {} failed)", workerId, booksIndexed, booksFailed);
+    }
+
+    private void process(WorkQueue.Lease lease) throws Exception {
+        File bookFile = lease.getBookFile();
+        long renewEvery = Math.max(1000, queue.getLeaseMs() / 3);
+        ScheduledFuture<?> renewal = heartbeat.scheduleAtFixedRate(() -> {
+            if (!lease.renew()) {
+                // Indexing is idempotent (upserts), so finishing anyway is safe
+                logger.warn("Lease for {} was lost; another worker may index it too", bookFile.getName());
+            }
+        }, renewEvery, renewEvery, TimeUnit.MILLISECONDS);
+
+        try {
+            if (!bookFile.exists()) {
+                lease.fail("Book not found: " + bookFile.getAbsolutePath());
+                booksFailed++;
+                return;
+            }
+
+            IndexingResult result = indexer.indexBook(bookFile);
+            lease.complete();
+            booksIndexed++;
+            logger.info("{}", result);
+        } catch (Exception e) {
+            lease.fail(e.getMessage());
+            booksFailed++;
+        } finally {
+            renewal.cancel(false);
+        }
+    }
+
+    public void stop() {
+        running = false;
+    }
+
+    private static String defaultWorkerId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "unknown";
+        }
+        return host + "-" + ProcessHandle.current().pid();
+    }
+
+    // Getters and setters
+    public String getWorkerId() { return workerId; }
+
+    public int getBooksIndexed() { return booksIndexed; }
+    public int getBooksFailed() { return booksFailed; }
+
+    public long getPollIntervalMs() { return pollIntervalMs; }
+    public void setPollIntervalMs(long pollIntervalMs) { this.pollIntervalMs = pollIntervalMs; }
+
+    public boolean isExitWhenDrained() { return exitWhenDrained; }
+    public void setExitWhenDrained(boolean exitWhenDrained) { this.exitWhenDrained = exitWhenDrained; }
+
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.err.println("Usage: IndexingWorker <queueDirectory>");
+            System.exit(1);
+        }
+
+        File queueDirectory = new File(args[0]);
+        String chromaUrl = ConfigLoader.get("chroma.url", "http://localhost:8000");
+        List<String> ollamaUrls = Arrays.asList(
+            ConfigLoader.get("embedding.ollama.urls", "http://localhost:11434").split(","));
+        String collectionName = ConfigLoader.get("chroma.collection", "my_books");
+
+        try {
+            KnowledgeBaseIndexer indexer = new KnowledgeBaseIndexer(chromaUrl, ollamaUrls, collectionName);
+            if (ConfigLoader.getBoolean("indexing.fit.chunks.to.model", false)) {
+                indexer.fitChunksToModel();
+            }
+            int embedThreads = ConfigLoader.getInt("indexing.embed.threads", 0);
+            if (embedThreads > 0) {
+                indexer.setEmbedThreads(embedThreads);
+            }
+            indexer.initializeCollection();
+
+            // Shared state lives next to the queue so any worker can pick up any book
+            indexer.setManifest(IndexManifest.openShared(new File(queueDirectory, "manifest")));
+            indexer.setCheckpointDirectory(new File(queueDirectory, "checkpoints"));
+
+            WorkQueue queue = new WorkQueue(queueDirectory);
+            queue.setLeaseMs(ConfigLoader.getInt("indexing.lease.seconds", 300) * 1000L);
+
+            IndexingWorker worker = new IndexingWorker(indexer, queue);
+            worker.setExitWhenDrained(ConfigLoader.getBoolean("indexing.worker.exit.when.drained", true));
+            worker.run();
+
+            indexer.shutdown();
+            System.out.println("✅ Worker done: " + worker.getBooksIndexed() + " indexed, "
+                + worker.getBooksFailed() + " failed");
+        } catch (Exception e) {
+            System.err.println("❌ Worker failed: " + e.getMessage());
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+}
@@ -1,18 +1,43 @@
 package com.mohnish.voiceassistant.indexing;
 
+import com.mohnish.voiceassistant.document.CorpusCrawler;
 import com.mohnish.voiceassistant.document.DocumentChunk;
 import com.mohnish.voiceassistant.document.DocumentParser;
+import com.mohnish.voiceassistant.document.NearDuplicateDetector;
+import com.mohnish.voiceassistant.document.PageCleaner;
+import com.mohnish.voiceassistant.document.ParsedDocument;
+import com.mohnish.voiceassistant.document.ParsedTextCache;
 import com.mohnish.voiceassistant.document.TextChunker;
+import com.mohnish.voiceassistant.embedding.EmbeddingCheckpoint;
 import com.mohnish.voiceassistant.embedding.EmbeddingGenerator;
 import com.mohnish.voiceassistant.vectordb.ChromaDBClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
 
 public class KnowledgeBaseIndexer {
     private static final Logger logger = LoggerFactory.getLogger(KnowledgeBaseIndexer.class);
@@ -22,13 +47,42 @@ public class KnowledgeBaseIndexer {
     private final EmbeddingGenerator embeddingGenerator;
     private final ChromaDBClient chromaClient;
     private final String collectionName;
+    private File checkpointDirectory = new File("index-checkpoints");
+    private File manifestFile = new File("index-manifest.json");
+    private File metricsDirectory = new File("index-metrics");    // Per-book JSON reports (null disables)
+    private File textCacheDirectory = new File("parsed-text-cache");  // Cleaned text per book content (null disables)
+    private IndexManifest manifest;
+    private NearDuplicateDetector duplicateDetector = new NearDuplicateDetector();
+    private final Map<String, Semaphore> bookLocks = new ConcurrentHashMap<>();  // By source key
+    
+    // Pipeline settings
+    private int parseThreads = Runtime.getRuntime().availableProcessors();  // Books parsed/chunked at once
+    private int embedThreads;          // Concurrent embedding batches, by default what the provider serves at once
+    private int storeThreads = 2;      // Concurrent ChromaDB writes
+    private int batchSize = 32;        // Chunks per embed/store batch
+    private int queueCapacity = 8;     // Batches in flight before chunking blocks
+    private int initialSampleSize = 64; // Chunks stored up front in progressive mode
+    private long streamingThresholdBytes = 64L * 1024 * 1024;  // Larger books are streamed page by page
+    private ForkJoinPool parsePool;
+    private ExecutorService backfillExecutor;
+    private ExecutorService embedExecutor;
+    private ExecutorService storeExecutor;
     
     public KnowledgeBaseIndexer(String chromaUrl, String ollamaUrl, String collectionName) {
+        this(chromaUrl, List.of(ollamaUrl), collectionName);
+    }
+    
+    public KnowledgeBaseIndexer(String chromaUrl, List<String> ollamaUrls, String collectionName) {
+        this(chromaUrl, new EmbeddingGenerator(ollamaUrls), collectionName);
+    }
+    
+    public KnowledgeBaseIndexer(String chromaUrl, EmbeddingGenerator embeddingGenerator, String collectionName) {
         this.parser = new DocumentParser();
         this.chunker = new TextChunker();
-        this.embeddingGenerator = new EmbeddingGenerator(ollamaUrl);
+        this.embeddingGenerator = embeddingGenerator;
         this.chromaClient = new ChromaDBClient(chromaUrl);
         this.collectionName = collectionName;
+        this.embedThreads = Math.max(1, embeddingGenerator.getProvider().getConcurrency());
         
         logger.info("Knowledge Base Indexer initialized");
         logger.info("Collection: {}", collectionName);
@@ -39,6 +93,7 @@ public class KnowledgeBaseIndexer {
      */
     public void initializeCollection() throws Exception {
         logger.info("Initializing collection: {}", collectionName);
+        embeddingGenerator.verifyEndpoints();
         chromaClient.createCollection(collectionName);
         logger.info("✅ Collection ready");
     }
@@ -47,45 +102,146 @@ public class KnowledgeBaseIndexer {
      * Index a single book
      */
     public IndexingResult indexBook(File bookFile) throws Exception {
+        return indexBook(bookFile, 0);
+    }
+    
+    /**
+     * Index a book so it becomes searchable quickly: an evenly spread sample of
+     * chunks is stored before returning, the rest is backfilled in the background
+     * (see {@link IndexingResult#getSearchableCoverage()} and {@link IndexingResult#getBackfill()})
+     */
+    public IndexingResult indexBookProgressively(File bookFile) throws Exception {
+        return indexBook(bookFile, initialSampleSize);
+    }
+    
+    private IndexingResult indexBook(File bookFile, int initialSample) throws Exception {
+        // One run per book at a time: a change event that arrives during a backfill waits for it
+        Semaphore bookLock = bookLock(bookFile);
+        bookLock.acquire();
+        IndexingResult result;
+        try {
+            result = indexBookLocked(bookFile, initialSample);
+        } catch (Throwable t) {
+            bookLock.release();
+            throw t;
+        }
+        result.getBackfill().whenComplete((done, error) -> bookLock.release());
+        return result;
+    }
+    
+    private IndexingResult indexBookLocked(File bookFile, int initialSample) throws Exception {
         logger.info("Starting to index book: {}", bookFile.getName());
         long startTime = System.currentTimeMillis();
         
         IndexingResult result = new IndexingResult(bookFile.getName());
         
         try {
-            // Step 1: Extract text
+            // Nothing to do if the same content was indexed with the same settings
+            IndexManifest manifest = manifest();
+            String indexConfig = indexConfig();
+            if (manifest.isUnchanged(bookFile, indexConfig)) {
+                logger.info("⏭️  Unchanged since last run, skipping: {}", bookFile.getName());
+                result.setChunkIds(manifest.getChunkIds(bookFile));
+                result.setSkipped(true);
+                result.setSuccess(true);
+                return result;
+            }
+            String contentHash = IndexManifest.sha256(bookFile);
+            String sourceKey = IndexManifest.sourceKey(bookFile);
+            
+            IndexingMetrics metrics = result.getMetrics();
+            long retriesAtStart = embeddingGenerator.getProvider().getRetryCount();
+            
+            // Huge books are parsed and chunked page by page as the pipeline consumes them
+            if (bookFile.length() >= streamingThresholdBytes) {
+                return indexBookStreaming(bookFile, sourceKey, contentHash, indexConfig, result, startTime, retriesAtStart);
+            }
+            
+            // Step 1: Extract and clean text, unless this content was parsed before
             logger.info("Step 1/4: Extracting text...");
-            String text = parser.extractText(bookFile);
+            ParsedTextCache textCache = textCache();
+            IndexingMetrics.Timer timer = metrics.start(IndexingMetrics.Stage.PARSE);
+            ParsedDocument parsed = textCache != null ? textCache.get(bookFile, contentHash) : null;
+            if (parsed != null) {
+                timer.stop(parsed.getPageCount());
+                metrics.addPages(parsed.getPageCount());
+            } else {
+                ParsedDocument raw = parser.extractRaw(bookFile);
+                timer.stop(raw.getPageCount());
+                metrics.addPages(raw.getPageCount());
+                
+                timer = metrics.start(IndexingMetrics.Stage.CLEAN);
+                parsed = parser.clean(raw);
+                timer.stop(raw.getText().length());
+                parser.cacheParsed(contentHash, parsed);
+            }
+            String text = parsed.getText();
             result.setCharactersExtracted(text.length());
             logger.info("✅ Extracted {} characters", text.length());
             
             // Step 2: Chunk text
             logger.info("Step 2/4: Chunking text...");
-            List<DocumentChunk> chunks = chunker.chunkText(text, bookFile.getName());
+            timer = metrics.start(IndexingMetrics.Stage.CHUNK);
+            List<DocumentChunk> chunks = chunker.chunkDocument(text, sourceKey, bookFile.getName());
+            timer.stop(chunks.size());
             result.setChunksCreated(chunks.size());
             logger.info("✅ Created {} chunks", chunks.size());
             
-            // Step 3: Generate embeddings
-            logger.info("Step 3/4: Generating embeddings...");
-            List<List<Double>> embeddings = embeddingGenerator.generateForChunks(chunks);
-            result.setEmbeddingsGenerated(embeddings.size());
-            logger.info("✅ Generated {} embeddings", embeddings.size());
+            // Steps 3+4: Embed and store concurrently, resuming from a checkpoint if present
+            logger.info("Step 3/4 + 4/4: Embedding and storing...");
+            EmbeddingCheckpoint checkpoint = EmbeddingCheckpoint.open(checkpointDirectory, sourceKey, 
+                embeddingGenerator.getProvider().getEmbeddingSpace());
+            if (checkpoint.size() > 0) {
+                logger.info("Found checkpoint with {} embeddings", checkpoint.size());
+            }
             
-            // Step 4: Store in ChromaDB
-            logger.info("Step 4/4: Storing in ChromaDB...");
-            storeChunksInChroma(chunks, embeddings);
-            result.setChunksStored(chunks.size());
-            logger.info("✅ Stored {} chunks in database", chunks.size());
+            // Near duplicates (boilerplate, repeated headers) are skipped within the book until the run ends
+            BookRun run = new BookRun(bookFile, contentHash, indexConfig, checkpoint, result, startTime, retriesAtStart);
+            if (initialSample <= 0 || chunks.size() <= initialSample) {
+                run.finish(chunks.iterator());
+                return result;
+            }
             
-            long duration = System.currentTimeMillis() - startTime;
-            result.setDurationMs(duration);
+            // Progressive: store a sample spread over the whole book first
+            List<DocumentChunk> sample = new ArrayList<>(initialSample);
+            List<DocumentChunk> remaining = new ArrayList<>(chunks.size() - initialSample);
+            double stride = (double) chunks.size() / initialSample;
+            double next = 0;
+            for (int i = 0; i < chunks.size(); i++) {
+                if (i >= next && sample.size() < initialSample) {
+                    sample.add(chunks.get(i));
+                    next += stride;
+                } else {
+                    remaining.add(chunks.get(i));
+                }
+            }
+            
+            try {
+                newPipeline().run(sample.iterator(), checkpoint, duplicateDetector, result);
+            } catch (Exception e) {
+                checkpoint.close();
+                throw e;
+            }
             result.setSuccess(true);
+            logger.info("✅ {} searchable ({}% coverage), backfilling {} chunks in the background", 
+                bookFile.getName(), Math.round(result.getSearchableCoverage()), remaining.size());
             
-            logger.info("✅ Successfully indexed book in {}ms", duration);
+            result.setBackfill(CompletableFuture.supplyAsync(() -> {
+                try {
+                    return run.finish(remaining.iterator());
+                } catch (Exception e) {
+                    // The sample stays searchable; the book is not recorded, so the next run redoes it
+                    logger.error("❌ Backfill failed for {}: {}", bookFile.getName(), e.getMessage());
+                    result.setBackfillFailed(true);
+                    result.setBackfillErrorMessage(e.getMessage());
+                    throw new CompletionException(e);
+                }
+            }, backfillExecutor()));
             return result;
             
         } catch (Exception e) {
             logger.error("Failed to index book: {}", bookFile.getName(), e);
+            forgetDuplicates(bookFile);
             result.setSuccess(false);
             result.setErrorMessage(e.getMessage());
             throw e;
@@ -93,65 +249,296 @@ public class KnowledgeBaseIndexer {
     }
     
     /**
-     * Store chunks with their embeddings in ChromaDB
+     * Index a book without holding its text: pages are extracted, cleaned and chunked
+     * lazily while the pipeline pulls chunks, with the same chunks as indexing it whole
+     * (see {@link PageCleaner}), so memory stays bounded by the pipeline
+     * queue and the chunker window. Not progressive, since the chunk count is unknown
+     * up front.
      */
-    private void storeChunksInChroma(List<DocumentChunk> chunks, List<List<Double>> embeddings) 
-            throws Exception {
+    private IndexingResult indexBookStreaming(File bookFile, String sourceKey, String contentHash, String indexConfig,
+                                              IndexingResult result, long startTime, long retriesAtStart) throws Exception {
+        logger.info("Streaming {} ({} MB) page by page...", bookFile.getName(), bookFile.length() / (1024 * 1024));
+        IndexingMetrics metrics = result.getMetrics();
         
-        if (chunks.size() != embeddings.size()) {
-            throw new IllegalArgumentException("Chunks and embeddings size mismatch");
+        // Closed here too if the book fails before BookRun.finish takes the checkpoint over
+        try (EmbeddingCheckpoint checkpoint = EmbeddingCheckpoint.open(checkpointDirectory, sourceKey, 
+                 embeddingGenerator.getProvider().getEmbeddingSpace());
+             Stream<String> rawPages = parser.streamPages(bookFile)) {
+            if (checkpoint.size() > 0) {
+                logger.info("Found checkpoint with {} embeddings", checkpoint.size());
+            }
+            
+            Iterator<String> raw = rawPages.iterator();
+            PageCleaner cleaner = new PageCleaner();
+            long[] characters = new long[1];
+            int[] chunksCreated = new int[1];
+            
+            // Chunking pulls pages as it goes; its timer is paused while a page is parsed and cleaned
+            IndexingMetrics.Timer[] chunkTimer = new IndexingMetrics.Timer[1];
+            
+            Iterator<String> pages = new Iterator<>() {
+                private String upcoming;
+                
+                @Override
+                public boolean hasNext() {
+                    if (upcoming == null) {
+                        pauseChunking();
+                        IndexingMetrics.Timer timer = metrics.start(IndexingMetrics.Stage.PARSE);
+                        if (raw.hasNext()) {
+                            upcoming = raw.next();
+                            metrics.addPages(1);  // Windows, for text files
+                        }
+                        timer.stop(upcoming != null ? 1 : 0);
+                        resumeChunking();
+                    }
+                    return upcoming != null;
+                }
+                
+                @Override
+                public String next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    String page = upcoming;
+                    upcoming = null;
+                    
+                    pauseChunking();
+                    IndexingMetrics.Timer timer = metrics.start(IndexingMetrics.Stage.CLEAN);
+                    String text = cleaner.clean(page);
+                    timer.stop(page.length());
+                    resumeChunking();
+                    characters[0] += text.length();
+                    return text;
+                }
+                
+                private void pauseChunking() {
+                    if (chunkTimer[0] != null) {
+                        chunkTimer[0].stop(0);
+                    }
+                }
+                
+                private void resumeChunking() {
+                    if (chunkTimer[0] != null) {
+                        chunkTimer[0] = metrics.start(IndexingMetrics.Stage.CHUNK);
+                    }
+                }
+            };
+            
+            Iterator<DocumentChunk> chunked = chunker.chunkConcatenation(pages, sourceKey, bookFile.getName());
+            Iterator<DocumentChunk> chunks = new Iterator<>() {
+                @Override
+                public boolean hasNext() {
+                    chunkTimer[0] = metrics.start(IndexingMetrics.Stage.CHUNK);
+                    try {
+                        return chunked.hasNext();
+                    } finally {
+                        chunkTimer[0].stop(0);
+                        chunkTimer[0] = null;
+                    }
+                }
+                
+                @Override
+                public DocumentChunk next() {
+                    chunkTimer[0] = metrics.start(IndexingMetrics.Stage.CHUNK);
+                    try {
+                        DocumentChunk chunk = chunked.next();
+                        result.setChunksCreated(++chunksCreated[0]);
+                        return chunk;
+                    } finally {
+                        chunkTimer[0].stop(1);
+                        chunkTimer[0] = null;
+                    }
+                }
+            };
+            
+            BookRun run = new BookRun(bookFile, contentHash, indexConfig, checkpoint, result, startTime, retriesAtStart);
+            run.finish(chunks);
+            
+            result.setCharactersExtracted((int) Math.min(Integer.MAX_VALUE, characters[0]));
+            return result;
         }
+    }
+    
+    /**
+     * State shared by the foreground and backfill parts of one book's indexing
+     */
+    private class BookRun {
+        private final File bookFile;
+        private final String contentHash;
+        private final String indexConfig;
+        private final EmbeddingCheckpoint checkpoint;
+        private final IndexingResult result;
+        private final long startTime;
+        private final long retriesAtStart;
         
-        // Prepare data for ChromaDB
-        List<String> ids = new ArrayList<>();
-        List<String> documents = new ArrayList<>();
-        List<Map<String, String>> metadatas = new ArrayList<>();
+        private BookRun(File bookFile, String contentHash, String indexConfig, 
+                        EmbeddingCheckpoint checkpoint, IndexingResult result, 
+                        long startTime, long retriesAtStart) {
+            this.bookFile = bookFile;
+            this.contentHash = contentHash;
+            this.indexConfig = indexConfig;
+            this.checkpoint = checkpoint;
+            this.result = result;
+            this.startTime = startTime;
+            this.retriesAtStart = retriesAtStart;
+        }
         
-        for (int i = 0; i < chunks.size(); i++) {
-            DocumentChunk chunk = chunks.get(i);
+        /**
+         * Store the remaining chunks, clean up what the previous version left behind and record the book
+         */
+        private IndexingResult finish(Iterator<DocumentChunk> chunks) throws Exception {
+            try (checkpoint) {
+                newPipeline().run(chunks, checkpoint, duplicateDetector, result);
+                logger.info("✅ Generated {} embeddings, stored {} chunks", 
+                    result.getEmbeddingsGenerated(), result.getChunksStored());
+                
+                // Book is safely stored, the checkpoint is no longer needed
+                checkpoint.delete();
+            } finally {
+                // Every chunk of the book went through, or the run failed; either way its signatures are done
+                forgetDuplicates(bookFile);
+            }
+            
+            // Chunks from the previous version that were not overwritten (book shrank, chunker changed)
+            IndexManifest manifest = manifest();
+            List<String> staleIds = manifest.staleChunkIds(bookFile, result.getChunkIds());
+            if (!staleIds.isEmpty()) {
+                chromaClient.deleteDocuments(collectionName, staleIds);
+                result.setStaleChunksDeleted(staleIds.size());
+                logger.info("✅ Deleted {} stale chunks", staleIds.size());
+            }
+            
+            manifest.record(bookFile, contentHash, indexConfig, result.getChunkIds());
+            manifest.save();
+            
+            long duration = System.currentTimeMillis() - startTime;
+            result.setDurationMs(duration);
+            result.setSuccess(true);
             
-            ids.add(chunk.getId());
-            documents.add(chunk.getText());
+            // Provider-wide count, so it includes retries of books indexed at the same time
+            IndexingMetrics metrics = result.getMetrics();
+            metrics.addRetries(embeddingGenerator.getProvider().getRetryCount() - retriesAtStart);
+            metrics.finish();
+            writeMetrics(bookFile, metrics);
             
-            Map<String, String> metadata = new HashMap<>();
-            metadata.put("source", chunk.getSourceFile());
-            metadata.put("chunk_index", String.valueOf(chunk.getChunkIndex()));
-            metadatas.add(metadata);
+            logger.info("✅ Successfully indexed book in {}ms", duration);
+            logger.info("⏱️  {}", metrics.summary());
+            return result;
         }
-        
-        // Store in ChromaDB
-        chromaClient.addDocuments(collectionName, ids, embeddings, documents, metadatas);
     }
     
     /**
-     * Index multiple books
+     * Export a book's metrics as JSON (failures only cost the report, not the index)
+     */
+    private void writeMetrics(File bookFile, IndexingMetrics metrics) {
+        if (metricsDirectory == null) {
+            return;
+        }
+        String cleanName = bookFile.getName().replaceAll("[^a-zA-Z0-9]", "_").toLowerCase();
+        File file = new File(metricsDirectory, cleanName + "-" + System.currentTimeMillis() + ".json");
+        try {
+            metrics.writeJson(file, bookFile.getName());
+        } catch (IOException e) {
+            logger.warn("Could not write indexing metrics to {}: {}", file, e.getMessage());
+        }
+    }
+    
+    private IndexingPipeline newPipeline() {
+        return new IndexingPipeline(embeddingGenerator, chromaClient, collectionName,
+            embedExecutor(), storeExecutor(), batchSize, queueCapacity);
+    }
+    
+    /**
+     * Pool of exactly parseThreads workers. A book blocked on pipeline back-pressure
+     * holds its worker: the pool never adds compensating threads, so at most
+     * parseThreads books are parsed and chunked at once.
+     */
+    private synchronized ForkJoinPool parsePool() {
+        if (parsePool == null) {
+            parsePool = new ForkJoinPool(parseThreads, ForkJoinPool.defaultForkJoinWorkerThreadFactory, null,
+                false, 0, parseThreads, 1, pool -> true, 60, TimeUnit.SECONDS);
+        }
+        return parsePool;
+    }
+    
+    private synchronized ExecutorService backfillExecutor() {
+        if (backfillExecutor == null) {
+            // One book at a time, behind the initial slices of newer books
+            backfillExecutor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "index-backfill");
+                thread.setDaemon(true);
+                thread.setPriority(Thread.MIN_PRIORITY);
+                return thread;
+            });
+        }
+        return backfillExecutor;
+    }
+    
+    private synchronized ExecutorService embedExecutor() {
+        if (embedExecutor == null) {
+            embedExecutor = Executors.newFixedThreadPool(embedThreads, daemonThreads("index-embed"));
+        }
+        return embedExecutor;
+    }
+    
+    private synchronized ExecutorService storeExecutor() {
+        if (storeExecutor == null) {
+            storeExecutor = Executors.newFixedThreadPool(storeThreads, daemonThreads("index-store"));
+        }
+        return storeExecutor;
+    }
+    
+    private static ThreadFactory daemonThreads(String name) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+    
+    /**
+     * Stop the pipeline worker threads
+     */
+    public synchronized void shutdown() {
+        shutdownExecutor(parsePool);
+        shutdownExecutor(backfillExecutor);
+        shutdownExecutor(embedExecutor);
+        shutdownExecutor(storeExecutor);
+        parsePool = null;
+        backfillExecutor = null;
+        embedExecutor = null;
+        storeExecutor = null;
+    }
+    
+    /**
+     * Index multiple books concurrently
+     *
+     * Books are parsed and chunked on a work-stealing pool sized for the CPU,
+     * while their batches share the embed and store pools. Larger books are
+     * started first so a single big PDF does not end up alone at the tail.
      */
     public List<IndexingResult> indexBooks(List<File> bookFiles) throws Exception {
-        logger.info("Starting to index {} books", bookFiles.size());
-        
-        List<IndexingResult> results = new ArrayList<>();
+        logger.info("Starting to index {} books ({} parse threads, {} embed threads, {} store threads)", 
+            bookFiles.size(), parseThreads, embedThreads, storeThreads);
         
+        List<Integer> largestFirst = new ArrayList<>();
         for (int i = 0; i < bookFiles.size(); i++) {
+            largestFirst.add(i);
+        }
+        largestFirst.sort(Comparator.comparingLong((Integer i) -> bookFiles.get(i).length()).reversed());
+        
+        ForkJoinPool pool = parsePool();
+        List<ForkJoinTask<IndexingResult>> tasks = new ArrayList<>(Collections.nCopies(bookFiles.size(), null));
+        for (int i : largestFirst) {
             File bookFile = bookFiles.get(i);
-            logger.info("\n=== Indexing book {}/{}: {} ===", 
-                i + 1, bookFiles.size(), bookFile.getName());
-            
-            try {
-                IndexingResult result = indexBook(bookFile);
-                results.add(result);
-                
-                // Small delay between books
-                if (i < bookFiles.size() - 1) {
-                    Thread.sleep(1000);
-                }
-                
-            } catch (Exception e) {
-                logger.error("Failed to index book: {}", bookFile.getName(), e);
-                IndexingResult failedResult = new IndexingResult(bookFile.getName());
-                failedResult.setSuccess(false);
-                failedResult.setErrorMessage(e.getMessage());
-                results.add(failedResult);
-            }
+            tasks.set(i, pool.submit(() -> indexBookSafely(bookFile)));
+        }
+        
+        // Results keep the caller's order
+        List<IndexingResult> results = new ArrayList<>();
+        for (ForkJoinTask<IndexingResult> task : tasks) {
+            results.add(task.join());
         }
         
         logger.info("\n✅ Indexing complete!");
@@ -162,28 +549,252 @@ public class KnowledgeBaseIndexer {
         return results;
     }
     
+    private IndexingResult indexBookSafely(File bookFile) {
+        try {
+            return indexBook(bookFile);
+        } catch (Exception e) {
+            logger.error("Failed to index book: {}", bookFile.getName(), e);
+            IndexingResult failedResult = new IndexingResult(bookFile.getName());
+            failedResult.setSuccess(false);
+            failedResult.setErrorMessage(e.getMessage());
+            return failedResult;
+        }
+    }
+    
     /**
-     * Index all books in a directory
+     * Index all documents in a directory tree, skipping unchanged books and removing deleted ones
      */
     public List<IndexingResult> indexDirectory(String directoryPath) throws Exception {
+        return indexDirectory(directoryPath, parsePool());
+    }
+    
+    /**
+     * Index a directory tree, parsing and chunking its books on the given pool,
+     * e.g. a low-priority one for a background pass
+     */
+    public List<IndexingResult> indexDirectory(String directoryPath, ForkJoinPool pool) throws Exception {
         File directory = new File(directoryPath);
         
         if (!directory.exists() || !directory.isDirectory()) {
             throw new IllegalArgumentException("Directory not found: " + directoryPath);
         }
         
-        File[] files = directory.listFiles((dir, name) -> 
-            name.toLowerCase().endsWith(".pdf"));
+        // Books that disappeared since the last run
+        removeMissingBooks(directory);
+        
+        // Crawl the whole tree; each book starts indexing as soon as it is found
+        IndexManifest manifest = manifest();
+        String indexConfig = indexConfig();
+        CorpusCrawler crawler = new CorpusCrawler();
+        crawler.setAlreadyIndexed(file -> {
+            try {
+                return manifest.isUnchanged(file, indexConfig);
+            } catch (IOException e) {
+                return false;
+            }
+        });
+        
+        Queue<ForkJoinTask<IndexingResult>> tasks = new ConcurrentLinkedQueue<>();
+        CorpusCrawler.CrawlStats stats = crawler.crawl(directory, 
+            (bookFile, type) -> tasks.add(pool.submit(() -> indexBookSafely(bookFile))));
         
-        if (files == null || files.length == 0) {
-            logger.warn("No PDF files found in directory: {}", directoryPath);
+        if (tasks.isEmpty()) {
+            logger.info("No new or changed documents in {} ({})", directoryPath, stats);
             return new ArrayList<>();
         }
+        logger.info("Found {} documents to index ({} unchanged)", tasks.size(), stats.getSkippedIndexed());
         
-        List<File> bookFiles = List.of(files);
-        logger.info("Found {} PDF files to index", bookFiles.size());
+        List<IndexingResult> results = new ArrayList<>();
+        for (ForkJoinTask<IndexingResult> task : tasks) {
+            results.add(task.join());
+        }
         
-        return indexBooks(bookFiles);
+        logger.info("\n✅ Indexing complete!");
+        logger.info("Successfully indexed: {}/{}", 
+            results.stream().filter(IndexingResult::isSuccess).count(),
+            results.size());
+        
+        return results;
+    }
+    
+    /**
+     * Remove the indexed books that no longer exist at a path: the book there, or
+     * any book in the directory tree that was there
+     */
+    public void removeMissingBooks(File path) throws Exception {
+        IndexManifest manifest = manifest();
+        List<File> books = manifest.booksIn(path);
+        if (manifest.contains(path)) {
+            books.add(path);
+        }
+        for (File indexedBook : books) {
+            if (!indexedBook.exists()) {
+                removeBook(indexedBook);
+            }
+        }
+    }
+    
+    /**
+     * Delete every stored chunk of a book and forget it in the manifest
+     */
+    public void removeBook(File bookFile) throws Exception {
+        // A running backfill would record the book again after it was removed
+        Semaphore bookLock = bookLock(bookFile);
+        bookLock.acquire();
+        try {
+            IndexManifest manifest = manifest();
+            List<String> chunkIds = manifest.getChunkIds(bookFile);
+            
+            chromaClient.deleteDocuments(collectionName, chunkIds);
+            manifest.remove(bookFile);
+            manifest.save();
+            
+            logger.info("✅ Removed {} ({} chunks)", bookFile.getName(), chunkIds.size());
+        } finally {
+            bookLock.release();
+        }
+    }
+    
+    /**
+     * Drop a book's near-duplicate signatures, which are only compared within its own run
+     */
+    private void forgetDuplicates(File bookFile) {
+        if (duplicateDetector != null) {
+            duplicateDetector.forgetSource(IndexManifest.sourceKey(bookFile));
+        }
+    }
+    
+    /**
+     * Held from the start of a book's indexing until its backfill completes, or while it is removed
+     */
+    private Semaphore bookLock(File bookFile) {
+        return bookLocks.computeIfAbsent(IndexManifest.sourceKey(bookFile), key -> new Semaphore(1));
+    }
+    
+    private synchronized ParsedTextCache textCache() throws IOException {
+        if (textCacheDirectory != null && parser.getTextCache() == null) {
+            parser.setTextCache(new ParsedTextCache(textCacheDirectory));
+        }
+        return parser.getTextCache();
+    }
+    
+    private synchronized IndexManifest manifest() throws IOException {
+        if (manifest == null) {
+            manifest = IndexManifest.load(manifestFile);
+        }
+        return manifest;
+    }
+    
+    /**
+     * Settings that change the stored chunks or their vectors; a book is re-indexed when they differ
+     */
+    private String indexConfig() {
+        String tokens = chunker.getTokenBudget() > 0 ? ",tokens=" + chunker.getTokenBudget() : "";
+        return String.format("chunker=v%d,strategy=%s,size=%d,overlap=%d%s,embedding=%s", 
+            TextChunker.CHUNKER_VERSION, chunker.getStrategy(), chunker.getChunkSize(), chunker.getChunkOverlap(), tokens,
+            embeddingGenerator.getProvider().getEmbeddingSpace());
+    }
+    
+    /**
+     * Chunker settings (strategy, size, overlap, token budget) used for books indexed from now on
+     */
+    public TextChunker getChunker() { return chunker; }
+    
+    /**
+     * Size chunks by the embedding model's context window rather than in words, so
+     * each chunk fills it as far as possible without the server truncating it
+     */
+    public void fitChunksToModel() {
+        chunker.setTokenBudgetFor(embeddingGenerator.getProvider().getModelName());
+        logger.info("Chunks sized to {} tokens for {}", chunker.getTokenBudget(),
+            embeddingGenerator.getProvider().getModelName());
+    }
+    
+    /**
+     * File recording what has been indexed (for incremental runs)
+     */
+    public File getManifestFile() { return manifestFile; }
+    public synchronized void setManifestFile(File manifestFile) { 
+        this.manifestFile = manifestFile; 
+        this.manifest = null;
+    }
+    
+    /**
+     * Use an already opened manifest, e.g. {@link IndexManifest#openShared} for distributed workers
+     */
+    public synchronized void setManifest(IndexManifest manifest) { 
+        this.manifest = manifest; 
+    }
+    
+    /**
+     * Directory receiving a JSON metrics report per indexed book (null disables export)
+     */
+    public File getMetricsDirectory() { return metricsDirectory; }
+    public void setMetricsDirectory(File metricsDirectory) { this.metricsDirectory = metricsDirectory; }
+    
+    /**
+     * Directory caching the cleaned text of parsed books, so re-indexing with other
+     * chunker settings skips extraction (null disables the cache)
+     */
+    public File getTextCacheDirectory() { return textCacheDirectory; }
+    public synchronized void setTextCacheDirectory(File textCacheDirectory) { 
+        this.textCacheDirectory = textCacheDirectory; 
+        parser.setTextCache(null);
+    }
+    
+    /**
+     * Directory holding per-book embedding checkpoints
+     */
+    public File getCheckpointDirectory() { return checkpointDirectory; }
+    public void setCheckpointDirectory(File checkpointDirectory) { 
+        this.checkpointDirectory = checkpointDirectory; 
+    }
+    
+    /**
+     * Near-duplicate detector used before embedding (null disables deduplication)
+     */
+    public NearDuplicateDetector getDuplicateDetector() { return duplicateDetector; }
+    public void setDuplicateDetector(NearDuplicateDetector duplicateDetector) { 
+        this.duplicateDetector = duplicateDetector; 
+    }
+    
+    public int getParseThreads() { return parseThreads; }
+    public synchronized void setParseThreads(int parseThreads) { 
+        this.parseThreads = parseThreads; 
+        shutdownExecutor(parsePool);
+        parsePool = null;
+    }
+    
+    public int getEmbedThreads() { return embedThreads; }
+    public synchronized void setEmbedThreads(int embedThreads) { 
+        this.embedThreads = embedThreads; 
+        shutdownExecutor(embedExecutor);
+        embedExecutor = null;
+    }
+    
+    public int getStoreThreads() { return storeThreads; }
+    public synchronized void setStoreThreads(int storeThreads) { 
+        this.storeThreads = storeThreads; 
+        shutdownExecutor(storeExecutor);
+        storeExecutor = null;
+    }
+    
+    public int getBatchSize() { return batchSize; }
+    public void setBatchSize(int batchSize) { this.batchSize = batchSize; }
+    
+    public int getInitialSampleSize() { return initialSampleSize; }
+    public void setInitialSampleSize(int initialSampleSize) { this.initialSampleSize = initialSampleSize; }
+    
+    public long getStreamingThresholdBytes() { return streamingThresholdBytes; }
+    public void setStreamingThresholdBytes(long streamingThresholdBytes) { this.streamingThresholdBytes = streamingThresholdBytes; }
+    
+    public int getQueueCapacity() { return queueCapacity; }
+    public void setQueueCapacity(int queueCapacity) { this.queueCapacity = queueCapacity; }
+    
+    private static void shutdownExecutor(ExecutorService executor) {
+        if (executor != null) {
+            executor.shutdown();
+        }
     }
     
     /**
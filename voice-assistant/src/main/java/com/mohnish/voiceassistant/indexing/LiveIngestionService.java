@@ -0,0 +1,339 @@
+package com.mohnish.voiceassistant.indexing;
+
+import com.mohnish.voiceassistant.document.CorpusCrawler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches the books directory tree and keeps the knowledge base in sync with it.
+ * Every folder is watched, including ones created later; files count as books
+ * by their content, as in {@link KnowledgeBaseIndexer#indexDirectory}.
+ *
+ * Events are coalesced per file; a file is only handed to the indexer once no
+ * event has arrived for {@code quietPeriodMs} and its size has stopped changing,
+ * so half-copied PDFs are never parsed. Indexing runs one book at a time on a
+ * single minimum-priority thread, leaving the CPU to the assistant; directory
+ * passes (catch-up on start, rescans) parse on a minimum-priority pool of their own.
+ */
+public class LiveIngestionService implements Closeable {
+    private static final Logger logger = LoggerFactory.getLogger(LiveIngestionService.class);
+
+    private final KnowledgeBaseIndexer indexer;
+    private final Path directory;
+    private final Map<Path, PendingChange> pending = new ConcurrentHashMap<>();
+    private final Map<WatchKey, Path> watched = new ConcurrentHashMap<>();  // Folder of each watch key
+    private final CorpusCrawler crawler = new CorpusCrawler();
+    private final ExecutorService worker;
+    private ForkJoinPool passPool;         // Parses the books of directory passes
+
+    private long quietPeriodMs = 2000;     // No events and a stable size for this long
+    private long pollIntervalMs = 500;
+    private boolean catchUpOnStart = true; // Index whatever changed while we were not watching
+    private boolean progressive = true;    // Make new books searchable before they are fully embedded
+
+    private WatchService watchService;
+    private Thread watcherThread;
+    private volatile boolean running;
+
+    public LiveIngestionService(KnowledgeBaseIndexer indexer, Path directory) {
+        this.indexer = indexer;
+        this.directory = directory.toAbsolutePath().normalize();
+        this.worker = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "live-ingestion-worker");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+    }
+
+    /**
+     * Start watching the directory
+     */
+    public synchronized void start() throws IOException {
+        if (running) {
+            return;
+        }
+        if (!Files.isDirectory(directory)) {
+            throw new IllegalArgumentException("Directory not found: " + directory);
+        }
+
+        watchService = FileSystems.getDefault().newWatchService();
+        watchTree(directory, false);
+        running = true;
+
+        if (catchUpOnStart) {
+            worker.execute(this::indexWholeDirectory);
+        }
+
+        watcherThread = new Thread(this::watchLoop, "live-ingestion-watcher");
+        watcherThread.setDaemon(true);
+        watcherThread.start();
+
+        logger.info("✅ Watching {} for new or changed books", directory);
+    }
+
+    private void watchLoop() {
+        while (running) {
+            try {
+                WatchKey key = watchService.poll(pollIntervalMs, TimeUnit.MILLISECONDS);
+                if (key != null) {
+                    collectEvents(key);
+                }
+                dispatchSettledChanges();
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                break;
+            } catch (Exception e) {
+                logger.error("Live ingestion watcher error: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Watch a folder and every folder below it (links are not followed). Files
+     * already in a folder that appeared while running are queued, since they
+     * may have arrived before the folder was watched.
+     */
+    private void watchTree(Path root, boolean queueFiles) throws IOException {
+        long now = System.currentTimeMillis();
+        Files.walkFileTree(root, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path folder, BasicFileAttributes attributes) throws IOException {
+                if (!folder.equals(directory) && isHidden(folder)) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                try {
+                    WatchKey key = folder.register(watchService,
+                        StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY,
+                        StandardWatchEventKinds.ENTRY_DELETE);
+                    watched.put(key, folder);
+                    return FileVisitResult.CONTINUE;
+                } catch (IOException e) {
+                    if (folder.equals(directory)) throw e;
+                    logger.warn("Cannot watch {}: {}", folder, e.getMessage());
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+                if (queueFiles && attributes.isRegularFile() && !isHidden(file)) {
+                    pending.computeIfAbsent(file, path -> new PendingChange()).lastEventAt = now;
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException e) {
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private void watchNewFolders(Path root, boolean queueFiles) {
+        try {
+            watchTree(root, queueFiles);
+        } catch (IOException e) {
+            logger.warn("Cannot watch {}: {}", root, e.getMessage());
+        }
+    }
+
+    private void collectEvents(WatchKey key) {
+        long now = System.currentTimeMillis();
+        Path folder = watched.get(key);
+
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                // Events were lost; a directory pass will reconcile everything
+                logger.warn("Watch events overflowed, rescanning {}", directory);
+                pending.clear();
+                watchNewFolders(directory, false);
+                worker.execute(this::indexWholeDirectory);
+                continue;
+            }
+            if (folder == null) {
+                continue;
+            }
+
+            Path file = folder.resolve((Path) event.context());
+            if (isHidden(file)) {
+                continue;
+            }
+            if (Files.isDirectory(file, LinkOption.NOFOLLOW_LINKS)) {
+                if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE) {
+                    watchNewFolders(file, true);
+                }
+                continue;
+            }
+
+            // Later events for the same file replace earlier ones; what it is is decided once it settles
+            PendingChange change = pending.computeIfAbsent(file, path -> new PendingChange());
+            change.lastEventAt = now;
+            change.deleted = event.kind() == StandardWatchEventKinds.ENTRY_DELETE;
+        }
+
+        if (!key.reset()) {
+            watched.remove(key);
+            if (directory.equals(folder)) {
+                logger.error("❌ Books directory is no longer accessible: {}", directory);
+                running = false;
+            }
+        }
+    }
+
+    private void dispatchSettledChanges() {
+        long now = System.currentTimeMillis();
+        Iterator<Map.Entry<Path, PendingChange>> iterator = pending.entrySet().iterator();
+
+        while (iterator.hasNext()) {
+            Map.Entry<Path, PendingChange> entry = iterator.next();
+            Path file = entry.getKey();
+            PendingChange change = entry.getValue();
+
+            if (now - change.lastEventAt < quietPeriodMs) {
+                continue;
+            }
+
+            boolean deleted = change.deleted || !Files.exists(file);
+            if (!deleted) {
+                // Still being written: wait for the size to settle
+                long size = sizeOf(file);
+                if (size != change.lastSize) {
+                    change.lastSize = size;
+                    change.lastEventAt = now;
+                    continue;
+                }
+            }
+
+            iterator.remove();
+            worker.execute(() -> apply(file, deleted));
+        }
+    }
+
+    private void apply(Path file, boolean deleted) {
+        try {
+            if (deleted) {
+                // A book, or a folder of books; anything else is not in the index
+                indexer.removeMissingBooks(file.toFile());
+            } else if (crawler.isDocument(file.toFile())) {
+                logger.info("📚 Book added or changed: {}", file.getFileName());
+                IndexingResult result = progressive
+                    ? indexer.indexBookProgressively(file.toFile())
+                    : indexer.indexBook(file.toFile());
+                logger.info("{}", result);
+            }
+        } catch (Exception e) {
+            logger.error("❌ Live ingestion failed for {}: {}", file.getFileName(), e.getMessage());
+        }
+    }
+
+    private void indexWholeDirectory() {
+        try {
+            List<IndexingResult> results = indexer.indexDirectory(directory.toString(), passPool());
+            // Unchanged books are filtered out by the crawl and do not appear here
+            long indexed = results.stream().filter(result -> result.isSuccess() && !result.isSkipped()).count();
+            logger.info("✅ Directory pass complete ({} books indexed)", indexed);
+        } catch (Exception e) {
+            logger.error("❌ Directory pass failed: {}", e.getMessage());
+        }
+    }
+
+    /** Hidden files and folders (.git, .Trash, ...) are skipped, as by the crawl */
+    private static boolean isHidden(Path file) {
+        return file.getFileName().toString().startsWith(".");
+    }
+
+    /**
+     * Threads of minimum priority, fewer than the cores, so a pass over a whole
+     * library cannot starve the assistant; no compensating threads are added
+     */
+    private synchronized ForkJoinPool passPool() {
+        if (passPool == null) {
+            int threads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+            passPool = new ForkJoinPool(threads, pool -> {
+                ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                thread.setName("live-ingestion-parse-" + thread.getPoolIndex());
+                thread.setPriority(Thread.MIN_PRIORITY);
+                return thread;
+            }, null, false, 0, threads, 1, pool -> true, 60, TimeUnit.SECONDS);
+        }
+        return passPool;
+    }
+
+    private static long sizeOf(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Files seen by the watcher that have not yet settled
+     */
+    public List<Path> getPendingFiles() {
+        return new ArrayList<>(pending.keySet());
+    }
+
+    public boolean isRunning() { return running; }
+
+    @Override
+    public synchronized void close() throws IOException {
+        running = false;
+        if (watcherThread != null) {
+            watcherThread.interrupt();
+        }
+        if (watchService != null) {
+            watchService.close();
+        }
+        worker.shutdown();
+        if (passPool != null) {
+            passPool.shutdown();
+        }
+        logger.info("Live ingestion stopped");
+    }
+
+    // Getters and setters
+    public long getQuietPeriodMs() { return quietPeriodMs; }
+    public void setQuietPeriodMs(long quietPeriodMs) { this.quietPeriodMs = quietPeriodMs; }
+
+    public long getPollIntervalMs() { return pollIntervalMs; }
+    public void setPollIntervalMs(long pollIntervalMs) { this.pollIntervalMs = pollIntervalMs; }
+
+    public boolean isProgressive() { return progressive; }
+    public void setProgressive(boolean progressive) { this.progressive = progressive; }
+
+    public boolean isCatchUpOnStart() { return catchUpOnStart; }
+    public void setCatchUpOnStart(boolean catchUpOnStart) { this.catchUpOnStart = catchUpOnStart; }
+
+    private static class PendingChange {
+        private long lastEventAt;
+        private long lastSize = -1;
+        private boolean deleted;
+    }
+}
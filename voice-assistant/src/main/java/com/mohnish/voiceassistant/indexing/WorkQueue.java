@@ -0,0 +1,280 @@
+package com.mohnish.voiceassistant.indexing;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Lease-based queue of books in a shared directory; no broker needed.
+ *
+ * A task is a small JSON file that moves between {@code pending/},
+ * {@code leased/}, {@code done/} and {@code failed/}. Claiming is an atomic
+ * rename into {@code leased/} under a name unique to that claim, so exactly
+ * one worker wins each task and a reclaimed lease can never be completed by
+ * its previous holder. The holder heartbeats by touching the lease file; a
+ * lease whose file has not been touched for {@code leaseMs} is moved back to
+ * {@code pending/} by whoever notices first. The directory must support atomic renames (local
+ * disk or NFS/SMB share).
+ */
+public class WorkQueue {
+    private static final Logger logger = LoggerFactory.getLogger(WorkQueue.class);
+
+    private final Path pending;
+    private final Path leased;
+    private final Path done;
+    private final Path failed;
+    private final Gson gson = new Gson();
+
+    private long leaseMs = 5 * 60 * 1000;  // Leases not renewed for this long are reclaimed
+    private int maxAttempts = 3;           // Failures before a task is parked in failed/
+
+    public WorkQueue(File directory) throws IOException {
+        Path root = directory.toPath();
+        this.pending = Files.createDirectories(root.resolve("pending"));
+        this.leased = Files.createDirectories(root.resolve("leased"));
+        this.done = Files.createDirectories(root.resolve("done"));
+        this.failed = Files.createDirectories(root.resolve("failed"));
+    }
+
+    /**
+     * Add a book unless it is already pending or leased
+     *
+     * @return true if a new task was created
+     */
+    public boolean enqueue(File bookFile) throws IOException {
+        String id = bookTaskId(bookFile);
+        String name = id + ".json";
+        if (Files.exists(pending.resolve(name)) || isLeased(id)) {
+            return false;
+        }
+
+        Files.deleteIfExists(done.resolve(name));
+        Files.deleteIfExists(failed.resolve(name));
+        writeTask(pending.resolve(name), new Task(id, bookFile.getAbsolutePath(), 0));
+        return true;
+    }
+
+    /**
+     * Claim the next pending task, or return null if none is available
+     */
+    public Lease claim(String workerId) throws IOException {
+        for (Path candidate : list(pending)) {
+            String id = taskId(candidate);
+            Path target = leased.resolve(id + "~" + UUID.randomUUID().toString().substring(0, 8) + ".json");
+            try {
+                Files.move(candidate, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (NoSuchFileException | FileAlreadyExistsException e) {
+                continue; // Another worker was faster
+            }
+
+            // The rename keeps the old mtime; start the lease now
+            Files.setLastModifiedTime(target, FileTime.fromMillis(System.currentTimeMillis()));
+            Task task = readTask(target);
+            if (task == null) {
+                Files.move(target, failed.resolve(id + ".json"), StandardCopyOption.REPLACE_EXISTING);
+                continue;
+            }
+
+            logger.info("Worker {} leased {}", workerId, new File(task.path).getName());
+            return new Lease(task, target);
+        }
+        return null;
+    }
+
+    /**
+     * Move leases that stopped heartbeating back to pending
+     *
+     * @return number of reclaimed leases
+     */
+    public int reclaimExpired() throws IOException {
+        long cutoff = System.currentTimeMillis() - leaseMs;
+        int reclaimed = 0;
+
+        for (Path lease : list(leased)) {
+            try {
+                if (Files.getLastModifiedTime(lease).toMillis() >= cutoff) {
+                    continue;
+                }
+                Files.move(lease, pending.resolve(taskId(lease) + ".json"), StandardCopyOption.ATOMIC_MOVE);
+                reclaimed++;
+                logger.warn("Reclaimed expired lease {}", lease.getFileName());
+            } catch (NoSuchFileException | FileAlreadyExistsException e) {
+                // Completed, renewed elsewhere or reclaimed by someone else
+            }
+        }
+        return reclaimed;
+    }
+
+    public int pendingCount() throws IOException { return list(pending).size(); }
+    public int leasedCount() throws IOException { return list(leased).size(); }
+    public int doneCount() throws IOException { return list(done).size(); }
+    public int failedCount() throws IOException { return list(failed).size(); }
+
+    /**
+     * True when nothing is pending or leased
+     */
+    public boolean isDrained() throws IOException {
+        return pendingCount() == 0 && leasedCount() == 0;
+    }
+
+    private boolean isLeased(String id) throws IOException {
+        for (Path lease : list(leased)) {
+            if (taskId(lease).equals(id)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Task ID of a task or lease file ({@code <id>.json} or {@code <id>~<claim>.json})
+     */
+    private static String taskId(Path file) {
+        String name = file.getFileName().toString();
+        name = name.substring(0, name.length() - ".json".length());
+        int claim = name.indexOf('~');
+        return claim >= 0 ? name.substring(0, claim) : name;
+    }
+
+    private List<Path> list(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            List<Path> result = new ArrayList<>();
+            files.filter(path -> path.getFileName().toString().endsWith(".json")).sorted().forEach(result::add);
+            return result;
+        }
+    }
+
+    private Task readTask(Path file) {
+        try {
+            JsonObject json = gson.fromJson(Files.readString(file, StandardCharsets.UTF_8), JsonObject.class);
+            return new Task(json.get("id").getAsString(), json.get("path").getAsString(),
+                json.has("attempts") ? json.get("attempts").getAsInt() : 0);
+        } catch (IOException | JsonParseException | NullPointerException | IllegalStateException e) {
+            logger.error("Unreadable task file {}", file.getFileName());
+            return null;
+        }
+    }
+
+    private void writeTask(Path target, Task task) throws IOException {
+        JsonObject json = new JsonObject();
+        json.addProperty("id", task.id);
+        json.addProperty("path", task.path);
+        json.addProperty("attempts", task.attempts);
+
+        // Write next to the target, then rename, so readers never see a partial file
+        Path temp = target.resolveSibling("." + UUID.randomUUID() + ".tmp");
+        Files.writeString(temp, gson.toJson(json), StandardCharsets.UTF_8);
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * File-name-safe form of the book's manifest source key, so two paths never share a task
+     */
+    private static String bookTaskId(File bookFile) {
+        return IndexManifest.sourceKey(bookFile).replaceAll("[^a-zA-Z0-9]", "_").toLowerCase();
+    }
+
+    // Getters and setters
+    public long getLeaseMs() { return leaseMs; }
+    public void setLeaseMs(long leaseMs) { this.leaseMs = leaseMs; }
+
+    public int getMaxAttempts() { return maxAttempts; }
+    public void setMaxAttempts(int maxAttempts) { this.maxAttempts = maxAttempts; }
+
+    private static class Task {
+        private final String id;
+        private final String path;
+        private final int attempts;
+
+        private Task(String id, String path, int attempts) {
+            this.id = id;
+            this.path = path;
+            this.attempts = attempts;
+        }
+    }
+
+    /**
+     * A claimed task; renew it regularly and finish it with complete() or fail()
+     */
+    public class Lease {
+        private final Task task;
+        private final Path file;
+
+        private Lease(Task task, Path file) {
+            this.task = task;
+            this.file = file;
+        }
+
+        public File getBookFile() { return new File(task.path); }
+
+        public int getAttempts() { return task.attempts; }
+
+        /**
+         * Extend the lease; returns false if it expired and was reclaimed
+         */
+        public boolean renew() {
+            try {
+                Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+                return true;
+            } catch (IOException e) {
+                return false;
+            }
+        }
+
+        /**
+         * Mark the book as indexed
+         */
+        public void complete() throws IOException {
+            try {
+                Files.move(file, done.resolve(task.id + ".json"), StandardCopyOption.REPLACE_EXISTING);
+            } catch (NoSuchFileException e) {
+                logger.warn("Lease for {} was reclaimed before completion", getBookFile().getName());
+            }
+        }
+
+        /**
+         * Return the task for another attempt, or park it in failed/ after maxAttempts
+         */
+        public void fail(String reason) throws IOException {
+            Task retry = new Task(task.id, task.path, task.attempts + 1);
+            Path target = retry.attempts >= maxAttempts
+                ? failed.resolve(task.id + ".json")
+                : pending.resolve(task.id + ".json");
+
+            logger.warn("Task {} failed (attempt {}/{}): {}", getBookFile().getName(), retry.attempts, maxAttempts, reason);
+            if (!Files.exists(file)) {
+                return; // Reclaimed meanwhile; it is already pending again
+            }
+
+            // Count the attempt in the lease itself, then move it: the task is in
+            // leased/ or at its target at every moment, so a crash cannot lose it
+            writeTask(file, retry);
+            try {
+                Files.move(file, target, StandardCopyOption.REPLACE_EXISTING);
+            } catch (NoSuchFileException e) {
+                // Reclaimed in between, with the attempt counted
+            }
+        }
+    }
+}
@@ -9,6 +9,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 
 public class ChromaDBClient {
@@ -140,8 +141,27 @@ public class ChromaDBClient {
                             List<List<Double>> embeddings, 
                             List<String> documents,
                             List<Map<String, String>> metadatas) throws IOException {
+        writeDocuments("add", collectionName, ids, embeddings, documents, metadatas);
+    }
+    
+    /**
+     * Insert documents, replacing any existing ones with the same IDs (v2 API)
+     *
+     * @return size of the request body in bytes
+     */
+    public long upsertDocuments(String collectionName, List<String> ids, 
+                               List<List<Double>> embeddings, 
+                               List<String> documents,
+                               List<Map<String, String>> metadatas) throws IOException {
+        return writeDocuments("upsert", collectionName, ids, embeddings, documents, metadatas);
+    }
+    
+    private long writeDocuments(String operation, String collectionName, List<String> ids, 
+                                List<List<Double>> embeddings, 
+                                List<String> documents,
+                                List<Map<String, String>> metadatas) throws IOException {
         
-        logger.info("Adding {} documents to collection: {}", ids.size(), collectionName);
+        logger.info("Writing {} documents to collection: {} ({})", ids.size(), collectionName, operation);
         
         // Ensure collection exists
         createCollection(collectionName);
@@ -156,10 +176,11 @@ public class ChromaDBClient {
         requestBody.add("documents", gson.toJsonTree(documents));
         requestBody.add("metadatas", gson.toJsonTree(metadatas));
         
-        String url = String.format("%s/api/v2/tenants/%s/databases/%s/collections/%s/add", 
-            baseUrl, DEFAULT_TENANT, DEFAULT_DATABASE, collectionId);
+        String url = String.format("%s/api/v2/tenants/%s/databases/%s/collections/%s/%s", 
+            baseUrl, DEFAULT_TENANT, DEFAULT_DATABASE, collectionId, operation);
         
-        RequestBody body = RequestBody.create(gson.toJson(requestBody), JSON);
+        byte[] payload = gson.toJson(requestBody).getBytes(StandardCharsets.UTF_8);
+        RequestBody body = RequestBody.create(payload, JSON);
         Request request = new Request.Builder()
             .url(url)
             .post(body)
@@ -169,10 +190,45 @@ public class ChromaDBClient {
             String responseBody = response.body() != null ? response.body().string() : "";
             
             if (response.isSuccessful()) {
-                logger.info("✅ Added {} documents", ids.size());
+                logger.info("✅ Wrote {} documents", ids.size());
+                return payload.length;
+            } else {
+                logger.error("Failed to {} documents: {} - {}", operation, response.code(), responseBody);
+                throw new IOException("Failed to " + operation + " documents: " + response.code() + " - " + responseBody);
+            }
+        }
+    }
+    
+    /**
+     * Delete documents by ID (v2 API)
+     */
+    public void deleteDocuments(String collectionName, List<String> ids) throws IOException {
+        if (ids.isEmpty()) {
+            return;
+        }
+        logger.info("Deleting {} documents from collection: {}", ids.size(), collectionName);
+        
+        String collectionId = getCollectionId(collectionName);
+        
+        JsonObject requestBody = new JsonObject();
+        requestBody.add("ids", gson.toJsonTree(ids));
+        
+        String url = String.format("%s/api/v2/tenants/%s/databases/%s/collections/%s/delete", 
+            baseUrl, DEFAULT_TENANT, DEFAULT_DATABASE, collectionId);
+        
+        RequestBody body = RequestBody.create(gson.toJson(requestBody), JSON);
+        Request request = new Request.Builder()
+            .url(url)
+            .post(body)
+            .build();
+        
+        try (Response response = httpClient.newCall(request).execute()) {
+            if (response.isSuccessful()) {
+                logger.info("✅ Deleted {} documents", ids.size());
             } else {
-                logger.error("Failed to add documents: {} - {}", response.code(), responseBody);
-                throw new IOException("Failed to add documents: " + response.code() + " - " + responseBody);
+                String error = response.body() != null ? response.body().string() : "Unknown";
+                logger.error("Failed to delete documents: {} - {}", response.code(), error);
+                throw new IOException("Failed to delete documents: " + response.code() + " - " + error);
             }
         }
     }
@@ -0,0 +1,76 @@
+package com.mohnish.voiceassistant.document;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Random texts, chunker settings and chunk descriptions shared by the chunking tests
+ */
+final class ChunkerFixtures {
+
+    // Words, whitespace runs, paragraph breaks, terminators, abbreviations and decimals
+    static final String[] PROSE = {
+        "Word", " ", "  ", "\n", "\n\n", "\n\n\n", "\r\n", " \n \n", "\t", ". ", "! ", "?", "end.", "x",
+        "Dr. ", "e.g. ", "J. ", "3.14", "... ", "\" ", ")", "\u00E9t\u00E9"
+    };
+
+    private ChunkerFixtures() {
+    }
+
+    static String randomText(Random random, int fragments) {
+        return randomText(random, PROSE, fragments);
+    }
+
+    static String randomText(Random random, String[] from, int fragments) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < fragments; i++) {
+            text.append(from[random.nextInt(from.length)]);
+        }
+        return text.toString();
+    }
+
+    /**
+     * Word-sized and token-budgeted chunkers, large and small, for every strategy
+     */
+    static List<TextChunker> chunkers() {
+        List<TextChunker> chunkers = new ArrayList<>();
+        for (TextChunker.ChunkingStrategy strategy : TextChunker.ChunkingStrategy.values()) {
+            chunkers.add(new TextChunker(500, 50, strategy));
+            chunkers.add(new TextChunker(30, 5, strategy));
+            TextChunker budgeted = new TextChunker(500, 20, strategy);
+            budgeted.setTokenBudget(120);
+            chunkers.add(budgeted);
+        }
+        return chunkers;
+    }
+
+    /**
+     * Everything that identifies a chunk, for comparing chunkings
+     */
+    static List<String> describe(Iterator<DocumentChunk> chunks) {
+        List<String> described = new ArrayList<>();
+        chunks.forEachRemaining(chunk -> described.add(chunk.getId() + "|" + chunk.getChunkIndex() + "|"
+            + chunk.getStartPosition() + "|" + chunk.getEndPosition() + "|" + chunk.getText() + "|" + chunk.getMetadata()));
+        return described;
+    }
+
+    static List<String> describe(List<DocumentChunk> chunks) {
+        return describe(chunks.iterator());
+    }
+
+    /**
+     * Text with control and non-ASCII characters escaped, for failure messages
+     */
+    static String escape(String text) {
+        if (text == null) {
+            return "null";
+        }
+        StringBuilder escaped = new StringBuilder();
+        for (char c : text.toCharArray()) {
+            escaped.append(c < 0x20 || c > 0x7E ? String.format("\\u%04X", (int) c) : String.valueOf(c));
+        }
+        return escaped.toString();
+    }
+}
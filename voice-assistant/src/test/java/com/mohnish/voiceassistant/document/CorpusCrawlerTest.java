@@ -0,0 +1,84 @@
+package com.mohnish.voiceassistant.document;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Documents are recognised by content, and cheap skips happen before any byte is read
+ */
+public class CorpusCrawlerTest {
+
+    private static final String PROSE = "A paragraph of plain prose that is long enough to count as a document. ".repeat(8);
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void detectsTypesByContent() throws IOException {
+        assertEquals(CorpusCrawler.PDF, CorpusCrawler.detectType(write("scan.bin", pdfBytes())));
+        assertEquals(CorpusCrawler.TEXT, CorpusCrawler.detectType(write("notes.txt", PROSE.getBytes(StandardCharsets.UTF_8))));
+        assertFalse(CorpusCrawler.isSupportedType(CorpusCrawler.detectType(write("photo.png", pngBytes()))));
+    }
+
+    @Test
+    public void skipsTinyHiddenUnsupportedAndIndexedFiles() throws IOException {
+        File book = write("library/book.pdf", pdfBytes());
+        File notes = write("library/deep/er/notes.txt", PROSE.getBytes(StandardCharsets.UTF_8));
+        File indexed = write("library/indexed.txt", PROSE.getBytes(StandardCharsets.UTF_8));
+        write("library/empty.txt", "tiny".getBytes(StandardCharsets.UTF_8));
+        write("library/photo.png", pngBytes());
+        write("library/.trash/old.txt", PROSE.getBytes(StandardCharsets.UTF_8));
+
+        CorpusCrawler crawler = new CorpusCrawler();
+        crawler.setAlreadyIndexed(indexed::equals);
+        Map<File, String> found = new ConcurrentHashMap<>();
+        CorpusCrawler.CrawlStats stats = crawler.crawl(tempDir.resolve("library").toFile(), found::put);
+
+        assertEquals(Map.of(book, CorpusCrawler.PDF, notes, CorpusCrawler.TEXT), found);
+        assertEquals(5, stats.getScanned());
+        assertEquals(2, stats.getDiscovered());
+        assertEquals(1, stats.getSkippedTiny());
+        assertEquals(1, stats.getSkippedIndexed());
+        assertEquals(1, stats.getSkippedUnsupported());
+        assertEquals(List.of(book, notes), crawler.findDocuments(tempDir.resolve("library").toFile()));
+    }
+
+    @Test
+    public void doesNotFollowSymbolicLinks() throws IOException {
+        File book = write("library/shelf/book.pdf", pdfBytes());
+        Path library = tempDir.resolve("library");
+        Files.createSymbolicLink(library.resolve("shelf/back-to-library"), library);
+        Files.createSymbolicLink(library.resolve("same-book.pdf"), book.toPath());
+
+        assertEquals(List.of(book), new CorpusCrawler().findDocuments(library.toFile()));
+    }
+
+    private File write(String path, byte[] content) throws IOException {
+        Path file = tempDir.resolve(path);
+        Files.createDirectories(file.getParent());
+        Files.write(file, content);
+        return file.toFile();
+    }
+
+    private static byte[] pdfBytes() {
+        return ("%PDF-1.4\n" + "%".repeat(300) + "\n%%EOF\n").getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static byte[] pngBytes() {
+        byte[] bytes = new byte[512];
+        byte[] signature = { (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n' };
+        System.arraycopy(signature, 0, bytes, 0, signature.length);
+        return bytes;
+    }
+}
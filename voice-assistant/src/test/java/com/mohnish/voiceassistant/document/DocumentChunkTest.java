@@ -0,0 +1,54 @@
+package com.mohnish.voiceassistant.document;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Chunk metadata is built from the chunk's counts and the shared run settings
+ */
+public class DocumentChunkTest {
+
+    private static final String TEXT = "First sentence here. Second one follows it. A third closes the text.";
+
+    @Test
+    public void metadataComesFromCountsAndRunSettings() {
+        TextChunker chunker = new TextChunker(6, 2, TextChunker.ChunkingStrategy.SENTENCE_BOUNDARY);
+        List<DocumentChunk> chunks = chunker.chunkDocument(TEXT, "book.txt", "Book");
+        assertTrue(chunks.size() > 1);
+        assertSame(chunks.get(0).getConfig(), chunks.get(1).getConfig());
+
+        DocumentChunk chunk = chunks.get(0);
+        assertEquals(Map.of(
+            "word_count", String.valueOf(chunk.getWordCount()),
+            "char_count", String.valueOf(chunk.getText().length()),
+            "strategy", "SENTENCE_BOUNDARY",
+            "chunk_size_config", "6",
+            "overlap_config", "2"), chunk.getMetadata());
+
+        chunk.addMetadata("page", "3");
+        assertEquals("3", chunk.getMetadata().get("page"));
+        assertEquals("6", chunk.getMetadata().get("chunk_size_config"));
+    }
+
+    @Test
+    public void tokenBudgetAddsTokenCounts() {
+        TextChunker chunker = new TextChunker(500, 0, TextChunker.ChunkingStrategy.SENTENCE_BOUNDARY);
+        chunker.setTokenBudget(100);
+        DocumentChunk chunk = chunker.chunkDocument(TEXT, "book.txt", "Book").get(0);
+        assertEquals(String.valueOf(TokenEstimator.estimate(TEXT)), chunk.getMetadata().get("token_count"));
+        assertEquals("100", chunk.getMetadata().get("token_budget_config"));
+    }
+
+    @Test
+    public void chunksBuiltByHandStartWithoutMetadata() {
+        DocumentChunk chunk = new DocumentChunk("id", "Some text", "book.txt", 0);
+        assertNull(chunk.getConfig());
+        assertTrue(chunk.getMetadata().isEmpty());
+        chunk.addMetadata("source", "manual");
+        assertEquals(Map.of("source", "manual"), chunk.getMetadata());
+    }
+}
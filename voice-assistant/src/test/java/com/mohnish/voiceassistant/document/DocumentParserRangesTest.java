@@ -0,0 +1,84 @@
+package com.mohnish.voiceassistant.document;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Splitting a PDF into page ranges must not change the extracted text
+ */
+public class DocumentParserRangesTest {
+
+    private static final int PAGES = 23;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void pageRangesExtractTheSameTextAsOneThread() throws IOException {
+        File pdf = writePdf("ranges.pdf");
+
+        DocumentParser single = new DocumentParser();
+        single.setMaxParallelRanges(1);
+        String expected = single.extractRawTextFromPDF(pdf);
+
+        DocumentParser ranged = new DocumentParser();
+        ranged.setPagesPerTask(2);
+        ranged.setMaxParallelRanges(5);
+        assertEquals(5, ranged.parallelRanges(pdf));
+        String actual = ranged.extractRawTextFromPDF(pdf);
+
+        assertEquals(PAGES, DocumentParser.countPages(expected));
+        assertTrue(expected.contains("Page 17 of the sample book"));
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void memoryBudgetLimitsCopiesOfTheDocument() throws IOException {
+        File pdf = writePdf("budget.pdf");
+
+        DocumentParser parser = new DocumentParser();
+        parser.setPagesPerTask(2);
+        parser.setMaxParallelRanges(8);
+        parser.setMaxExtractionMemoryBytes(3 * 2 * pdf.length());
+        assertEquals(3, parser.parallelRanges(pdf));
+
+        parser.setMaxExtractionMemoryBytes(1);
+        assertEquals(1, parser.parallelRanges(pdf));
+        assertEquals(PAGES, DocumentParser.countPages(parser.extractRawTextFromPDF(pdf)));
+    }
+
+    /**
+     * A PDF with one line of text per page, except for a few blank pages
+     */
+    private File writePdf(String name) throws IOException {
+        File file = tempDir.resolve(name).toFile();
+        try (PDDocument document = new PDDocument()) {
+            for (int i = 1; i <= PAGES; i++) {
+                PDPage page = new PDPage();
+                document.addPage(page);
+                if (i % 7 == 0) {
+                    continue;
+                }
+                try (PDPageContentStream content = new PDPageContentStream(document, page)) {
+                    content.beginText();
+                    content.setFont(PDType1Font.HELVETICA, 12);
+                    content.newLineAtOffset(72, 700);
+                    content.showText("Page " + i + " of the sample book.");
+                    content.endText();
+                }
+            }
+            document.save(file);
+        }
+        return file;
+    }
+}
@@ -0,0 +1,69 @@
+package com.mohnish.voiceassistant.document;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pieces from MappedTextSource must add up to the decoded file, minus page breaks
+ */
+public class MappedTextSourceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static final String[] FRAGMENTS = {
+        "a", "word ", " ", "\n", "\f", "\u00E9", "\uD835\uDC00", "\u4E2D\u6587", "\t", "xyz"
+    };
+
+    @Test
+    public void splitsAtPageBreaks() throws IOException {
+        assertEquals(List.of("first page", "second page", "third"), read("first page\fsecond page\fthird".getBytes(StandardCharsets.UTF_8), 64));
+    }
+
+    @Test
+    public void cutsFullWindowsAtWhitespace() throws IOException {
+        assertEquals(List.of("one two ", "three"), read("one two three".getBytes(StandardCharsets.UTF_8), 10));
+    }
+
+    @Test
+    public void reconstructsRandomText() throws IOException {
+        Random random = new Random(42);
+        for (int round = 0; round < 2000; round++) {
+            byte[] bytes = ChunkerFixtures.randomText(random, FRAGMENTS, random.nextInt(200)).getBytes(StandardCharsets.UTF_8);
+            if (bytes.length > 0 && random.nextInt(5) == 0) {
+                bytes[random.nextInt(bytes.length)] = (byte) 0xC3;  // Malformed sequence
+            }
+            int windowChars = 8 + random.nextInt(40);
+
+            StringBuilder joined = new StringBuilder();
+            for (String piece : read(bytes, windowChars)) {
+                assertTrue(piece.length() <= windowChars);
+                joined.append(piece);
+            }
+            String expected = new String(bytes, StandardCharsets.UTF_8).replace("\f", "");
+            assertEquals(expected, joined.toString(), "round " + round);
+        }
+    }
+
+    private List<String> read(byte[] bytes, int windowChars) throws IOException {
+        File file = tempDir.resolve("book.txt").toFile();
+        Files.write(file.toPath(), bytes);
+
+        List<String> pieces = new ArrayList<>();
+        try (MappedTextSource source = new MappedTextSource(file, windowChars)) {
+            source.forEachRemaining(pieces::add);
+        }
+        return pieces;
+    }
+}
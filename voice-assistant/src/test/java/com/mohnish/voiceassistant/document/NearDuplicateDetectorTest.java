@@ -0,0 +1,66 @@
+package com.mohnish.voiceassistant.document;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class NearDuplicateDetectorTest {
+
+    private static final String BOILERPLATE =
+        "This chapter is part of the field guide. Copies may be shared for personal study "
+        + "but not sold. Report errors to the editors so the next printing can correct them.";
+
+    @Test
+    public void nearDuplicatesInABookPointToTheFirstCopy() {
+        NearDuplicateDetector detector = new NearDuplicateDetector();
+
+        DocumentChunk first = chunk("guide_chunk_0000", BOILERPLATE, "guide");
+        DocumentChunk reworded = chunk("guide_chunk_0007", BOILERPLATE.replace("correct them", "correct it"), "guide");
+        DocumentChunk unrelated = chunk("guide_chunk_0003",
+            "Oak trees keep their dead leaves through the winter and drop them when new buds open in spring.", "guide");
+
+        assertNull(detector.findOrRegister(first));
+        assertNull(detector.findOrRegister(unrelated));
+        assertEquals(first.getId(), detector.findOrRegister(reworded));
+        assertEquals(2, detector.size());
+    }
+
+    @Test
+    public void duplicatesInOtherBooksAreKept() {
+        NearDuplicateDetector detector = new NearDuplicateDetector();
+
+        assertNull(detector.findOrRegister(chunk("guide_chunk_0000", BOILERPLATE, "guide")));
+        assertNull(detector.findOrRegister(chunk("atlas_chunk_0000", BOILERPLATE, "atlas")));
+
+        Map<String, String> links = new HashMap<>();
+        List<DocumentChunk> kept = detector.filter(List.of(
+            chunk("atlas_chunk_0001", BOILERPLATE, "atlas"),
+            chunk("other_chunk_0000", BOILERPLATE, "other")), links);
+
+        assertEquals(1, kept.size());
+        assertEquals("other_chunk_0000", kept.get(0).getId());
+        assertEquals(Map.of("atlas_chunk_0001", "atlas_chunk_0000"), links);
+    }
+
+    @Test
+    public void forgetSourceDropsOnlyThatBook() {
+        NearDuplicateDetector detector = new NearDuplicateDetector();
+        detector.findOrRegister(chunk("guide_chunk_0000", BOILERPLATE, "guide"));
+        detector.findOrRegister(chunk("atlas_chunk_0000", BOILERPLATE, "atlas"));
+
+        detector.forgetSource("guide");
+
+        assertEquals(1, detector.size());
+        // The re-indexed book registers its chunks again instead of matching stale entries
+        assertNull(detector.findOrRegister(chunk("guide_chunk_0000", BOILERPLATE, "guide")));
+        assertEquals("atlas_chunk_0000", detector.findOrRegister(chunk("atlas_chunk_0005", BOILERPLATE, "atlas")));
+    }
+
+    private static DocumentChunk chunk(String id, String text, String source) {
+        return new DocumentChunk(id, text, source, 0);
+    }
+}
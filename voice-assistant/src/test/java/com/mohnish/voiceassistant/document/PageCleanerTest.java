@@ -0,0 +1,86 @@
+package com.mohnish.voiceassistant.document;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import static com.mohnish.voiceassistant.document.ChunkerFixtures.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Cleaning page by page must give what cleaning the whole book gives
+ */
+public class PageCleanerTest {
+
+    // Page edges meet whitespace, punctuation, page numbers, addresses and blank pages
+    private static final String[] FRAGMENTS = {
+        " ", "  ", "\t", "\n", "\r\n", "\u00A0", "\u0001", "", "",
+        "a", "word", "The", "X", "l", "0", "12", "7", "-", ".", ",", "!", "?", ";", ":", "(", ")",
+        "Page", "Page 3", "Chapter 12", "me@site.com", "x@y", ".com", "http://example.org/a?b=c",
+        "(cid:42)", "\u0301", "\u00E9"
+    };
+
+    @Test
+    public void matchesCleaningTheJoinedPages() {
+        TextNormalizer normalizer = new TextNormalizer();
+        Random random = new Random(5);
+        for (int round = 0; round < 20000; round++) {
+            List<String> pages = new ArrayList<>();
+            int pageCount = 1 + random.nextInt(6);
+            for (int page = 0; page < pageCount; page++) {
+                pages.add(randomText(random, FRAGMENTS, random.nextInt(8)));
+            }
+
+            PageCleaner cleaner = new PageCleaner();
+            StringBuilder streamed = new StringBuilder();
+            for (String page : pages) {
+                streamed.append(cleaner.clean(page));
+            }
+            String joined = String.join(String.valueOf(DocumentParser.PAGE_BREAK), pages);
+            if (joined.matches("\\s*((Page|Chapter)\\s+)?\\d+\\s*")) {
+                continue;  // A book that is one page-number line, the documented difference
+            }
+            assertEquals(normalizer.normalize(joined), streamed.toString(), "pages: " + escape(String.join("|", pages)));
+        }
+    }
+
+    @Test
+    public void lineTerminatorsInsideAPageAreHandledAsInTheWholeText() {
+        List<String> pages = List.of("Intro\u2028Page 4\u2028text", " , more\u2028 12 \u2029", "Chapter 2\u2028ends.");
+        PageCleaner cleaner = new PageCleaner();
+        StringBuilder streamed = new StringBuilder();
+        for (String page : pages) {
+            streamed.append(cleaner.clean(page));
+        }
+        assertEquals(new TextNormalizer().normalize(String.join("\f", pages)), streamed.toString());
+    }
+
+    @Test
+    public void streamedChunksMatchChunkingTheCleanedBook() {
+        Random random = new Random(17);
+        List<String> pages = new ArrayList<>();
+        for (int page = 1; page <= 60; page++) {
+            StringBuilder text = new StringBuilder(page % 11 == 0 ? "" : "  " + page + "\n");
+            int sentences = page % 13 == 0 ? 0 : 5 + random.nextInt(30);
+            for (int i = 0; i < sentences; i++) {
+                text.append(i == 0 && page % 3 == 0 ? ", and so " : "The river ")
+                    .append(random.nextBoolean() ? "rose again" : "fell, see http://example.org/p" + page)
+                    .append(random.nextInt(4) == 0 ? ".\n\n" : ". ");
+            }
+            pages.add(text.toString());
+        }
+        String book = new DocumentParser().cleanText(String.join("\f", pages));
+
+        for (TextChunker.ChunkingStrategy strategy : TextChunker.ChunkingStrategy.values()) {
+            TextChunker chunker = new TextChunker(40, 8, strategy);
+            PageCleaner cleaner = new PageCleaner();
+            Iterator<String> cleaned = pages.stream().map(cleaner::clean).iterator();
+
+            assertEquals(describe(chunker.chunkDocument(book, "book.pdf", "Book").iterator()),
+                describe(chunker.chunkConcatenation(cleaned, "book.pdf", "Book")), strategy.name());
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.mohnish.voiceassistant.document;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A cached parse must be indistinguishable from a fresh one
+ */
+public class ParsedTextCacheTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void servesSecondParseFromCache() throws IOException {
+        File book = writeBook("book.txt", "Café notes ,with  spacing.\nSee http://example.org now\n");
+        ParsedTextCache cache = new ParsedTextCache(tempDir.resolve("cache").toFile());
+        DocumentParser parser = new DocumentParser();
+        parser.setTextCache(cache);
+
+        ParsedDocument fresh = parser.parse(book);
+        ParsedDocument cached = parser.parse(book);
+
+        assertEquals(1, cache.getHits());
+        assertEquals(fresh.getText(), cached.getText());
+        assertArrayEquals(fresh.getPageStarts(), cached.getPageStarts());
+        assertEquals(fresh.getPageCount(), cached.getPageCount());
+        assertEquals("book.txt", cached.getTitle());
+    }
+
+    @Test
+    public void keysOnContentNotName() throws IOException {
+        String content = "Same words in two files.";
+        ParsedTextCache cache = new ParsedTextCache(tempDir.resolve("cache").toFile());
+        DocumentParser parser = new DocumentParser();
+        parser.setTextCache(cache);
+
+        parser.parse(writeBook("first.txt", content));
+        ParsedDocument copy = parser.parse(writeBook("copy.txt", content));
+
+        assertEquals(1, cache.getHits());
+        assertEquals("copy.txt", copy.getTitle());
+        assertEquals("copy.txt", copy.getMetadata().getFilename());
+    }
+
+    @Test
+    public void ignoresCorruptEntries() throws IOException {
+        File book = writeBook("book.txt", "Some text that will be parsed again.");
+        File cacheDirectory = tempDir.resolve("cache").toFile();
+        ParsedTextCache cache = new ParsedTextCache(cacheDirectory);
+        DocumentParser parser = new DocumentParser();
+        parser.setTextCache(cache);
+        String expected = parser.parse(book).getText();
+
+        for (File entry : cacheDirectory.listFiles()) {
+            byte[] bytes = Files.readAllBytes(entry.toPath());
+            Files.write(entry.toPath(), Arrays.copyOf(bytes, bytes.length - 4));
+        }
+
+        assertNull(cache.get(book, ParsedTextCache.contentHash(book)));
+        assertEquals(expected, parser.parse(book).getText());
+    }
+
+    @Test
+    public void treatsCorruptLengthsAsMisses() throws IOException {
+        File book = writeBook("book.txt", "Two pages of text.");
+        String hash = ParsedTextCache.contentHash(book);
+        ParsedTextCache cache = new ParsedTextCache(tempDir.resolve("cache").toFile());
+        DocumentMetadata metadata = new DocumentMetadata();
+        metadata.setPageCount(2);
+        cache.put(hash, new ParsedDocument(metadata, "Two pages of text.", new int[] { 0, 10 }));
+
+        // Header: magic, version, page count, three absent strings, then the page and text lengths
+        File entry = tempDir.resolve("cache").toFile().listFiles()[0];
+        byte[] original = Files.readAllBytes(entry.toPath());
+        for (int offset : new int[] { 24, 36 }) {
+            byte[] corrupt = original.clone();
+            ByteBuffer.wrap(corrupt).putInt(offset, Integer.MAX_VALUE);
+            Files.write(entry.toPath(), corrupt);
+            assertNull(cache.get(book, hash));
+        }
+        assertEquals(2, cache.getMisses());
+    }
+
+    @Test
+    public void replacesAnEntryThatWasRead() throws IOException {
+        File book = writeBook("book.txt", "Text cached twice in a row.");
+        String hash = ParsedTextCache.contentHash(book);
+        ParsedTextCache cache = new ParsedTextCache(tempDir.resolve("cache").toFile());
+        DocumentParser parser = new DocumentParser();
+        ParsedDocument parsed = parser.parse(book);
+
+        cache.put(hash, parsed);
+        assertEquals(parsed.getText(), cache.get(book, hash).getText());
+        cache.put(hash, parsed);
+        assertEquals(parsed.getText(), cache.get(book, hash).getText());
+        assertEquals(2, cache.getHits());
+    }
+
+    private File writeBook(String name, String content) throws IOException {
+        File file = tempDir.resolve(name).toFile();
+        Files.writeString(file.toPath(), content);
+        return file;
+    }
+}
@@ -0,0 +1,74 @@
+package com.mohnish.voiceassistant.document;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static com.mohnish.voiceassistant.document.ChunkerFixtures.randomText;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Sentence boundaries from SentenceScanner
+ */
+public class SentenceScannerTest {
+
+    @Test
+    public void splitsAtTerminatorsFollowedByWhitespace() {
+        assertEquals(List.of("One.", "Two!", "Three?", "Four"), sentences("One. Two! Three? Four"));
+    }
+
+    @Test
+    public void keepsAbbreviationsInitialsAndDecimalsInside() {
+        assertEquals(List.of("Dr. Smith paid 3.14 dollars, e.g. for J. R. R. Tolkien books.", "Then he left."),
+            sentences("Dr. Smith paid 3.14 dollars, e.g. for J. R. R. Tolkien books. Then he left."));
+    }
+
+    @Test
+    public void numberAbbreviationsOnlyBeforeNumbers() {
+        assertEquals(List.of("He said no.", "Then he left."), sentences("He said no. Then he left."));
+        assertEquals(List.of("See No. 5 on p. 12 and pp. 14-16.", "Then stop."),
+            sentences("See No. 5 on p. 12 and pp. 14-16. Then stop."));
+        assertEquals(List.of("Smith et al.", "They disagree."), sentences("Smith et al. They disagree."));
+    }
+
+    @Test
+    public void handlesEllipsesQuotesAndBlankLines() {
+        assertEquals(List.of("Wait... what now?", "He said \"Stop.\"", "It ended…", "Chapter Two", "It began"),
+            sentences("Wait... what now? He said \"Stop.\" It ended… Chapter Two\n\nIt began"));
+    }
+
+    @Test
+    public void incompleteTextStopsBeforeUndecidedSentences() {
+        String text = "First one. Second one. Third one.";
+        List<String> found = new ArrayList<>();
+        int resume = SentenceScanner.scan(text, 0, false, (start, end) -> found.add(text.substring(start, end)));
+        assertEquals(List.of("First one.", "Second one."), found);
+        assertEquals(text.indexOf("Third"), resume);
+    }
+
+    @Test
+    public void scanningInPiecesMatchesScanningAtOnce() {
+        Random random = new Random(9);
+        for (int round = 0; round < 500; round++) {
+            String whole = randomText(random, random.nextInt(200));
+
+            List<String> pieces = new ArrayList<>();
+            int resume = 0;
+            for (int length = 0; length < whole.length(); length += 1 + random.nextInt(20)) {
+                String prefix = whole.substring(0, length);
+                resume = SentenceScanner.scan(prefix, resume, false, (start, end) -> pieces.add(prefix.substring(start, end)));
+            }
+            SentenceScanner.scan(whole, resume, true, (start, end) -> pieces.add(whole.substring(start, end)));
+
+            assertEquals(sentences(whole), pieces, "round " + round);
+        }
+    }
+
+    private static List<String> sentences(String text) {
+        List<String> sentences = new ArrayList<>();
+        SentenceScanner.scan(text, 0, true, (start, end) -> sentences.add(text.substring(start, end)));
+        return sentences;
+    }
+}
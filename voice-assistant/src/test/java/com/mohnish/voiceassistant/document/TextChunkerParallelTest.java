@@ -0,0 +1,77 @@
+package com.mohnish.voiceassistant.document;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static com.mohnish.voiceassistant.document.ChunkerFixtures.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Chunking a long text in parallel segments must give exactly the chunks of
+ * chunking it on one thread
+ */
+public class TextChunkerParallelTest {
+
+    private static ForkJoinPool pool;
+
+    @BeforeAll
+    public static void startPool() {
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterAll
+    public static void stopPool() {
+        pool.shutdown();
+    }
+
+    @Test
+    public void segmentedMatchesSequential() {
+        Random random = new Random(19);
+        for (int round = 0; round < 4; round++) {
+            String text = randomText(random, 30000 + random.nextInt(30000));
+            for (TextChunker sequential : chunkers()) {
+                TextChunker parallel = new TextChunker(sequential.getChunkSize(), sequential.getChunkOverlap(), sequential.getStrategy());
+                parallel.setTokenBudget(sequential.getTokenBudget());
+                parallel.setSegmentChars(2000);
+                parallel.setPool(pool);
+
+                List<String> expected = describe(sequential.chunkDocument(text, "book.txt", "Book"));
+                assertEquals(expected, describe(parallel.chunkDocument(text, "book.txt", "Book")),
+                    sequential.getStrategy() + " budget " + sequential.getTokenBudget() + " round " + round);
+            }
+        }
+    }
+
+    @Test
+    public void cleanedTextIsSegmentedAtSentences() {
+        // What cleanText produces: one line, single spaces, and some long unpunctuated runs
+        String[] cleaned = { "Word ", "and ", "so ", "x ", ". ", "! ", "? ", "end. ", "Dr. ", "3.14 ", "\" ", "He said no. " };
+        Random random = new Random(23);
+        for (int round = 0; round < 4; round++) {
+            StringBuilder builder = new StringBuilder();
+            for (int i = 0; i < 30000; i++) {
+                boolean runOn = (i / 3000) % 3 == 2;
+                builder.append(cleaned[random.nextInt(runOn ? 4 : cleaned.length)]);
+            }
+            String text = builder.toString().trim();
+
+            for (TextChunker sequential : chunkers()) {
+                TextChunker parallel = new TextChunker(sequential.getChunkSize(), sequential.getChunkOverlap(), sequential.getStrategy());
+                parallel.setTokenBudget(sequential.getTokenBudget());
+                parallel.setSegmentChars(2000);
+                parallel.setPool(pool);
+                assertTrue(parallel.segmentCuts(text, 4, new ArrayList<>()).length > 10, "cleaned text is segmented");
+
+                assertEquals(describe(sequential.chunkDocument(text, "book.txt", "Book")),
+                    describe(parallel.chunkDocument(text, "book.txt", "Book")),
+                    sequential.getStrategy() + " budget " + sequential.getTokenBudget() + " round " + round);
+            }
+        }
+    }
+}
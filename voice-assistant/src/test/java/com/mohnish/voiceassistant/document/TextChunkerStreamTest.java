@@ -0,0 +1,143 @@
+package com.mohnish.voiceassistant.document;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import static com.mohnish.voiceassistant.document.ChunkerFixtures.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Chunks are slices of the text at their positions, and streamed chunking
+ * must give exactly the chunks of chunkDocument on the whole text
+ */
+public class TextChunkerStreamTest {
+
+    @Test
+    public void chunksAreSlicesAtTheirPositions() {
+        String text = randomText(new Random(3), 5000);
+        for (TextChunker chunker : chunkers()) {
+            List<DocumentChunk> chunks = chunker.chunkDocument(text, "book.txt", "Book");
+            long previousEnd = 0;
+            for (DocumentChunk chunk : chunks) {
+                assertEquals(text.substring((int) chunk.getStartPosition(), (int) chunk.getEndPosition()), chunk.getText());
+                assertEquals(chunk.getText().trim().split("\\s+").length, chunk.getWordCount());
+                if (chunker.getStrategy() == TextChunker.ChunkingStrategy.FIXED_SIZE && chunk.getChunkIndex() > 0) {
+                    assertTrue(chunk.getStartPosition() < previousEnd, "overlapping chunks overlap");
+                }
+                previousEnd = chunk.getEndPosition();
+            }
+        }
+    }
+
+    @Test
+    public void readerMatchesWholeText() {
+        Random random = new Random(7);
+        for (int round = 0; round < 6; round++) {
+            String text = randomText(random, 20000 + random.nextInt(20000));
+            for (TextChunker chunker : chunkers()) {
+                List<String> expected = describe(chunker.chunkDocument(text, "book.txt", "Book").iterator());
+                assertEquals(expected, describe(chunker.chunkStream(new StringReader(text), "book.txt", "Book")),
+                    chunker.getStrategy() + " round " + round);
+                assertEquals(expected, describe(chunker.chunkStream((CharSequence) text, "book.txt", "Book")),
+                    chunker.getStrategy() + " round " + round);
+            }
+        }
+    }
+
+    @Test
+    public void piecesMatchJoinedText() {
+        Random random = new Random(11);
+        List<String> pieces = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            pieces.add(i % 9 == 0 ? " \n" : randomText(random, 400 + random.nextInt(2000)));
+        }
+        List<String> kept = new ArrayList<>();
+        for (String piece : pieces) {
+            if (!piece.trim().isEmpty()) kept.add(piece);
+        }
+        String joined = String.join(" ", kept);
+
+        for (TextChunker chunker : chunkers()) {
+            assertEquals(describe(chunker.chunkDocument(joined, "book.txt", "Book").iterator()),
+                describe(chunker.chunkStream(pieces.iterator(), "book.txt", "Book")),
+                chunker.getStrategy().name());
+        }
+    }
+
+    @Test
+    public void tokenBudgetedChunksStayWithinBudget() {
+        Random random = new Random(13);
+        StringBuilder text = new StringBuilder(randomText(random, 3000));
+        text.append(" A sentence that runs on");
+        for (int i = 0; i < 400; i++) text.append(" and on");
+        text.append(". ").append("x".repeat(5000)).append(" 3.14159265358979 ").append(randomText(random, 3000));
+        String whole = text.toString();
+
+        for (TextChunker chunker : chunkers()) {
+            if (chunker.getTokenBudget() == 0) continue;
+            List<DocumentChunk> chunks = chunker.chunkDocument(whole, "book.txt", "Book");
+            int covered = 0;
+            for (DocumentChunk chunk : chunks) {
+                int tokens = TokenEstimator.estimate(chunk.getContent());
+                assertTrue(tokens <= chunker.getTokenBudget(), tokens + " tokens in " + chunk);
+                assertEquals(String.valueOf(tokens), chunk.getMetadata().get("token_count"));
+                assertTrue(chunk.getStartPosition() <= covered || whole.substring(covered, (int) chunk.getStartPosition()).trim().isEmpty(),
+                    "no text is left out");
+                covered = Math.max(covered, (int) chunk.getEndPosition());
+            }
+            assertTrue(whole.substring(covered).trim().isEmpty());
+            assertEquals(describe(chunks.iterator()), describe(chunker.chunkStream(new StringReader(whole), "book.txt", "Book")),
+                chunker.getStrategy().name());
+        }
+    }
+
+    @Test
+    public void sentencesLongerThanAChunkAreSplitByWords() {
+        // A lower-case transcript: no sentence or paragraph boundary anywhere
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 3000; i++) text.append(i % 7 == 0 ? "and " : "so we talked ");
+        String transcript = text.toString().trim();
+
+        for (TextChunker chunker : chunkers()) {
+            if (chunker.getTokenBudget() > 0) continue;
+            List<DocumentChunk> chunks = chunker.chunkDocument(transcript, "talk.txt", "Talk");
+            assertTrue(chunks.size() > 1, chunker.getStrategy().name());
+            for (DocumentChunk chunk : chunks) {
+                assertTrue(chunk.getWordCount() <= chunker.getChunkSize(), chunk.getWordCount() + " words in " + chunk);
+            }
+            assertEquals(transcript.length(), chunks.get(chunks.size() - 1).getEndPosition());
+            assertEquals(describe(chunks.iterator()), describe(chunker.chunkStream(new StringReader(transcript), "talk.txt", "Talk")),
+                chunker.getStrategy().name());
+        }
+    }
+
+    @Test
+    public void positionsPastTwoGigacharactersDoNotWrap() {
+        String text = randomText(new Random(17), 20000);
+        long start = Integer.MAX_VALUE - 10000L;  // The stream crosses 2^31 after a few chunks
+        for (TextChunker chunker : chunkers()) {
+            List<DocumentChunk> expected = chunker.chunkDocument(text, "book.txt", "Book");
+            Iterator<DocumentChunk> streamed = chunker.chunkStream(new StringReader(text), start, "book.txt", "Book");
+            for (DocumentChunk chunk : expected) {
+                DocumentChunk actual = streamed.next();
+                assertEquals(start + chunk.getStartPosition(), actual.getStartPosition(), chunker.getStrategy().name());
+                assertEquals(start + chunk.getEndPosition(), actual.getEndPosition(), chunker.getStrategy().name());
+                assertEquals(chunk.getText(), actual.getText());
+            }
+            assertFalse(streamed.hasNext());
+            assertTrue(start + expected.get(expected.size() - 1).getEndPosition() > Integer.MAX_VALUE);
+        }
+    }
+
+    @Test
+    public void emptyInputGivesNoChunks() {
+        for (TextChunker chunker : chunkers()) {
+            assertFalse(chunker.chunkStream(new StringReader(" \n\t "), "book.txt", "Book").hasNext());
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.mohnish.voiceassistant.document;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static com.mohnish.voiceassistant.document.ChunkerFixtures.escape;
+import static com.mohnish.voiceassistant.document.ChunkerFixtures.randomText;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * TextNormalizer must produce exactly what the original regex cascade produced
+ */
+public class TextNormalizerTest {
+
+    /** The cascade DocumentParser.cleanText used before TextNormalizer, kept as the reference */
+    private static String legacyClean(String text) {
+        if (text == null || text.trim().isEmpty()) {
+            return "";
+        }
+        text = text.replaceAll("\\s+", " ");
+        text = text.replaceAll("(?m)^\\s*\\d+\\s*$", "");
+        text = text.replaceAll("(?m)^\\s*Page \\d+\\s*$", "");
+        text = text.replaceAll("(?m)^\\s*Chapter \\d+\\s*$", "");
+        text = text.replaceAll("https?://\\S+", "");
+        text = text.replaceAll("[\\w.-]+@[\\w.-]+\\.\\w+", "");
+        text = text.replaceAll("\\(cid:\\d+\\)", "");
+        text = text.replaceAll("\\u00A0", " ");
+        text = text.replaceAll("\\bl\\b", "I");
+        text = text.replaceAll("\\b0\\b", "O");
+        text = text.replaceAll("\n{3,}", "\n\n");
+        text = text.replaceAll("\\s+([.,!?;:])", "$1");
+        text = text.replaceAll("([.,!?;:])([A-Z])", "$1 $2");
+        return text.trim();
+    }
+
+    // Fragments that exercise every rule and the seams between them
+    private static final String[] FRAGMENTS = {
+        " ", "  ", "\t", "\n", "\r\n", "\f", "\u00A0", "\u2028", "\u2029", "\u0085", "\u0001",
+        "a", "word", "The", "X", "l", "0", "12", "7", "_", "-", ".", ",", "!", "?", ";", ":", "(", ")",
+        "Page", "Page ", "Page 3", "Chapter", "Chapter 12", "@", "me@site.com", "a.b-c@d.e.org",
+        "x@y", ".com", "http://", "https://", "http://example.org/a?b=c", "(cid:", "(cid:42)", "cid:7)",
+        "\u0301", "\u00E9", "\uD835\uDC00", "\u03A9", "\u0663"
+    };
+
+    @Test
+    public void matchesLegacyCascadeOnKnownCases() {
+        TextNormalizer normalizer = new TextNormalizer();
+        String[] cases = {
+            null, "", "   ", "\u0001", "12", "  Page 4 ", "Chapter 9\u2028text\u2028 17 \u2028Page 2",
+            "See http://example.com/x for details .", "mail me@example.com or a@b.c-d@e.fg now",
+            "l l0l 0 l.l (cid:3)l(cid:4) l(cid:1)ab@c.d", "Hello ,World .Next", "x\u00A0.\u00A0,Y",
+            "http://x\u20287 \u2029z", "l\u0301 \u0301l ", "a(cid:1)b@c.d", "a.B@x.y", "e.g.This; that:Then",
+            "first page\fsecond page\f", "name@http://zzz", "xhttp://y@z.com", "caf\u00E9 l \u00E90"
+        };
+        for (String text : cases) {
+            assertEquals(legacyClean(text), normalizer.normalize(text), "input: " + escape(text));
+        }
+    }
+
+    @Test
+    public void matchesLegacyCascadeOnRandomText() {
+        TextNormalizer normalizer = new TextNormalizer();
+        Random random = new Random(42);
+        for (int round = 0; round < 20000; round++) {
+            String input = randomText(random, FRAGMENTS, 1 + random.nextInt(25));
+            assertEquals(legacyClean(input), normalizer.normalize(input), "input: " + escape(input));
+        }
+    }
+
+    @Test
+    public void reusesBufferAcrossCalls() {
+        TextNormalizer normalizer = new TextNormalizer();
+        assertEquals("A long first text.", normalizer.normalize("A long   first text ."));
+        assertEquals("B", normalizer.normalize("B"));
+    }
+
+    @Test
+    public void recordsWherePagesStart() {
+        TextNormalizer normalizer = new TextNormalizer();
+        int[] pageStarts = new int[4];
+        String text = normalizer.normalize("First page\f 12 \f\u2028Third ,page\fFourth", pageStarts);
+
+        assertEquals("First page 12 \u2028Third,page Fourth", text);
+        assertArrayEquals(new int[] { 0, 11, 14, 26 }, pageStarts);
+    }
+
+    @Test
+    public void pageStartsStayOrderedAndInRange() {
+        TextNormalizer normalizer = new TextNormalizer();
+        Random random = new Random(7);
+        for (int round = 0; round < 5000; round++) {
+            StringBuilder input = new StringBuilder();
+            int fragments = 1 + random.nextInt(25);
+            for (int i = 0; i < fragments; i++) {
+                input.append(random.nextInt(4) == 0 ? "\f" : FRAGMENTS[random.nextInt(FRAGMENTS.length)]);
+            }
+            int[] pageStarts = new int[DocumentParser.countPages(input.toString()) + 1];
+            String text = normalizer.normalize(input.toString(), pageStarts);
+
+            assertEquals(legacyClean(input.toString()), text, "input: " + escape(input.toString()));
+            assertEquals(0, pageStarts[0]);
+            for (int page = 1; page < pageStarts.length; page++) {
+                assertTrue(pageStarts[page - 1] <= pageStarts[page] && pageStarts[page] <= text.length(),
+                    "input: " + escape(input.toString()));
+            }
+        }
+    }
+}
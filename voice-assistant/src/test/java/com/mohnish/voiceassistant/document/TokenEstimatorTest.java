@@ -0,0 +1,55 @@
+package com.mohnish.voiceassistant.document;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Token estimates and per-model budgets
+ */
+public class TokenEstimatorTest {
+
+    @Test
+    public void estimatesWordsNumbersAndPunctuation() {
+        assertEquals(0, TokenEstimator.estimate(" \n\t"));
+        assertEquals(4, TokenEstimator.estimate("The model learns."));
+        assertEquals(3, TokenEstimator.estimate("representation"));
+        assertEquals(3, TokenEstimator.estimate("3.14"));
+        assertEquals(3, TokenEstimator.estimate("\u6771\u4EAC\u3067"));
+        assertEquals(2, TokenEstimator.estimate("caf\u00E9!"));
+        // Rare words are underestimated: the tokenizers split this one into about 4 pieces
+        assertEquals(2, TokenEstimator.estimate("Kubernetes"));
+    }
+
+    @Test
+    public void estimateOfTextIsSumOfItsPieces() {
+        Random random = new Random(17);
+        String alphabet = "abcXYZ0123 .,\n\u00E9\u6771";
+        for (int round = 0; round < 500; round++) {
+            StringBuilder text = new StringBuilder();
+            for (int i = random.nextInt(80); i > 0; i--) {
+                text.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            int split = random.nextInt(text.length() + 1);
+            int whole = TokenEstimator.estimate(text);
+            int pieces = TokenEstimator.estimate(text, 0, split) + TokenEstimator.estimate(text, split, text.length());
+            assertTrue(whole <= pieces, text.toString());
+            if (split == text.length() || TokenizedText.isSpace(text.charAt(split))) {
+                assertEquals(whole, pieces, text.toString());
+            }
+        }
+    }
+
+    @Test
+    public void budgetsFollowTheModel() {
+        assertEquals(2048, TokenEstimator.contextWindow("nomic-embed-text:latest"));
+        assertEquals(512, TokenEstimator.contextWindow("mxbai-embed-large"));
+        assertEquals(512, TokenEstimator.contextWindow("some-new-model"));
+        assertEquals(1841, TokenEstimator.budgetFor("nomic-embed-text"));
+
+        TokenEstimator.setContextWindow("test-embed", 1000);
+        assertEquals(898, TokenEstimator.budgetFor("test-embed:v2"));
+    }
+}
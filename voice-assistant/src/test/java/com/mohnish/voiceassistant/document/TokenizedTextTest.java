@@ -0,0 +1,85 @@
+package com.mohnish.voiceassistant.document;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static com.mohnish.voiceassistant.document.ChunkerFixtures.randomText;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Offsets from TokenizedText must describe the same units string splitting would
+ */
+public class TokenizedTextTest {
+
+    @Test
+    public void sentencesAreOrderedWithTheirWordCounts() {
+        Random random = new Random(3);
+        for (int round = 0; round < 300; round++) {
+            String text = randomText(random, random.nextInt(300));
+            TokenizedText.Spans sentences = new TokenizedText(text).getSentences();
+            int previousEnd = 0;
+            for (int i = 0; i < sentences.size(); i++) {
+                assertTrue(sentences.getStart(i) >= previousEnd, "round " + round);
+                assertTrue(sentences.getEnd(i) > sentences.getStart(i), "round " + round);
+                previousEnd = sentences.getEnd(i);
+            }
+            assertWordCounts(text, sentences);
+        }
+    }
+
+    @Test
+    public void paragraphsMatchSplit() {
+        Random random = new Random(5);
+        for (int round = 0; round < 300; round++) {
+            String text = randomText(random, random.nextInt(300));
+            List<String> expected = new ArrayList<>();
+            for (String paragraph : text.split("\n\n+")) {
+                if (!paragraph.trim().isEmpty()) expected.add(paragraph.trim());
+            }
+            TokenizedText tokens = new TokenizedText(text);
+            assertEquals(expected, texts(text, tokens.getParagraphs()), "round " + round);
+            assertWordCounts(text, tokens.getParagraphs());
+        }
+    }
+
+    @Test
+    public void incompleteTextHoldsBackUnfinishedUnits() {
+        String text = "One two. Three fo";
+        TokenizedText tokens = new TokenizedText(text, 0, false);
+
+        assertEquals(List.of("One", "two.", "Three"), texts(text, tokens.getWords()));
+        assertEquals(text.indexOf("fo"), tokens.getWords().getResume());
+        assertEquals(List.of("One two."), texts(text, tokens.getSentences()));
+        assertEquals(text.indexOf("Three"), tokens.getSentences().getResume());
+        assertEquals(List.of(), texts(text, tokens.getParagraphs()));
+        assertEquals(0, tokens.getParagraphs().getResume());
+    }
+
+    @Test
+    public void countsWordsInRanges() {
+        String text = " alpha  beta\tgamma\n";
+        TokenizedText tokens = new TokenizedText(text);
+        assertEquals(3, tokens.countWords(0, text.length()));
+        assertEquals(2, tokens.countWords(3, 9));
+        assertEquals(0, tokens.countWords(6, 8));
+        assertEquals(3, TokenizedText.countWords(text));
+    }
+
+    private static void assertWordCounts(String text, TokenizedText.Spans spans) {
+        for (int i = 0; i < spans.size(); i++) {
+            String span = text.substring(spans.getStart(i), spans.getEnd(i));
+            assertEquals(span.split("\\s+").length, spans.getWords(i), span);
+        }
+    }
+
+    private static List<String> texts(String text, TokenizedText.Spans spans) {
+        List<String> texts = new ArrayList<>();
+        for (int i = 0; i < spans.size(); i++) {
+            texts.add(text.substring(spans.getStart(i), spans.getEnd(i)));
+        }
+        return texts;
+    }
+}
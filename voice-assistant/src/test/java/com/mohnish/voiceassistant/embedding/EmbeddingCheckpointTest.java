@@ -0,0 +1,107 @@
+package com.mohnish.voiceassistant.embedding;
+
+import com.mohnish.voiceassistant.document.DocumentChunk;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A checkpoint must hand back exactly the vectors recorded for the same text
+ * and embedding space, and nothing else
+ */
+public class EmbeddingCheckpointTest {
+    private static final String SPACE = "test-model/api/embed+l2";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void roundTripsRecordedEmbeddings() throws IOException {
+        File directory = tempDir.toFile();
+        DocumentChunk first = new DocumentChunk("book_chunk_0000", "First chunk text.", "book.txt", 0);
+        DocumentChunk second = new DocumentChunk("book_chunk_0001", "Second chunk text.", "book.txt", 1);
+
+        try (EmbeddingCheckpoint checkpoint = EmbeddingCheckpoint.open(directory, "book.txt", SPACE)) {
+            checkpoint.record(first, List.of(0.25, -0.5));
+            checkpoint.record(second, List.of(1.0, 0.0));
+        }
+
+        try (EmbeddingCheckpoint checkpoint = EmbeddingCheckpoint.open(directory, "book.txt", SPACE)) {
+            assertEquals(2, checkpoint.size());
+            assertEquals(List.of(0.25, -0.5), checkpoint.get(first));
+            assertEquals(List.of(1.0, 0.0), checkpoint.get(second));
+        }
+    }
+
+    @Test
+    public void ignoresChangedTextOtherSpacesAndTornLines() throws IOException {
+        File directory = tempDir.toFile();
+        DocumentChunk chunk = new DocumentChunk("book_chunk_0000", "Original text.", "book.txt", 0);
+
+        try (EmbeddingCheckpoint checkpoint = EmbeddingCheckpoint.open(directory, "book.txt", SPACE)) {
+            checkpoint.record(chunk, List.of(0.5));
+        }
+        File file = directory.listFiles()[0];
+        Files.write(file.toPath(), "{\"id\":\"book_chunk_0001\",\"crc\":1,\"spa".getBytes(StandardCharsets.UTF_8),
+            StandardOpenOption.APPEND);
+
+        try (EmbeddingCheckpoint checkpoint = EmbeddingCheckpoint.open(directory, "book.txt", SPACE)) {
+            assertEquals(1, checkpoint.size());
+            assertNull(checkpoint.get(new DocumentChunk("book_chunk_0000", "Edited text.", "book.txt", 0)));
+        }
+        try (EmbeddingCheckpoint checkpoint = EmbeddingCheckpoint.open(directory, "book.txt", "other-model/api/embeddings")) {
+            assertEquals(0, checkpoint.size());
+            assertNull(checkpoint.get(chunk));
+        }
+    }
+
+    @Test
+    public void resumesWithoutReembeddingCheckpointedChunks() throws Exception {
+        CountingProvider provider = new CountingProvider();
+        EmbeddingGenerator generator = new EmbeddingGenerator(provider);
+        List<DocumentChunk> chunks = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            chunks.add(new DocumentChunk("book_chunk_000" + i, "Chunk number " + i + " text.", "book.txt", i));
+        }
+
+        List<List<Double>> expected;
+        try (EmbeddingCheckpoint checkpoint = EmbeddingCheckpoint.open(tempDir.toFile(), "book.txt", SPACE)) {
+            expected = generator.generateForBatch(chunks.subList(0, 4), checkpoint);
+        }
+        assertEquals(4, provider.embedded);
+
+        try (EmbeddingCheckpoint checkpoint = EmbeddingCheckpoint.open(tempDir.toFile(), "book.txt", SPACE)) {
+            List<List<Double>> resumed = generator.generateForBatch(chunks, checkpoint);
+            assertEquals(expected, resumed.subList(0, 4));
+            assertEquals(6, checkpoint.size());
+
+            checkpoint.delete();
+        }
+        assertEquals(6, provider.embedded);
+        assertEquals(0, tempDir.toFile().listFiles().length);
+    }
+
+    private static class CountingProvider extends HashingEmbeddingProvider {
+        private int embedded;
+
+        private CountingProvider() {
+            super(8, 3);
+        }
+
+        @Override
+        public List<Double> generateEmbedding(String text) {
+            embedded++;
+            return super.generateEmbedding(text);
+        }
+    }
+}
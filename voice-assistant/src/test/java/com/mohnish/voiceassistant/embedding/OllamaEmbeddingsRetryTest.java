@@ -0,0 +1,89 @@
+package com.mohnish.voiceassistant.embedding;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Only transient failures are retried, and an interrupt ends the retries
+ */
+public class OllamaEmbeddingsRetryTest {
+    private static final String VECTOR = "{\"embeddings\":[[0.6,0.8]]}";
+
+    private HttpServer server;
+    private final Deque<Integer> statuses = new ArrayDeque<>();
+    private final AtomicInteger requests = new AtomicInteger();
+
+    @AfterEach
+    public void stopServer() {
+        if (server != null) {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    public void retriesServerErrorsAndRateLimits() throws Exception {
+        OllamaEmbeddings client = start(503, 429, 200);
+
+        assertEquals(List.of(0.6, 0.8), client.generateEmbeddingWithRetry("some text"));
+        assertEquals(3, requests.get());
+        assertEquals(2, client.getRetryCount());
+    }
+
+    @Test
+    public void doesNotRetryClientErrors() throws Exception {
+        OllamaEmbeddings client = start(400, 200);
+
+        EmbeddingApiException error = assertThrows(EmbeddingApiException.class,
+            () -> client.generateEmbeddingWithRetry("some text"));
+        assertEquals(400, error.getStatusCode());
+        assertEquals(1, requests.get());
+        assertEquals(0, client.getRetryCount());
+    }
+
+    @Test
+    public void stopsRetryingWhenInterrupted() throws Exception {
+        OllamaEmbeddings client = start(503, 503, 503, 503);
+        client.setRetryBackoffMs(60_000);
+
+        Thread.currentThread().interrupt();
+        try {
+            assertThrows(InterruptedException.class, () -> client.generateEmbeddingWithRetry("some text"));
+            assertTrue(Thread.currentThread().isInterrupted());
+        } finally {
+            Thread.interrupted();
+        }
+        assertTrue(requests.get() <= 1);
+    }
+
+    private OllamaEmbeddings start(Integer... responses) throws IOException {
+        statuses.addAll(List.of(responses));
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/api/embed", exchange -> {
+            requests.incrementAndGet();
+            Integer status = statuses.poll();
+            int code = status != null ? status : 200;
+            byte[] body = (code == 200 ? VECTOR : "{\"error\":\"failed\"}").getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(code, body.length);
+            try (OutputStream output = exchange.getResponseBody()) {
+                output.write(body);
+            }
+        });
+        server.start();
+
+        OllamaEmbeddings client = new OllamaEmbeddings("http://127.0.0.1:" + server.getAddress().getPort(), "test-model");
+        client.setRetryBackoffMs(1);
+        return client;
+    }
+}
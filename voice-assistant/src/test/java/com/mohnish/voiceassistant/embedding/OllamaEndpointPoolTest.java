@@ -0,0 +1,186 @@
+package com.mohnish.voiceassistant.embedding;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Requests go to the least busy endpoint, failing or slow endpoints are ejected
+ * and probed back in, and a pool with every endpoint ejected still serves
+ */
+public class OllamaEndpointPoolTest {
+    private static final String VECTOR = "{\"embeddings\":[[0.6,0.8]]}";
+
+    private final List<Server> servers = new ArrayList<>();
+    private OllamaEndpointPool pool;
+
+    @AfterEach
+    public void stop() {
+        if (pool != null) {
+            pool.close();
+        }
+        for (Server server : servers) {
+            server.release.countDown();
+            server.http.stop(0);
+            server.handlers.shutdownNow();
+        }
+    }
+
+    @Test
+    public void sendsToTheEndpointWithFewestRequestsInFlight() throws Exception {
+        Server busy = server();
+        Server idle = server();
+        busy.release = new CountDownLatch(1);
+        start();
+
+        CompletableFuture<List<Double>> held = pool.submit("first");
+        waitFor(() -> busy.requests.get() == 1);
+
+        assertEquals(List.of(0.6, 0.8), pool.generateEmbedding("second"));
+        assertEquals(1, idle.requests.get());
+        assertEquals(1, busy.requests.get());
+
+        busy.release.countDown();
+        assertEquals(List.of(0.6, 0.8), held.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void ejectsAnEndpointAfterConsecutiveFailures() throws Exception {
+        Server failing = server();
+        Server healthy = server();
+        failing.status = 503;
+        start();
+        pool.setFailuresBeforeEjection(2);
+
+        assertEquals(List.of(0.6, 0.8), pool.generateEmbedding("text"));
+        assertEquals(2, failing.requests.get());
+        assertEquals(1, pool.getAvailableEndpointCount());
+        assertEquals(2, pool.getRetryCount());
+
+        pool.generateEmbedding("more text");
+        assertEquals(2, failing.requests.get());
+        assertEquals(2, healthy.requests.get());
+    }
+
+    @Test
+    public void ejectsAnEndpointThatAnswersTooSlowly() throws Exception {
+        Server slow = server();
+        server();
+        slow.delayMs = 300;
+        start();
+        pool.setSlowRequestMs(100);
+        pool.setFailuresBeforeEjection(1);
+
+        assertEquals(List.of(0.6, 0.8), pool.generateEmbedding("text"));
+        assertEquals(1, slow.requests.get());
+        assertEquals(1, pool.getAvailableEndpointCount());
+    }
+
+    @Test
+    public void failsOpenWhenEveryEndpointIsEjected() throws Exception {
+        Server first = server();
+        Server second = server();
+        first.status = 503;
+        second.status = 503;
+        start();
+        pool.setFailuresBeforeEjection(1);
+        pool.setMaxRetries(1);
+
+        assertThrows(EmbeddingApiException.class, () -> pool.generateEmbedding("text"));
+        assertEquals(0, pool.getAvailableEndpointCount());
+
+        first.status = 200;
+        second.status = 200;
+        assertEquals(List.of(0.6, 0.8), pool.generateEmbedding("text"));
+        assertEquals(3, first.requests.get() + second.requests.get());
+    }
+
+    @Test
+    public void readmitsAnEndpointOnceItAnswersAgain() throws Exception {
+        Server flaky = server();
+        server();
+        flaky.status = 503;
+        start();
+        pool.setFailuresBeforeEjection(1);
+        pool.setEjectionMs(0);
+
+        pool.generateEmbedding("text");
+        assertEquals(1, pool.getAvailableEndpointCount());
+
+        pool.checkHealth();
+        assertEquals(1, pool.getAvailableEndpointCount());
+
+        flaky.status = 200;
+        pool.checkHealth();
+        assertEquals(2, pool.getAvailableEndpointCount());
+    }
+
+    private Server server() throws IOException {
+        Server server = new Server();
+        server.http.createContext("/api/embed", exchange -> {
+            server.requests.incrementAndGet();
+            try {
+                server.release.await();
+                Thread.sleep(server.delayMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            int code = server.status;
+            byte[] body = (code == 200 ? VECTOR : "{\"error\":\"failed\"}").getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(code, body.length);
+            try (OutputStream output = exchange.getResponseBody()) {
+                output.write(body);
+            }
+        });
+        servers.add(server);
+        return server;
+    }
+
+    private void start() {
+        List<String> urls = new ArrayList<>();
+        for (Server server : servers) {
+            server.http.start();
+            urls.add("http://127.0.0.1:" + server.http.getAddress().getPort());
+        }
+        pool = new OllamaEndpointPool(urls, "test-model", 2);
+        pool.setRetryBackoffMs(1);
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "timed out");
+            Thread.sleep(10);
+        }
+    }
+
+    private static class Server {
+        private final HttpServer http;
+        private final ExecutorService handlers = Executors.newCachedThreadPool();  // A held request must not block the next
+        private final AtomicInteger requests = new AtomicInteger();
+        private volatile int status = 200;
+        private volatile long delayMs;
+        private volatile CountDownLatch release = new CountDownLatch(0);
+
+        private Server() throws IOException {
+            http = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+            http.setExecutor(handlers);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.mohnish.voiceassistant.embedding;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Batched query vectors must match single calls, and no caller may be left waiting
+ */
+public class QueryEmbeddingBatcherTest {
+
+    @Test
+    public void concurrentQueriesGetTheirOwnVectors() throws Exception {
+        HashingEmbeddingProvider provider = new HashingEmbeddingProvider(64, 3);
+        try (QueryEmbeddingBatcher batcher = new QueryEmbeddingBatcher(provider, 8, 5, 2)) {
+            List<CompletableFuture<List<Double>>> futures = new ArrayList<>();
+            for (int i = 0; i < 50; i++) {
+                futures.add(batcher.submit("query number " + i));
+            }
+            for (int i = 0; i < 50; i++) {
+                assertEquals(provider.generateEmbedding("query number " + i), futures.get(i).get(5, TimeUnit.SECONDS));
+            }
+        }
+    }
+
+    @Test
+    public void everySubmitCompletesWhenClosedConcurrently() throws Exception {
+        HashingEmbeddingProvider provider = new HashingEmbeddingProvider(16, 3);
+        for (int round = 0; round < 20; round++) {
+            QueryEmbeddingBatcher batcher = new QueryEmbeddingBatcher(provider, 4, 1, 2);
+            List<CompletableFuture<List<Double>>> futures = new ArrayList<>();
+            CountDownLatch started = new CountDownLatch(3);
+            List<Thread> submitters = new ArrayList<>();
+            for (int t = 0; t < 3; t++) {
+                Thread submitter = new Thread(() -> {
+                    started.countDown();
+                    for (int i = 0; i < 300; i++) {
+                        CompletableFuture<List<Double>> future = batcher.submit("query " + i);
+                        synchronized (futures) {
+                            futures.add(future);
+                        }
+                    }
+                });
+                submitters.add(submitter);
+                submitter.start();
+            }
+
+            started.await();
+            batcher.close();
+            for (Thread submitter : submitters) {
+                submitter.join();
+            }
+
+            for (CompletableFuture<List<Double>> future : futures) {
+                try {
+                    assertNotNull(future.get(5, TimeUnit.SECONDS));
+                } catch (ExecutionException e) {
+                    assertInstanceOf(IllegalStateException.class, e.getCause());
+                } catch (TimeoutException e) {
+                    fail("A query submitted while closing was never completed");
+                }
+            }
+        }
+    }
+
+    @Test
+    public void rejectsQueriesAfterClose() {
+        QueryEmbeddingBatcher batcher = new QueryEmbeddingBatcher(new HashingEmbeddingProvider(16, 3));
+        batcher.close();
+        ExecutionException error = assertThrows(ExecutionException.class, () -> batcher.submit("late query").get());
+        assertInstanceOf(IllegalStateException.class, error.getCause());
+    }
+}
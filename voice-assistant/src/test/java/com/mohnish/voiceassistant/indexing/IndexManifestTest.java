@@ -0,0 +1,96 @@
+package com.mohnish.voiceassistant.indexing;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A book is skipped only while its content and settings are unchanged, and
+ * re-indexing it leaves no chunks of the previous version behind
+ */
+public class IndexManifestTest {
+
+    private static final String CONFIG = "chunker=v3,strategy=SENTENCE,size=500,overlap=50,embedding=test";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void detectsChangedContentAndSettings() throws IOException {
+        File book = writeBook("book.txt", "First edition.");
+        IndexManifest manifest = IndexManifest.load(tempDir.resolve("manifest.json").toFile());
+        assertFalse(manifest.isUnchanged(book, CONFIG));
+
+        manifest.record(book, IndexManifest.sha256(book), CONFIG, List.of("a", "b"));
+        assertTrue(manifest.isUnchanged(book, CONFIG));
+        assertFalse(manifest.isUnchanged(book, CONFIG.replace("size=500", "size=300")));
+
+        // Touched only: the hash decides
+        assertTrue(book.setLastModified(book.lastModified() - 60_000));
+        assertTrue(manifest.isUnchanged(book, CONFIG));
+
+        // Same size, other content
+        Files.writeString(book.toPath(), "Final edition.");
+        assertTrue(book.setLastModified(book.lastModified() - 120_000));
+        assertFalse(manifest.isUnchanged(book, CONFIG));
+    }
+
+    @Test
+    public void staleIdsAreTheOnesNoLongerStored() throws IOException {
+        File book = writeBook("book.txt", "Some text.");
+        IndexManifest manifest = IndexManifest.load(tempDir.resolve("manifest.json").toFile());
+        assertEquals(List.of(), manifest.staleChunkIds(book, List.of("x_chunk_0000")));
+
+        manifest.record(book, IndexManifest.sha256(book), CONFIG,
+            List.of("x_chunk_0000", "x_chunk_0001", "x_chunk_0002", "x_chunk_0003"));
+        assertEquals(List.of("x_chunk_0002", "x_chunk_0003"),
+            manifest.staleChunkIds(book, List.of("x_chunk_0001", "x_chunk_0000")));
+        assertEquals(List.of(), manifest.staleChunkIds(book, manifest.getChunkIds(book)));
+
+        assertEquals(4, manifest.remove(book).size());
+        assertEquals(List.of(), manifest.getChunkIds(book));
+    }
+
+    @Test
+    public void savedManifestLoadsAgain() throws IOException {
+        File book = writeBook("shelf/book.txt", "Some text.");
+        File file = tempDir.resolve("state/manifest.json").toFile();
+        IndexManifest manifest = IndexManifest.load(file);
+        manifest.record(book, IndexManifest.sha256(book), CONFIG, List.of("a"));
+        manifest.save();
+
+        IndexManifest loaded = IndexManifest.load(file);
+        assertTrue(loaded.isUnchanged(book, CONFIG));
+        assertEquals(List.of("a"), loaded.getChunkIds(book));
+        assertEquals(List.of(book.getAbsoluteFile()), loaded.booksIn(tempDir.resolve("shelf").toFile()));
+    }
+
+    @Test
+    public void sharedManifestIsSeenByEveryProcess() throws IOException {
+        File book = writeBook("book.txt", "Some text.");
+        File directory = tempDir.resolve("shared").toFile();
+        IndexManifest first = IndexManifest.openShared(directory);
+        IndexManifest second = IndexManifest.openShared(directory);
+
+        first.record(book, IndexManifest.sha256(book), CONFIG, List.of("a", "b"));
+        assertTrue(second.isUnchanged(book, CONFIG));
+        assertEquals(List.of("b"), second.staleChunkIds(book, List.of("a")));
+
+        second.remove(book);
+        assertEquals(0, first.size());
+    }
+
+    private File writeBook(String path, String content) throws IOException {
+        Path file = tempDir.resolve(path);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, content);
+        return file.toFile();
+    }
+}
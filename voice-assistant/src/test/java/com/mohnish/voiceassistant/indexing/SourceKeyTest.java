@@ -0,0 +1,72 @@
+package com.mohnish.voiceassistant.indexing;
+
+import com.mohnish.voiceassistant.document.DocumentChunk;
+import com.mohnish.voiceassistant.document.NearDuplicateDetector;
+import com.mohnish.voiceassistant.document.TextChunker;
+import com.mohnish.voiceassistant.embedding.EmbeddingCheckpoint;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Books with the same file name in different folders must never share chunk IDs,
+ * checkpoints or duplicate-detector entries
+ */
+public class SourceKeyTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void sameNameInDifferentFoldersGetsDifferentKeys() throws IOException {
+        File first = writeBook("a/notes.txt", "Meeting notes for the first project.");
+        File second = writeBook("b/notes.txt", "Meeting notes for the first project.");
+
+        String firstKey = IndexManifest.sourceKey(first);
+        String secondKey = IndexManifest.sourceKey(second);
+
+        assertNotEquals(firstKey, secondKey);
+        assertTrue(firstKey.startsWith("notes.txt"));
+        assertEquals(firstKey, IndexManifest.sourceKey(new File(tempDir.toFile(), "a/../a/notes.txt")));
+    }
+
+    @Test
+    public void sameNameBooksKeepSeparateChunksCheckpointsAndDuplicates() throws IOException {
+        String text = "Meeting notes for the first project. Everyone agreed on the plan.";
+        String firstKey = IndexManifest.sourceKey(writeBook("a/notes.txt", text));
+        String secondKey = IndexManifest.sourceKey(writeBook("b/notes.txt", text));
+
+        TextChunker chunker = new TextChunker();
+        List<DocumentChunk> firstChunks = chunker.chunkDocument(text, firstKey, "notes.txt");
+        List<DocumentChunk> secondChunks = chunker.chunkDocument(text, secondKey, "notes.txt");
+        assertNotEquals(firstChunks.get(0).getId(), secondChunks.get(0).getId());
+
+        File checkpoints = tempDir.resolve("checkpoints").toFile();
+        try (EmbeddingCheckpoint checkpoint = EmbeddingCheckpoint.open(checkpoints, firstKey, "test-model")) {
+            checkpoint.record(firstChunks.get(0), List.of(0.1, 0.2));
+        }
+        try (EmbeddingCheckpoint checkpoint = EmbeddingCheckpoint.open(checkpoints, secondKey, "test-model")) {
+            assertEquals(0, checkpoint.size());
+        }
+
+        NearDuplicateDetector detector = new NearDuplicateDetector();
+        assertNull(detector.findOrRegister(firstChunks.get(0)));
+        assertNull(detector.findOrRegister(secondChunks.get(0)));
+        detector.forgetSource(secondKey);
+        assertEquals(1, detector.size());
+    }
+
+    private File writeBook(String path, String content) throws IOException {
+        Path file = tempDir.resolve(path);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, content);
+        return file.toFile();
+    }
+}
@@ -0,0 +1,121 @@
+package com.mohnish.voiceassistant.indexing;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Each task is leased to one worker at a time, and a lease that stops
+ * heartbeating goes back to the queue without its holder noticing too late
+ */
+public class WorkQueueTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void eachTaskIsClaimedOnce() throws IOException {
+        WorkQueue queue = new WorkQueue(tempDir.resolve("queue").toFile());
+        File book = tempDir.resolve("book.pdf").toFile();
+
+        assertTrue(queue.enqueue(book));
+        assertFalse(queue.enqueue(book));
+
+        WorkQueue.Lease lease = queue.claim("worker-1");
+        assertNotNull(lease);
+        assertEquals(book.getAbsolutePath(), lease.getBookFile().getPath());
+        assertNull(queue.claim("worker-2"));
+        assertFalse(queue.enqueue(book), "a leased book is not queued again");
+
+        assertTrue(lease.renew());
+        assertEquals(0, queue.reclaimExpired());
+
+        lease.complete();
+        assertEquals(1, queue.doneCount());
+        assertTrue(queue.isDrained());
+    }
+
+    @Test
+    public void expiredLeasesAreReclaimed() throws IOException {
+        WorkQueue queue = new WorkQueue(tempDir.resolve("queue").toFile());
+        queue.setLeaseMs(60_000);
+        queue.enqueue(tempDir.resolve("book.pdf").toFile());
+
+        WorkQueue.Lease stalled = queue.claim("worker-1");
+        expireLeases(tempDir.resolve("queue/leased"));
+
+        assertEquals(1, queue.reclaimExpired());
+        assertEquals(1, queue.pendingCount());
+        assertFalse(stalled.renew(), "the old holder learns it lost the lease");
+
+        WorkQueue.Lease retry = queue.claim("worker-2");
+        assertNotNull(retry);
+        stalled.complete();  // Too late: must not finish the new lease's task
+        assertEquals(0, queue.doneCount());
+        assertEquals(1, queue.leasedCount());
+
+        retry.complete();
+        assertEquals(1, queue.doneCount());
+    }
+
+    @Test
+    public void failedTasksAreRetriedThenParked() throws IOException {
+        WorkQueue queue = new WorkQueue(tempDir.resolve("queue").toFile());
+        queue.setMaxAttempts(2);
+        queue.enqueue(tempDir.resolve("book.pdf").toFile());
+
+        queue.claim("worker-1").fail("parse error");
+        assertEquals(1, queue.pendingCount());
+
+        WorkQueue.Lease second = queue.claim("worker-1");
+        assertEquals(1, second.getAttempts());
+        second.fail("parse error");
+        assertEquals(0, queue.pendingCount());
+        assertEquals(1, queue.failedCount());
+        assertTrue(queue.isDrained());
+    }
+
+    @Test
+    public void sameNamedBooksInDifferentFoldersAreSeparateTasks() throws IOException {
+        WorkQueue queue = new WorkQueue(tempDir.resolve("queue").toFile());
+
+        assertTrue(queue.enqueue(tempDir.resolve("a/book.pdf").toFile()));
+        assertTrue(queue.enqueue(tempDir.resolve("b/book.pdf").toFile()));
+        assertEquals(2, queue.pendingCount());
+    }
+
+    @Test
+    public void failingAReclaimedLeaseKeepsOneTask() throws IOException {
+        WorkQueue queue = new WorkQueue(tempDir.resolve("queue").toFile());
+        queue.setLeaseMs(60_000);
+        queue.enqueue(tempDir.resolve("book.pdf").toFile());
+
+        WorkQueue.Lease stalled = queue.claim("worker-1");
+        expireLeases(tempDir.resolve("queue/leased"));
+        queue.reclaimExpired();
+
+        stalled.fail("timeout");
+        assertEquals(1, queue.pendingCount());
+        assertEquals(0, queue.leasedCount());
+        assertEquals(0, queue.claim("worker-2").getAttempts());
+    }
+
+    private static void expireLeases(Path leased) throws IOException {
+        List<Path> leases;
+        try (Stream<Path> files = Files.list(leased)) {
+            leases = files.toList();
+        }
+        for (Path lease : leases) {
+            Files.setLastModifiedTime(lease, FileTime.fromMillis(System.currentTimeMillis() - 120_000));
+        }
+    }
+}